@@ -6,7 +6,14 @@ import javafx.application.Application;
  * A launcher class to workaround classpath issues.
  */
 public class Launcher {
+    /**
+     * Launches the GUI, or runs a file of commands without it if started with --batch
+     */
     public static void main(String[] args) {
+        if (Zen.isBatchMode(args)) {
+            Zen.main(args); // Batch runs need no window
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
@@ -10,6 +10,8 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 
+import zen.ui.GuiResponseFormatter;
+
 /**
  * Controller for the main GUI.
  */
@@ -74,6 +76,9 @@ public class MainWindow extends AnchorPane {
     public void setZen(Zen z) {
         this.zen = z;
         showWelcomeMessage();
+        zen.setReminderListener(task -> javafx.application.Platform.runLater(() ->
+                dialogContainer.getChildren().add(
+                        DialogBox.getZenDialog(GuiResponseFormatter.formatReminder(task), zenImage))));
     }
     
     /**
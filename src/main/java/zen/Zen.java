@@ -1,8 +1,13 @@
 package zen;
 
 import zen.command.CommandExecutor;
+import zen.command.CommandResult;
 import zen.exception.ZenException;
+import zen.reminder.ReminderListener;
+import zen.reminder.ReminderScheduler;
+import zen.storage.ShardedStorage;
 import zen.storage.Storage;
+import zen.task.Task;
 import zen.task.TaskList;
 import zen.ui.GuiResponseFormatter;
 import zen.ui.Ui;
@@ -23,11 +28,24 @@ import zen.ui.Ui;
  * - Manage error handling and recovery during initialization
  */
 public class Zen {
+    // Set e.g. -Dzen.archiveAfterDays=30 to archive old done tasks on every startup
+    private static final String ARCHIVE_AFTER_DAYS_PROPERTY = "zen.archiveAfterDays";
+    // Set e.g. -Dzen.shards=4 to spread tasks over several files that are loaded and saved in parallel
+    private static final String SHARDS_PROPERTY = "zen.shards";
+    // Set e.g. -Dzen.sortRunSize=500000 to sort longer lists in memory before sorting on disk takes over
+    private static final String SORT_RUN_SIZE_PROPERTY = "zen.sortRunSize";
+    // Set -Dzen.bufferOutput=true when piping a script in, to write output in large blocks instead of per command
+    private static final String BUFFER_OUTPUT_PROPERTY = "zen.bufferOutput";
+    // Start with --batch <file> to run a file of commands without the interactive loop
+    private static final String BATCH_OPTION = "--batch";
+    private static final String ERROR_BATCH_USAGE = "📜 Which file should I run? Try: --batch tasks.txt";
 
     private final Storage storage;
     private final Ui ui;
     private TaskList tasks;
     private CommandExecutor commandExecutor;
+    private final ReminderScheduler reminderScheduler = new ReminderScheduler(this::deliverReminder);
+    private volatile ReminderListener reminderListener; // Set by the GUI; reminders go to the console otherwise
 
     /**
      * Constructs a Zen instance with default data file location.
@@ -39,8 +57,8 @@ public class Zen {
      * @throws RuntimeException if critical components fail to initialize (rare)
      */
     public Zen() {
-        ui = new Ui();
-        storage = new Storage();
+        ui = new Ui(!Boolean.getBoolean(BUFFER_OUTPUT_PROPERTY));
+        storage = createStorage();
         try {
             tasks = new TaskList(storage.load());
         } catch (ZenException e) {
@@ -48,38 +66,139 @@ public class Zen {
             tasks = new TaskList();
         }
         commandExecutor = new CommandExecutor(tasks, storage, ui);
+        Integer sortRunSize = Integer.getInteger(SORT_RUN_SIZE_PROPERTY);
+        if (sortRunSize != null && sortRunSize > 0) {
+            commandExecutor.setSortRunSize(sortRunSize);
+        }
+        applyArchivePolicy();
+        startReminders();
+    }
+
+    /**
+     * Creates the storage backend, sharded if a shard count above one is configured
+     */
+    private static Storage createStorage() {
+        Integer shardCount = Integer.getInteger(SHARDS_PROPERTY);
+        if (shardCount != null && shardCount > 1) {
+            return new ShardedStorage(shardCount);
+        }
+        return new Storage();
+    }
+
+    /**
+     * Archives old done tasks if an automatic archive threshold is configured,
+     * so the active data file only holds the working set.
+     */
+    private void applyArchivePolicy() {
+        Integer archiveAfterDays = Integer.getInteger(ARCHIVE_AFTER_DAYS_PROPERTY);
+        if (archiveAfterDays == null || archiveAfterDays <= 0) {
+            return;
+        }
+        try {
+            commandExecutor.archiveDoneTasks(archiveAfterDays);
+        } catch (ZenException e) {
+            ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Schedules reminders for the loaded tasks and keeps them in step with later changes
+     */
+    private void startReminders() {
+        for (Task task : tasks.getTasks()) {
+            reminderScheduler.track(task);
+        }
+        tasks.addListener(reminderScheduler);
+        reminderScheduler.start();
+    }
+
+    /**
+     * Sends reminders to the given listener instead of the console, e.g. to show them in the GUI
+     *
+     * @param listener receives reminders on the reminder thread
+     */
+    public void setReminderListener(ReminderListener listener) {
+        this.reminderListener = listener;
+    }
+
+    private void deliverReminder(Task task) {
+        ReminderListener listener = reminderListener;
+        if (listener != null) {
+            listener.onReminder(task);
+        } else {
+            ui.showReminder(task);
+        }
     }
 
     /**
-     * Main method to start the application
+     * Main method to start the application.
+     * With --batch and a file, runs the commands in the file and exits with status 0 if they all succeeded.
      */
     public static void main(String[] args) {
+        if (isBatchMode(args)) {
+            boolean isSuccessful = new Zen().runBatch(args.length > 1 ? args[1] : null);
+            System.exit(isSuccessful ? 0 : 1);
+        }
         new Zen().run();
     }
 
+    /**
+     * Checks whether the application was started to run a file of commands rather than interactively
+     *
+     * @param args the command line arguments
+     * @return true if the first argument is --batch
+     */
+    public static boolean isBatchMode(String[] args) {
+        return args.length > 0 && BATCH_OPTION.equals(args[0]);
+    }
+
+    /**
+     * Runs the commands in a file as one transaction and reports the outcome, without the interactive loop
+     *
+     * @param file the path of the file to run, or null if none was given
+     * @return true if every command in the file succeeded and the changes were saved
+     */
+    public boolean runBatch(String file) {
+        try {
+            if (file == null) {
+                throw new ZenException(ERROR_BATCH_USAGE);
+            }
+            CommandResult result = commandExecutor.runScript(file);
+            ui.showScriptRun(result.getText(), result.getCount(), result.getTaskCount());
+            return true;
+        } catch (ZenException e) {
+            ui.showError(e.getMessage());
+            return false;
+        } finally {
+            ui.close();
+        }
+    }
+
     /**
      * Runs the main application loop
      */
     public void run() {
         ui.showWelcome();
 
-        while (true) {
-            try {
-                String fullCommand = ui.readCommand();
-                ui.showLine();
-
-                if (commandExecutor.executeCommand(fullCommand)) {
-                    break; // Exit if bye command
+        try {
+            while (true) {
+                try {
+                    String fullCommand = ui.readCommand();
+                    ui.showLine();
+
+                    if (commandExecutor.executeCommand(fullCommand)) {
+                        break; // Exit if bye command
+                    }
+
+                } catch (ZenException e) {
+                    ui.showError(e.getMessage());
+                } finally {
+                    ui.showLine();
                 }
-
-            } catch (ZenException e) {
-                ui.showError(e.getMessage());
-            } finally {
-                ui.showLine();
             }
+        } finally {
+            ui.close(); // Also writes out any buffered output if the loop ends abruptly
         }
-
-        ui.close();
     }
 
 
@@ -1,13 +1,37 @@
 package zen.command;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 import zen.exception.ZenException;
 import zen.storage.Storage;
+import zen.storage.TaskTransfer;
 import zen.task.Deadline;
 import zen.task.Event;
+import zen.task.RecurringTask;
 import zen.task.Task;
 import zen.task.TaskList;
+import zen.task.TaskListEvent;
+import zen.task.TaskListListener;
+import zen.task.TaskOrder;
 import zen.task.Todo;
 import zen.ui.GuiResponseFormatter;
+import zen.ui.TaskListRenderer;
 import zen.ui.Ui;
 
 /**
@@ -26,11 +50,64 @@ public class CommandExecutor {
     private static final String ERROR_EMPTY_COMMAND = "💭 I'm listening! Type a command like 'list', 'todo', or 'help'";
     private static final String ERROR_UNKNOWN_COMMAND = "🤔 I don't recognize that command. Type 'help' to see what I can do!";
     private static final String ERROR_INVALID_TASK_NUMBER = "🔢 Please provide a valid task number (check 'list')!";
+    private static final String ERROR_NEXT_COUNT = "🔢 How many tasks should I show? Try: next 3";
+    private static final String ERROR_NOTHING_TO_UNDO = "⏪ There's nothing left to undo!";
+    private static final String ERROR_NOTHING_TO_REDO = "⏩ There's nothing to redo!";
+    private static final String ERROR_ARCHIVE_AGE = "🗄️ Tell me how old done tasks must be, in days. Try: archive 30";
+    private static final String ERROR_RECUR_FORMAT = "🔁 Use this format: recur <task> /from <date> /every <unit>\n"
+            + "Example: recur standup /from 2024-12-16 9am /every week (day, week, month or year)";
+    private static final String ERROR_AGENDA_FORMAT = "🗓️ Use this format: agenda [/from <date>] [/to <date>]\n"
+            + "Example: agenda /from 2024-12-16 /to 2024-12-22";
+    private static final String ERROR_FREE_FORMAT = "⏳ Use this format: free <duration> [/between <start> <end>]\n"
+            + "Example: free 2h /between 2024-12-16 9am 2024-12-20 5pm";
+    private static final String ERROR_DEPEND_FORMAT = "🔗 Use this format: depend <number> /on <number>\n"
+            + "Example: depend 3 /on 1 (task 3 waits until task 1 is done)";
+    private static final String ERROR_UNDEPEND_FORMAT = "🔗 Use this format: undepend <number> /on <number>\n"
+            + "Example: undepend 3 /on 1";
+    private static final String ERROR_DEPENDENCY_CYCLE = "🔁 That would leave tasks waiting for each other forever!";
+    private static final String ERROR_NOT_DEPENDENT = "🔗 That task isn't waiting for that one.";
+    private static final String ERROR_PRIORITY = "⭐ A priority is a whole number: 1 is the most urgent, 0 means none.\n"
+            + "Example: todo file taxes /p 1";
+    private static final String ERROR_PRIORITY_FORMAT = "⭐ Use this format: priority <number> /p <level>\n"
+            + "Example: priority 2 /p 1 (1 is the most urgent, 0 clears it)";
+    private static final String ERROR_TOP_COUNT = "🔢 How many tasks should I show? Try: top 3";
+    private static final String ERROR_RUN_FORMAT = "📜 Which file should I run? Try: run tasks.txt";
+    private static final String ERROR_SCRIPT_READ = "📜 I couldn't read %s. Nothing from it was kept.";
+    private static final String ERROR_SCRIPT_LINE = "📜 Line %d of %s: %s\nNothing from the file was kept.";
+    private static final String ERROR_NOT_IN_SCRIPT = "📜 Scripts can't archive, import, undo, redo "
+            + "or run other scripts.";
+    private static final String ERROR_IMPORT_FORMAT = "📥 Which file should I import? Try: import tasks.csv";
+    private static final String ERROR_EXPORT_FORMAT = "📤 Which file should I export to? Try: export tasks.csv";
+    private static final String ERROR_LIST_PAGE = "📄 Which page should I show? Try: list 2 (or list 2 50)";
+    private static final String ERROR_LIST_PAGE_RANGE = "📄 There's no page %d; %d tasks make %d pages of %d.";
+    private static final String ERROR_SORT_FORMAT = "🔀 Sort by date, description or priority. Try: sort date";
+    private static final String SCRIPT_COMMENT = "#";
+    private static final int UNDO_CAPACITY = 100;
+    private static final int RESPONSE_CACHE_CAPACITY = 32;
+    private static final int GUI_PAGE_SIZE = 200; // Longer lists are paged in the GUI rather than shown whole
+    private static final int DEFAULT_SORT_RUN_SIZE = 100_000; // Longer lists are sorted on disk by the storage
+    // Commands whose response depends only on the command and the task list, not on the time or on storage;
+    // find is only cached when it searches the list, as the archive changes without the list changing
+    private static final Set<Parser.CommandType> CACHED_COMMANDS = EnumSet.of(Parser.CommandType.HELP,
+            Parser.CommandType.LIST, Parser.CommandType.FIND, Parser.CommandType.READY, Parser.CommandType.TOP);
 
     private final TaskList tasks;
     private final Storage storage;
+    private final TaskTransfer transfer;
     private final Ui ui;
-    private Task lastDeletedTask; // Store for GUI response
+    private final UndoLog undoLog;
+    private final List<TaskListEvent> unsavedChanges = new ArrayList<>();
+    private final Map<Parser.CommandType, CommandHandler> handlers = new EnumMap<>(Parser.CommandType.class);
+    private final Map<Parser.CommandType, Consumer<CommandResult>> consoleViews =
+            new EnumMap<>(Parser.CommandType.class);
+    private final Map<Parser.CommandType, Function<CommandResult, String>> guiViews =
+            new EnumMap<>(Parser.CommandType.class);
+    private final ResponseCache responseCache = new ResponseCache(RESPONSE_CACHE_CAPACITY);
+    private final TaskListRenderer consoleLines;
+    private final TaskListRenderer guiLines;
+    private boolean isStorageInSync = true;
+    private boolean isRunningScript;
+    private int sortRunSize = DEFAULT_SORT_RUN_SIZE;
 
     /**
      * Constructs a CommandExecutor with the required dependencies.
@@ -42,7 +119,16 @@ public class CommandExecutor {
     public CommandExecutor(TaskList tasks, Storage storage, Ui ui) {
         this.tasks = tasks;
         this.storage = storage;
+        this.transfer = new TaskTransfer(storage);
         this.ui = ui;
+        this.undoLog = new UndoLog(tasks, UNDO_CAPACITY);
+        tasks.addListener(undoLog);
+        tasks.addListener(unsavedChanges::addAll);
+        this.consoleLines = new TaskListRenderer(tasks, " ", System.lineSeparator());
+        this.guiLines = new TaskListRenderer(tasks, "", "\n");
+        tasks.addListener(consoleLines);
+        tasks.addListener(guiLines);
+        registerHandlers();
     }
 
     /**
@@ -53,350 +139,692 @@ public class CommandExecutor {
      * @throws ZenException if there's an error executing the command
      */
     public boolean executeCommand(String fullCommand) throws ZenException {
-        Parser.CommandType commandType = Parser.parseCommand(fullCommand);
-        return executeCommandByType(commandType, fullCommand, false);
+        CommandResult result = execute(fullCommand);
+        if (ui != null) {
+            consoleViews.get(result.getType()).accept(result);
+        }
+        return result.isExit();
     }
 
     /**
      * Executes a command for GUI mode and returns the response.
+     * The responses of read-only commands are cached, and reused until the task list changes.
      *
      * @param fullCommand the command string to execute
      * @return the response string for the GUI
      * @throws ZenException if there's an error executing the command
      */
     public String executeCommandForGui(String fullCommand) throws ZenException {
-        Parser.CommandType commandType = Parser.parseCommand(fullCommand);
-        executeCommandByType(commandType, fullCommand, true);
-        return getGuiResponse(commandType, fullCommand);
+        CommandLine commandLine = Parser.parseCommandLine(fullCommand);
+        if (!isCached(commandLine)) {
+            return format(execute(commandLine));
+        }
+        String command = commandLine.getCommand().trim();
+        String response = responseCache.get(command, tasks.getVersion());
+        if (response == null) {
+            response = format(execute(commandLine));
+            responseCache.put(command, tasks.getVersion(), response);
+        }
+        return response;
+    }
+
+    private static boolean isCached(CommandLine commandLine) {
+        return CACHED_COMMANDS.contains(commandLine.getType()) && !(commandLine.getType() == Parser.CommandType.FIND
+                && Parser.isArchiveSearch(commandLine.getArguments()));
     }
 
     /**
-     * Executes a command based on its type.
+     * Parses and executes a command once, leaving the rendering to the caller.
      *
-     * @param commandType the type of command to execute
-     * @param fullCommand the full command string
-     * @param isGuiMode   whether this is being executed for GUI mode
-     * @return true if the application should exit, false otherwise
-     * @throws ZenException if there's an error executing the command
+     * @param fullCommand the command string to execute
+     * @return what the command did
+     * @throws ZenException if the command is invalid or could not be carried out
      */
-    private boolean executeCommandByType(Parser.CommandType commandType, String fullCommand, boolean isGuiMode)
-            throws ZenException {
-        switch (commandType) {
-        case BYE:
-            return handleByeCommand(isGuiMode);
-        case LIST:
-            handleListCommand(isGuiMode);
-            break;
-        case HELP:
-            handleHelpCommand(isGuiMode);
-            break;
-        case MARK:
-            handleMarkCommand(fullCommand, isGuiMode);
-            break;
-        case UNMARK:
-            handleUnmarkCommand(fullCommand, isGuiMode);
-            break;
-        case DELETE:
-            handleDeleteCommand(fullCommand, isGuiMode);
-            break;
-        case TODO_EMPTY:
-            handleTodoEmptyCommand(isGuiMode);
-            break;
-        case TODO:
-            handleTodoCommand(fullCommand, isGuiMode);
-            break;
-        case DEADLINE_EMPTY:
-            handleDeadlineEmptyCommand(isGuiMode);
-            break;
-        case DEADLINE:
-            handleDeadlineCommand(fullCommand, isGuiMode);
-            break;
-        case EVENT_EMPTY:
-            handleEventEmptyCommand(isGuiMode);
-            break;
-        case EVENT:
-            handleEventCommand(fullCommand, isGuiMode);
-            break;
-        case FIND_EMPTY:
-            handleFindEmptyCommand(isGuiMode);
-            break;
-        case FIND:
-            handleFindCommand(fullCommand, isGuiMode);
-            break;
-        case EMPTY:
-            handleEmptyCommand(isGuiMode);
-            break;
-        case UNKNOWN:
-        default:
-            handleUnknownCommand(isGuiMode);
-            break;
-        }
-        return false;
-    }
-
-    private boolean handleByeCommand(boolean isGuiMode) {
-        if (!isGuiMode && ui != null) {
-            ui.showGoodbye();
-        }
-        return true;
+    public CommandResult execute(String fullCommand) throws ZenException {
+        return execute(Parser.parseCommandLine(fullCommand));
     }
 
-    private void handleListCommand(boolean isGuiMode) {
-        if (!isGuiMode && ui != null) {
-            ui.showTaskList(tasks.getTasks());
-        }
+    private CommandResult execute(CommandLine commandLine) throws ZenException {
+        return handlers.get(commandLine.getType()).execute(commandLine);
     }
 
-    private void handleHelpCommand(boolean isGuiMode) {
-        if (!isGuiMode && ui != null) {
-            ui.showHelp();
+    private String format(CommandResult result) {
+        return guiViews.get(result.getType()).apply(result);
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Runs the commands in a file, one per line, as a single transaction.
+     * Nothing is saved until every command has run, and then everything is saved at once;
+     * if a command fails, all changes made by the file are rolled back and nothing is saved.
+     * The whole file becomes one undo step. Blank lines and lines starting with # are skipped,
+     * and a bye command ends the file early.
+     *
+     * @param file the path of the file to run
+     * @return the number of commands run, as a RUN result
+     * @throws ZenException if the file cannot be read or one of its commands fails
+     */
+    public CommandResult runScript(String file) throws ZenException {
+        if (isRunningScript) {
+            throw new ZenException(ERROR_NOT_IN_SCRIPT);
         }
+        persistChanges(); // Start from a saved state, so rolling back leaves the file as it is
+        isRunningScript = true;
+        undoLog.pause();
+        int commandCount;
+        try {
+            commandCount = executeScript(file);
+        } catch (ZenException e) {
+            undoLog.revert(new ArrayList<>(unsavedChanges));
+            unsavedChanges.clear();
+            throw e;
+        } finally {
+            isRunningScript = false;
+            undoLog.resume();
+        }
+        undoLog.record(new ArrayList<>(unsavedChanges));
+        persistChanges();
+        return CommandResult.ofScript(file, commandCount, tasks.size());
     }
 
-    private void handleMarkCommand(String command, boolean isGuiMode) throws ZenException {
-        int index = Parser.parseTaskIndex(command, "mark ");
-        if (index == -1) {
-            if (isGuiMode) {
-                throw new ZenException(ERROR_INVALID_TASK_NUMBER);
-            } else if (ui != null) {
-                ui.showError(ERROR_INVALID_TASK_NUMBER);
+    /**
+     * Streams the commands of a file through their handlers without rendering them
+     *
+     * @return the number of commands run
+     */
+    private int executeScript(String file) throws ZenException {
+        int commandCount = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                CommandLine commandLine = Parser.parseCommandLine(line);
+                if (commandLine.getType() == Parser.CommandType.EMPTY || line.trim().startsWith(SCRIPT_COMMENT)) {
+                    continue;
+                }
+                try {
+                    CommandResult result = handlers.get(commandLine.getType()).execute(commandLine);
+                    commandCount++;
+                    if (result.isExit()) {
+                        break;
+                    }
+                } catch (ZenException e) {
+                    throw new ZenException(String.format(ERROR_SCRIPT_LINE, lineNumber, file, e.getMessage()));
+                }
             }
-            return;
+        } catch (IOException | UncheckedIOException | InvalidPathException e) {
+            throw new ZenException(String.format(ERROR_SCRIPT_READ, file));
+        }
+        return commandCount;
+    }
+
+    /**
+     * Rejects a command that cannot be part of a script's transaction, because it saves or rewinds history itself
+     */
+    private void rejectInScript() throws ZenException {
+        if (isRunningScript) {
+            throw new ZenException(ERROR_NOT_IN_SCRIPT);
         }
+    }
+
+    /**
+     * Registers the handler of every command type, together with how its result is shown on the console
+     * and in the GUI. Adding a command means adding its keyword to the Parser and one registration here;
+     * dispatch and rendering are each a single lookup however many commands there are.
+     */
+    private void registerHandlers() {
+        register(Parser.CommandType.BYE, commandLine -> CommandResult.of(Parser.CommandType.BYE),
+                result -> ui.showGoodbye(), result -> GuiResponseFormatter.formatGoodbye());
+        register(Parser.CommandType.HELP, commandLine -> CommandResult.of(Parser.CommandType.HELP),
+                result -> ui.showHelp(), result -> GuiResponseFormatter.formatHelp());
+        register(Parser.CommandType.LIST, this::handleListCommand, this::showTaskList, this::formatTaskList);
+        register(Parser.CommandType.STORAGE,
+                commandLine -> CommandResult.ofText(Parser.CommandType.STORAGE, storage.describe()),
+                result -> ui.showStorageInfo(result.getText()),
+                result -> GuiResponseFormatter.formatStorageInfo(
+                        result.getText() + "\nResponse cache: " + responseCache));
+        register(Parser.CommandType.READY,
+                commandLine -> CommandResult.ofTasks(Parser.CommandType.READY, tasks.getReadyTasks(), tasks.size()),
+                result -> ui.showReadyTasks(result.getTasks()),
+                result -> GuiResponseFormatter.formatReadyTasks(result.getTasks()));
+        register(Parser.CommandType.MARK, this::handleMarkCommand,
+                result -> ui.showTaskMarked(result.getTask()),
+                result -> GuiResponseFormatter.formatTaskMarked(result.getTask()));
+        register(Parser.CommandType.UNMARK, this::handleUnmarkCommand,
+                result -> ui.showTaskUnmarked(result.getTask()),
+                result -> GuiResponseFormatter.formatTaskUnmarked(result.getTask()));
+        register(Parser.CommandType.DELETE, this::handleDeleteCommand,
+                result -> ui.showTaskDeleted(result.getTask(), result.getTaskCount()),
+                result -> GuiResponseFormatter.formatTaskDeleted(result.getTask(), result.getTaskCount()));
+        register(Parser.CommandType.TODO, this::handleTodoCommand, this::showTaskAdded, this::formatTaskAdded);
+        register(Parser.CommandType.DEADLINE, this::handleDeadlineCommand, this::showTaskAdded, this::formatTaskAdded);
+        register(Parser.CommandType.EVENT, this::handleEventCommand, this::showTaskAdded, this::formatTaskAdded);
+        register(Parser.CommandType.RECUR, this::handleRecurCommand, this::showTaskAdded, this::formatTaskAdded);
+        register(Parser.CommandType.FIND, this::handleFindCommand, this::showMatchingTasks, this::formatMatchingTasks);
+        register(Parser.CommandType.NEXT, this::handleNextCommand,
+                result -> ui.showUpcomingTasks(result.getTasks()),
+                result -> GuiResponseFormatter.formatUpcomingTasks(result.getTasks()));
+        register(Parser.CommandType.UNDO, commandLine -> handleUndoCommand(),
+                result -> ui.showChangesUndone(result.getChanges()),
+                result -> GuiResponseFormatter.formatChangesUndone(result.getChanges()));
+        register(Parser.CommandType.REDO, commandLine -> handleRedoCommand(),
+                result -> ui.showChangesRedone(result.getChanges()),
+                result -> GuiResponseFormatter.formatChangesRedone(result.getChanges()));
+        register(Parser.CommandType.ARCHIVE, this::handleArchiveCommand,
+                result -> ui.showTasksArchived(result.getTasks(), result.getTaskCount()),
+                result -> GuiResponseFormatter.formatTasksArchived(result.getTasks(), result.getTaskCount()));
+        register(Parser.CommandType.AGENDA, this::handleAgendaCommand,
+                result -> ui.showAgenda(result.getAgenda()),
+                result -> GuiResponseFormatter.formatAgenda(result.getAgenda()));
+        register(Parser.CommandType.FREE, this::handleFreeCommand,
+                result -> ui.showFreeSlots(result.getFreeSlots()),
+                result -> GuiResponseFormatter.formatFreeSlots(result.getFreeSlots()));
+        register(Parser.CommandType.DEPEND, this::handleDependCommand,
+                result -> ui.showDependencyAdded(result.getTask(), result.getOtherTask()),
+                result -> GuiResponseFormatter.formatDependencyAdded(result.getTask(), result.getOtherTask()));
+        register(Parser.CommandType.UNDEPEND, this::handleUndependCommand,
+                result -> ui.showDependencyRemoved(result.getTask(), result.getOtherTask()),
+                result -> GuiResponseFormatter.formatDependencyRemoved(result.getTask(), result.getOtherTask()));
+        register(Parser.CommandType.TOP, this::handleTopCommand,
+                result -> ui.showTopTasks(result.getTasks()),
+                result -> GuiResponseFormatter.formatTopTasks(result.getTasks()));
+        register(Parser.CommandType.PRIORITY, this::handlePriorityCommand,
+                result -> ui.showPriorityChanged(result.getTask()),
+                result -> GuiResponseFormatter.formatPriorityChanged(result.getTask()));
+        register(Parser.CommandType.RUN, commandLine -> runScript(commandLine.getArguments().toString()),
+                result -> ui.showScriptRun(result.getText(), result.getCount(), result.getTaskCount()),
+                result -> GuiResponseFormatter.formatScriptRun(result.getText(), result.getCount(),
+                        result.getTaskCount()));
+        register(Parser.CommandType.IMPORT, this::handleImportCommand,
+                result -> ui.showTasksImported(result.getText(), result.getTransfer(), result.getTaskCount()),
+                result -> GuiResponseFormatter.formatTasksImported(result.getText(), result.getTransfer(),
+                        result.getTaskCount()));
+        register(Parser.CommandType.EXPORT, this::handleExportCommand,
+                result -> ui.showTasksExported(result.getText(), result.getTransfer()),
+                result -> GuiResponseFormatter.formatTasksExported(result.getText(), result.getTransfer()));
+        register(Parser.CommandType.SORT, this::handleSortCommand,
+                result -> ui.showTasksSorted(result.getText(), consoleLines),
+                result -> GuiResponseFormatter.formatTasksSorted(result.getText(), guiLines));
+        handlers.put(Parser.CommandType.TODO_EMPTY, rejectWith(ERROR_TODO_EMPTY));
+        handlers.put(Parser.CommandType.DEADLINE_EMPTY, rejectWith(ERROR_DEADLINE_FORMAT));
+        handlers.put(Parser.CommandType.EVENT_EMPTY, rejectWith(ERROR_EVENT_FORMAT));
+        handlers.put(Parser.CommandType.RECUR_EMPTY, rejectWith(ERROR_RECUR_FORMAT));
+        handlers.put(Parser.CommandType.FIND_EMPTY, rejectWith(ERROR_FIND_EMPTY));
+        handlers.put(Parser.CommandType.FREE_EMPTY, rejectWith(ERROR_FREE_FORMAT));
+        handlers.put(Parser.CommandType.DEPEND_EMPTY, rejectWith(ERROR_DEPEND_FORMAT));
+        handlers.put(Parser.CommandType.UNDEPEND_EMPTY, rejectWith(ERROR_UNDEPEND_FORMAT));
+        handlers.put(Parser.CommandType.PRIORITY_EMPTY, rejectWith(ERROR_PRIORITY_FORMAT));
+        handlers.put(Parser.CommandType.RUN_EMPTY, rejectWith(ERROR_RUN_FORMAT));
+        handlers.put(Parser.CommandType.IMPORT_EMPTY, rejectWith(ERROR_IMPORT_FORMAT));
+        handlers.put(Parser.CommandType.EXPORT_EMPTY, rejectWith(ERROR_EXPORT_FORMAT));
+        handlers.put(Parser.CommandType.SORT_EMPTY, rejectWith(ERROR_SORT_FORMAT));
+        handlers.put(Parser.CommandType.EMPTY, rejectWith(ERROR_EMPTY_COMMAND));
+        handlers.put(Parser.CommandType.UNKNOWN, rejectWith(ERROR_UNKNOWN_COMMAND));
+        assert handlers.size() == Parser.CommandType.values().length : "Every command type should have a handler";
+    }
+
+    /**
+     * Registers the handler of a command type and the views that render its result
+     */
+    private void register(Parser.CommandType type, CommandHandler handler, Consumer<CommandResult> consoleView,
+            Function<CommandResult, String> guiView) {
+        handlers.put(type, handler);
+        consoleViews.put(type, consoleView);
+        guiViews.put(type, guiView);
+    }
 
+    /**
+     * Creates a handler for a command that is incomplete as typed, which only reports how to use it
+     */
+    private static CommandHandler rejectWith(String error) {
+        return commandLine -> {
+            throw new ZenException(error);
+        };
+    }
+
+    private CommandResult handleMarkCommand(CommandLine commandLine) throws ZenException {
+        int index = readTaskIndex(commandLine);
         try {
             Task task = tasks.markTask(index);
-            storage.save(tasks.getTasks());
-            if (!isGuiMode && ui != null) {
-                ui.showTaskMarked(task);
-            }
+            persistChanges();
+            return CommandResult.ofTask(Parser.CommandType.MARK, task, tasks.size());
         } catch (IndexOutOfBoundsException e) {
-            if (isGuiMode) {
-                throw new ZenException(e.getMessage());
-            } else if (ui != null) {
-                ui.showError(e.getMessage());
-            }
+            throw new ZenException(e.getMessage());
         }
     }
 
-    private void handleUnmarkCommand(String command, boolean isGuiMode) throws ZenException {
-        int index = Parser.parseTaskIndex(command, "unmark ");
-        if (index == -1) {
-            if (isGuiMode) {
-                throw new ZenException(ERROR_INVALID_TASK_NUMBER);
-            } else if (ui != null) {
-                ui.showError(ERROR_INVALID_TASK_NUMBER);
-            }
-            return;
-        }
-
+    private CommandResult handleUnmarkCommand(CommandLine commandLine) throws ZenException {
+        int index = readTaskIndex(commandLine);
         try {
             Task task = tasks.unmarkTask(index);
-            storage.save(tasks.getTasks());
-            if (!isGuiMode && ui != null) {
-                ui.showTaskUnmarked(task);
-            }
+            persistChanges();
+            return CommandResult.ofTask(Parser.CommandType.UNMARK, task, tasks.size());
         } catch (IndexOutOfBoundsException e) {
-            if (isGuiMode) {
-                throw new ZenException(e.getMessage());
-            } else if (ui != null) {
-                ui.showError(e.getMessage());
-            }
+            throw new ZenException(e.getMessage());
         }
     }
 
-    private void handleDeleteCommand(String command, boolean isGuiMode) throws ZenException {
-        int index = Parser.parseTaskIndex(command, "delete ");
-        if (index == -1) {
-            if (isGuiMode) {
-                throw new ZenException(ERROR_INVALID_TASK_NUMBER);
-            } else if (ui != null) {
-                ui.showError(ERROR_INVALID_TASK_NUMBER);
-            }
-            return;
-        }
-
+    private CommandResult handleDeleteCommand(CommandLine commandLine) throws ZenException {
+        int index = readTaskIndex(commandLine);
         try {
             Task task = tasks.deleteTask(index);
-            lastDeletedTask = task; // Store for GUI response
-            storage.save(tasks.getTasks());
-            if (!isGuiMode && ui != null) {
-                ui.showTaskDeleted(task, tasks.size());
-            }
+            persistChanges();
+            return CommandResult.ofTask(Parser.CommandType.DELETE, task, tasks.size());
         } catch (IndexOutOfBoundsException e) {
-            if (isGuiMode) {
-                throw new ZenException(e.getMessage());
-            } else if (ui != null) {
-                ui.showError(e.getMessage());
-            }
+            throw new ZenException(e.getMessage());
         }
     }
 
-    private void handleTodoEmptyCommand(boolean isGuiMode) throws ZenException {
-        if (isGuiMode) {
-            throw new ZenException(ERROR_TODO_EMPTY);
-        } else if (ui != null) {
-            ui.showError(ERROR_TODO_EMPTY);
+    /**
+     * Reads the task number of a command
+     *
+     * @return the zero-based index
+     * @throws ZenException if the command has no valid task number
+     */
+    private int readTaskIndex(CommandLine commandLine) throws ZenException {
+        int index = Parser.parseTaskIndex(commandLine.getArguments());
+        if (index == -1) {
+            throw new ZenException(ERROR_INVALID_TASK_NUMBER);
         }
+        return index;
     }
 
-    private void handleTodoCommand(String command, boolean isGuiMode) throws ZenException {
-        String description = Parser.parseTodoDescription(command);
-        Task task = new Todo(description);
-        tasks.addTask(task);
-        storage.save(tasks.getTasks());
-        if (!isGuiMode && ui != null) {
-            ui.showTaskAdded(task, tasks.size());
+    private CommandResult handleTodoCommand(CommandLine commandLine) throws ZenException {
+        FlagScanner.Fields fields = Parser.parseFlags(commandLine);
+        int priority = readPriority(fields);
+        if (!fields.isValid()) {
+            throw new ZenException(ERROR_PRIORITY);
         }
+        return addTask(Parser.CommandType.TODO, new Todo(fields.getLeadingText()), priority);
     }
 
-    private void handleDeadlineEmptyCommand(boolean isGuiMode) throws ZenException {
-        if (isGuiMode) {
+    private CommandResult handleDeadlineCommand(CommandLine commandLine) throws ZenException {
+        FlagScanner.Fields fields = Parser.parseFlags(commandLine);
+        int priority = readPriority(fields);
+        Deadline deadline = Parser.parseDeadline(fields);
+        if (deadline == null) {
             throw new ZenException(ERROR_DEADLINE_FORMAT);
-        } else if (ui != null) {
-            ui.showError(ERROR_DEADLINE_FORMAT);
         }
+        return addTask(Parser.CommandType.DEADLINE, deadline, priority);
     }
 
-    private void handleDeadlineCommand(String command, boolean isGuiMode) throws ZenException {
-        Deadline deadline = Parser.parseDeadline(command);
-        if (deadline == null) {
-            if (isGuiMode) {
-                throw new ZenException(ERROR_DEADLINE_FORMAT);
-            } else if (ui != null) {
-                ui.showError(ERROR_DEADLINE_FORMAT);
-            }
-            return;
+    private CommandResult handleEventCommand(CommandLine commandLine) throws ZenException {
+        FlagScanner.Fields fields = Parser.parseFlags(commandLine);
+        int priority = readPriority(fields);
+        Event event = Parser.parseEvent(fields);
+        if (event == null) {
+            throw new ZenException(ERROR_EVENT_FORMAT);
         }
+        return addTask(Parser.CommandType.EVENT, event, priority);
+    }
 
-        tasks.addTask(deadline);
-        storage.save(tasks.getTasks());
-        if (!isGuiMode && ui != null) {
-            ui.showTaskAdded(deadline, tasks.size());
+    private CommandResult handleRecurCommand(CommandLine commandLine) throws ZenException {
+        FlagScanner.Fields fields = Parser.parseFlags(commandLine);
+        int priority = readPriority(fields);
+        RecurringTask recurringTask = Parser.parseRecurringTask(fields);
+        if (recurringTask == null) {
+            throw new ZenException(ERROR_RECUR_FORMAT);
         }
+        return addTask(Parser.CommandType.RECUR, recurringTask, priority);
     }
 
-    private void handleEventEmptyCommand(boolean isGuiMode) throws ZenException {
-        if (isGuiMode) {
-            throw new ZenException(ERROR_EVENT_FORMAT);
-        } else if (ui != null) {
-            ui.showError(ERROR_EVENT_FORMAT);
+    private CommandResult addTask(Parser.CommandType type, Task task, int priority) throws ZenException {
+        task.setPriority(priority);
+        tasks.addTask(task);
+        persistChanges();
+        return CommandResult.ofTask(type, task, tasks.size());
+    }
+
+    /**
+     * Shows the whole list, or one page of it if a page is given
+     */
+    private CommandResult handleListCommand(CommandLine commandLine) throws ZenException {
+        if (!commandLine.hasArguments()) {
+            return CommandResult.of(Parser.CommandType.LIST);
+        }
+        int[] page = Parser.parseListPage(commandLine.getArguments());
+        if (page == null) {
+            throw new ZenException(ERROR_LIST_PAGE);
+        }
+        int pageCount = Math.max(1, (tasks.size() + page[1] - 1) / page[1]);
+        if (page[0] > pageCount) {
+            throw new ZenException(String.format(ERROR_LIST_PAGE_RANGE, page[0], tasks.size(), pageCount, page[1]));
         }
+        return CommandResult.ofPage(page[0], page[1], tasks.size());
     }
 
-    private void handleEventCommand(String command, boolean isGuiMode) throws ZenException {
-        Event event = Parser.parseEvent(command);
-        if (event == null) {
-            if (isGuiMode) {
-                throw new ZenException(ERROR_EVENT_FORMAT);
-            } else if (ui != null) {
-                ui.showError(ERROR_EVENT_FORMAT);
-            }
-            return;
+    /**
+     * Finds the tasks matching a find command, reading the archive only if the command asks for it
+     */
+    private CommandResult handleFindCommand(CommandLine commandLine) throws ZenException {
+        CharSequence arguments = commandLine.getArguments();
+        String keyword = Parser.parseFindKeyword(arguments);
+        if (Parser.isArchiveSearch(arguments)) {
+            return CommandResult.ofMatches(TaskList.findTasksContaining(storage.loadArchive(), keyword), true);
         }
+        return CommandResult.ofMatches(tasks.findTasksContaining(keyword), false);
+    }
 
-        tasks.addTask(event);
-        storage.save(tasks.getTasks());
-        if (!isGuiMode && ui != null) {
-            ui.showTaskAdded(event, tasks.size());
+    private CommandResult handleNextCommand(CommandLine commandLine) throws ZenException {
+        int count = Parser.parseCount(commandLine.getArguments(), Parser.DEFAULT_NEXT_COUNT);
+        if (count == -1) {
+            throw new ZenException(ERROR_NEXT_COUNT);
         }
+        return CommandResult.ofTasks(Parser.CommandType.NEXT, tasks.getUpcomingTasks(count), tasks.size());
     }
 
-    private void handleFindEmptyCommand(boolean isGuiMode) throws ZenException {
-        if (isGuiMode) {
-            throw new ZenException(ERROR_FIND_EMPTY);
-        } else if (ui != null) {
-            ui.showError(ERROR_FIND_EMPTY);
+    private CommandResult handleUndoCommand() throws ZenException {
+        rejectInScript();
+        if (!undoLog.canUndo()) {
+            throw new ZenException(ERROR_NOTHING_TO_UNDO);
         }
+        List<TaskListEvent> changes = undoLog.undo();
+        persistChanges();
+        return CommandResult.ofChanges(Parser.CommandType.UNDO, changes);
     }
 
-    private void handleFindCommand(String command, boolean isGuiMode) {
-        String keyword = Parser.parseFindKeyword(command);
-        if (!isGuiMode && ui != null) {
-            ui.showMatchingTasks(tasks.findTasksContaining(keyword));
+    private CommandResult handleRedoCommand() throws ZenException {
+        rejectInScript();
+        if (!undoLog.canRedo()) {
+            throw new ZenException(ERROR_NOTHING_TO_REDO);
         }
+        List<TaskListEvent> changes = undoLog.redo();
+        persistChanges();
+        return CommandResult.ofChanges(Parser.CommandType.REDO, changes);
     }
 
-    private void handleEmptyCommand(boolean isGuiMode) throws ZenException {
-        if (isGuiMode) {
-            throw new ZenException(ERROR_EMPTY_COMMAND);
-        } else if (ui != null) {
-            ui.showError(ERROR_EMPTY_COMMAND);
+    private CommandResult handleArchiveCommand(CommandLine commandLine) throws ZenException {
+        rejectInScript();
+        int days = Parser.parseCount(commandLine.getArguments(), 0);
+        if (days == -1) {
+            throw new ZenException(ERROR_ARCHIVE_AGE);
         }
+        List<Task> archivedTasks = archiveDoneTasks(days);
+        return CommandResult.ofTasks(Parser.CommandType.ARCHIVE, archivedTasks, tasks.size());
     }
 
-    private void handleUnknownCommand(boolean isGuiMode) throws ZenException {
-        if (isGuiMode) {
-            throw new ZenException(ERROR_UNKNOWN_COMMAND);
-        } else if (ui != null) {
-            ui.showError(ERROR_UNKNOWN_COMMAND);
+    /**
+     * Streams the tasks of a CSV or JSON Lines file onto the end of the list. Each chunk is saved as it
+     * arrives, which appends it to the data file, so unsaved changes never pile up however large the file is.
+     * The whole import is one undo step, including the chunks kept when the file fails to read halfway.
+     */
+    private CommandResult handleImportCommand(CommandLine commandLine) throws ZenException {
+        rejectInScript();
+        String file = commandLine.getArguments().toString();
+        persistChanges();
+        List<TaskListEvent> imported = new ArrayList<>();
+        TaskListListener collector = imported::addAll;
+        tasks.addListener(collector);
+        undoLog.pause();
+        TaskTransfer.Report report;
+        try {
+            report = transfer.importTasks(file, chunk -> {
+                tasks.addTasks(chunk);
+                persistChanges();
+            });
+        } finally {
+            tasks.removeListener(collector);
+            undoLog.resume();
+            undoLog.record(imported);
         }
+        return CommandResult.ofTransfer(Parser.CommandType.IMPORT, file, report, tasks.size());
+    }
+
+    private CommandResult handleSortCommand(CommandLine commandLine) throws ZenException {
+        TaskOrder order = Parser.parseTaskOrder(commandLine.getArguments());
+        if (order == null) {
+            throw new ZenException(ERROR_SORT_FORMAT);
+        }
+        if (!sortOnDisk(order)) {
+            tasks.sortTasks(order.getComparator());
+        }
+        persistChanges();
+        return CommandResult.ofSortedTasks(order.getName(), tasks.size());
     }
 
     /**
-     * Gets the GUI response for a command that has already been executed.
+     * Sorts a list longer than a run by sorting the data file on disk, then moves the tasks of the list to the
+     * lines they were sorted to. The file already holds the new order, so the move is recorded for undo but
+     * not saved again.
      *
-     * @param commandType the type of command that was executed
-     * @param fullCommand the full command string
-     * @return the response string for the GUI
+     * @return false if the list is to be sorted in memory instead
      */
-    private String getGuiResponse(Parser.CommandType commandType, String fullCommand) throws ZenException {
-        switch (commandType) {
-        case BYE:
-            return GuiResponseFormatter.formatGoodbye();
-        case LIST:
-            return GuiResponseFormatter.formatTaskList(tasks.getTasks());
-        case HELP:
-            return GuiResponseFormatter.formatHelp();
-        case MARK:
-            return getMarkResponse(fullCommand);
-        case UNMARK:
-            return getUnmarkResponse(fullCommand);
-        case DELETE:
-            return getDeleteResponse(fullCommand);
-        case TODO:
-            return getLastTaskAddedResponse();
-        case DEADLINE:
-            return getLastTaskAddedResponse();
-        case EVENT:
-            return getLastTaskAddedResponse();
-        case FIND:
-            String keyword = Parser.parseFindKeyword(fullCommand);
-            return GuiResponseFormatter.formatMatchingTasks(tasks.findTasksContaining(keyword));
-        default:
-            // Error cases are thrown as exceptions in executeCommandByType
-            return "";
-        }
-    }
-
-    private String getMarkResponse(String command) throws ZenException {
-        int index = Parser.parseTaskIndex(command, "mark ");
-        if (index == -1 || index >= tasks.size()) {
+    private boolean sortOnDisk(TaskOrder order) throws ZenException {
+        if (isRunningScript || tasks.size() <= sortRunSize) {
+            return false; // A script saves only when it ends, so until then the file is behind the list
+        }
+        persistChanges();
+        int[] permutation = storage.sort(order.getComparator(), sortRunSize);
+        if (permutation == null) {
+            return false;
+        }
+        if (permutation.length != tasks.size()) {
+            isStorageInSync = false; // The file had lines the list does not, so the list is written over it
+            return false;
+        }
+        boolean isMoved = false;
+        for (int i = 0; i < permutation.length && !isMoved; i++) {
+            isMoved = permutation[i] != i;
+        }
+        if (isMoved) {
+            tasks.reorder(permutation);
+            unsavedChanges.clear();
+        }
+        return true;
+    }
+
+    private CommandResult handleExportCommand(CommandLine commandLine) throws ZenException {
+        String file = commandLine.getArguments().toString();
+        TaskTransfer.Report report = transfer.exportTasks(tasks.getTasks(), file);
+        return CommandResult.ofTransfer(Parser.CommandType.EXPORT, file, report, tasks.size());
+    }
+
+    /**
+     * Sets how many tasks a sort holds in memory; longer lists are sorted on disk in runs of this size
+     *
+     * @param sortRunSize the most tasks sorted in memory at once
+     */
+    public void setSortRunSize(int sortRunSize) {
+        assert sortRunSize > 0 : "Sort runs should hold at least one task";
+        this.sortRunSize = sortRunSize;
+    }
+
+    /**
+     * Moves done tasks out of the task list and into the storage archive.
+     * The archive is written before the active tasks are saved, so a failure never loses tasks.
+     * Archiving cannot be undone, so the undo history is cleared afterwards.
+     *
+     * @param minAgeDays only archive deadlines and events whose date is at least this many days in the past;
+     *                   0 archives every done task
+     * @return the archived tasks
+     * @throws ZenException if the archive or the active tasks could not be saved
+     */
+    public List<Task> archiveDoneTasks(int minAgeDays) throws ZenException {
+        assert minAgeDays >= 0 : "Archive age should not be negative";
+        LocalDate cutoff = minAgeDays == 0 ? null : LocalDate.now().minusDays(minAgeDays);
+        List<TaskListEvent> removals = new ArrayList<>();
+        TaskListListener collector = removals::addAll;
+        int unsavedCount = unsavedChanges.size();
+        tasks.addListener(collector);
+        undoLog.pause();
+        List<Task> archivedTasks;
+        try {
+            archivedTasks = tasks.removeDoneTasks(cutoff);
+        } finally {
+            tasks.removeListener(collector);
+            undoLog.resume();
+        }
+        if (archivedTasks.isEmpty()) {
+            return archivedTasks;
+        }
+
+        try {
+            storage.archive(archivedTasks);
+        } catch (ZenException e) {
+            // Put the tasks back; the data file never saw the removal, so neither it nor its reversal is saved
+            undoLog.revert(removals);
+            unsavedChanges.subList(unsavedCount, unsavedChanges.size()).clear();
+            throw e;
+        }
+        try {
+            persistChanges();
+        } finally {
+            undoLog.clear(); // The tasks are in the archive now, so undo must not bring them back
+        }
+        return archivedTasks;
+    }
+
+    private CommandResult handleAgendaCommand(CommandLine commandLine) throws ZenException {
+        LocalDateTime[] period = Parser.parseAgendaPeriod(commandLine.getArguments());
+        if (period == null) {
+            throw new ZenException(ERROR_AGENDA_FORMAT);
+        }
+        return CommandResult.ofAgenda(tasks.getAgenda(period[0], period[1]));
+    }
+
+    private CommandResult handleFreeCommand(CommandLine commandLine) throws ZenException {
+        CharSequence arguments = commandLine.getArguments();
+        Duration duration = Parser.parseFreeDuration(arguments);
+        LocalDateTime[] period = duration == null ? null : Parser.parseFreePeriod(arguments);
+        if (period == null) {
+            throw new ZenException(ERROR_FREE_FORMAT);
+        }
+        return CommandResult.ofFreeSlots(tasks.findFreeSlots(duration, period[0], period[1]));
+    }
+
+    private CommandResult handleDependCommand(CommandLine commandLine) throws ZenException {
+        int[] indexes = Parser.parseDependency(commandLine);
+        if (indexes == null) {
+            throw new ZenException(ERROR_DEPEND_FORMAT);
+        }
+        if (indexes[0] >= tasks.size() || indexes[1] >= tasks.size()) {
             throw new ZenException(ERROR_INVALID_TASK_NUMBER);
         }
-        return GuiResponseFormatter.formatTaskMarked(tasks.getTask(index));
+        Task dependent = tasks.getTask(indexes[0]);
+        Task blocker = tasks.getTask(indexes[1]);
+        if (!tasks.addDependency(indexes[0], blocker)) {
+            throw new ZenException(ERROR_DEPENDENCY_CYCLE);
+        }
+        persistChanges();
+        return CommandResult.ofDependency(Parser.CommandType.DEPEND, dependent, blocker);
     }
 
-    private String getUnmarkResponse(String command) throws ZenException {
-        int index = Parser.parseTaskIndex(command, "unmark ");
-        if (index == -1 || index >= tasks.size()) {
+    private CommandResult handleUndependCommand(CommandLine commandLine) throws ZenException {
+        int[] indexes = Parser.parseDependency(commandLine);
+        if (indexes == null) {
+            throw new ZenException(ERROR_UNDEPEND_FORMAT);
+        }
+        if (indexes[0] >= tasks.size() || indexes[1] >= tasks.size()) {
             throw new ZenException(ERROR_INVALID_TASK_NUMBER);
         }
-        return GuiResponseFormatter.formatTaskUnmarked(tasks.getTask(index));
+        Task dependent = tasks.getTask(indexes[0]);
+        Task blocker = tasks.getTask(indexes[1]);
+        if (!tasks.removeDependency(indexes[0], blocker)) {
+            throw new ZenException(ERROR_NOT_DEPENDENT);
+        }
+        persistChanges();
+        return CommandResult.ofDependency(Parser.CommandType.UNDEPEND, dependent, blocker);
+    }
+
+    private CommandResult handleTopCommand(CommandLine commandLine) throws ZenException {
+        int count = Parser.parseCount(commandLine.getArguments(), Parser.DEFAULT_TOP_COUNT);
+        if (count == -1) {
+            throw new ZenException(ERROR_TOP_COUNT);
+        }
+        return CommandResult.ofTasks(Parser.CommandType.TOP, tasks.getTopTasks(count), tasks.size());
+    }
+
+    private CommandResult handlePriorityCommand(CommandLine commandLine) throws ZenException {
+        FlagScanner.Fields fields = Parser.parseFlags(commandLine);
+        int priority = Parser.parsePriority(fields);
+        int index = Parser.parseTaskIndex(fields.getLeadingText());
+        if (!fields.isValid() || !fields.has("p") || priority == -1 || index == -1) {
+            throw new ZenException(ERROR_PRIORITY_FORMAT);
+        }
+
+        try {
+            Task task = tasks.setPriority(index, priority);
+            persistChanges();
+            return CommandResult.ofTask(Parser.CommandType.PRIORITY, task, tasks.size());
+        } catch (IndexOutOfBoundsException e) {
+            throw new ZenException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the /p priority of a command that adds a task
+     *
+     * @return the priority, or 0 if none is given
+     * @throws ZenException if the priority is invalid
+     */
+    private int readPriority(FlagScanner.Fields fields) throws ZenException {
+        int priority = Parser.parsePriority(fields);
+        if (priority == -1) {
+            throw new ZenException(ERROR_PRIORITY);
+        }
+        return priority;
+    }
+
+    private void showTaskList(CommandResult result) {
+        if (result.getPage() > 0 && !consoleLines.isEmpty()) {
+            ui.showTaskPage(consoleLines, result.getPage(), result.getCount());
+        } else {
+            ui.showTaskList(consoleLines);
+        }
+    }
+
+    private String formatTaskList(CommandResult result) {
+        if (result.getPage() > 0 && !guiLines.isEmpty()) {
+            return GuiResponseFormatter.formatTaskPage(guiLines, result.getPage(), result.getCount());
+        }
+        return guiLines.size() > GUI_PAGE_SIZE
+                ? GuiResponseFormatter.formatTaskPage(guiLines, 1, GUI_PAGE_SIZE)
+                : GuiResponseFormatter.formatTaskList(guiLines);
     }
 
-    private String getDeleteResponse(String command) throws ZenException {
-        if (lastDeletedTask == null) {
-            throw new ZenException("No task was deleted.");
+    private void showTaskAdded(CommandResult result) {
+        ui.showTaskAdded(result.getTask(), result.getTaskCount());
+    }
+
+    private String formatTaskAdded(CommandResult result) {
+        return GuiResponseFormatter.formatTaskAdded(result.getTask(), result.getTaskCount());
+    }
+
+    private void showMatchingTasks(CommandResult result) {
+        if (result.isFromArchive()) {
+            ui.showMatchingArchivedTasks(result.getTasks());
+        } else {
+            ui.showMatchingTasks(result.getTasks());
         }
-        return GuiResponseFormatter.formatTaskDeleted(lastDeletedTask, tasks.size());
     }
 
-    private String getLastTaskAddedResponse() {
-        if (tasks.size() > 0) {
-            Task lastTask = tasks.getTask(tasks.size() - 1);
-            return GuiResponseFormatter.formatTaskAdded(lastTask, tasks.size());
+    private String formatMatchingTasks(CommandResult result) {
+        return result.isFromArchive()
+                ? GuiResponseFormatter.formatMatchingArchivedTasks(result.getTasks())
+                : GuiResponseFormatter.formatMatchingTasks(result.getTasks());
+    }
+
+    /**
+     * Writes the changes made since the last save to storage.
+     * If an earlier save failed, the whole list is rewritten so the file catches up.
+     * While a script runs, changes are kept until it ends.
+     */
+    private void persistChanges() throws ZenException {
+        if (isRunningScript) {
+            return; // Saved once when the script ends
+        }
+        List<TaskListEvent> changes = new ArrayList<>(unsavedChanges);
+        unsavedChanges.clear();
+        boolean wasInSync = isStorageInSync;
+        isStorageInSync = false;
+        if (wasInSync) {
+            storage.saveChanges(tasks, changes);
+        } else {
+            storage.save(tasks.getTasks());
         }
-        return "Task added successfully.";
+        isStorageInSync = true;
     }
 }
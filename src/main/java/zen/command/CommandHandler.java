@@ -0,0 +1,19 @@
+package zen.command;
+
+import zen.exception.ZenException;
+
+/**
+ * Carries out one type of command
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * Executes a parsed command
+     *
+     * @param commandLine the command, with its type and arguments
+     * @return what the command did
+     * @throws ZenException if the command is invalid or could not be carried out
+     */
+    CommandResult execute(CommandLine commandLine) throws ZenException;
+}
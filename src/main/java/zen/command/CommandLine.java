@@ -0,0 +1,66 @@
+package zen.command;
+
+import java.nio.CharBuffer;
+
+/**
+ * A command typed by the user, split into its type and its arguments.
+ * The arguments are handed out as a view into the typed text rather than a copy of it.
+ */
+public class CommandLine {
+    private final Parser.CommandType type;
+    private final String command;
+    private final int argumentStart;
+    private final int argumentEnd;
+
+    /**
+     * Constructs a CommandLine
+     *
+     * @param type          the type of the command
+     * @param command       the full command as typed
+     * @param argumentStart the index in the command where the arguments start
+     * @param argumentEnd   the index in the command where the arguments end (exclusive)
+     */
+    public CommandLine(Parser.CommandType type, String command, int argumentStart, int argumentEnd) {
+        assert argumentStart <= argumentEnd : "Arguments should not end before they start";
+        this.type = type;
+        this.command = command;
+        this.argumentStart = argumentStart;
+        this.argumentEnd = argumentEnd;
+    }
+
+    public Parser.CommandType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the full command as typed, for parsers that work on the whole command
+     *
+     * @return the command, including its keyword
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Gets the text after the keyword, without surrounding whitespace
+     *
+     * @return a read-only view of the arguments, empty if there are none
+     */
+    public CharSequence getArguments() {
+        return CharBuffer.wrap(command, argumentStart, argumentEnd);
+    }
+
+    /**
+     * Scans the arguments for flags where they lie in the typed text, without copying them out
+     *
+     * @param scanner the flags the command takes
+     * @return the leading text and flag values found
+     */
+    public FlagScanner.Fields scanArguments(FlagScanner scanner) {
+        return scanner.scan(command, argumentStart);
+    }
+
+    public boolean hasArguments() {
+        return argumentStart < argumentEnd;
+    }
+}
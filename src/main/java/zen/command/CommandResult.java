@@ -0,0 +1,262 @@
+package zen.command;
+
+import java.util.List;
+
+import zen.storage.TaskTransfer;
+import zen.task.AgendaEntry;
+import zen.task.FreeSlot;
+import zen.task.Task;
+import zen.task.TaskListEvent;
+
+/**
+ * The outcome of executing one command: the tasks it affected or found, and the counts to report.
+ * A command does its work once and returns one of these, which the console and the GUI then render
+ * in their own way, so neither has to parse the command again or look the tasks up a second time.
+ */
+public class CommandResult {
+    private final Parser.CommandType type;
+    private Task task;
+    private Task otherTask;
+    private List<Task> tasks;
+    private List<AgendaEntry> agenda;
+    private List<FreeSlot> freeSlots;
+    private List<TaskListEvent> changes;
+    private int taskCount;
+    private int count;
+    private int page;
+    private boolean isFromArchive;
+    private String text;
+    private TaskTransfer.Report transfer;
+
+    private CommandResult(Parser.CommandType type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates the result of a command that only needs its type to be rendered, e.g. help, bye or list
+     */
+    public static CommandResult of(Parser.CommandType type) {
+        return new CommandResult(type);
+    }
+
+    /**
+     * Creates the result of a command that changed a single task
+     *
+     * @param type      the command that was executed
+     * @param task      the task that was added, marked, deleted etc.
+     * @param taskCount the number of tasks in the list afterwards
+     */
+    public static CommandResult ofTask(Parser.CommandType type, Task task, int taskCount) {
+        CommandResult result = new CommandResult(type);
+        result.task = task;
+        result.taskCount = taskCount;
+        return result;
+    }
+
+    /**
+     * Creates the result of a command that lists or moves several tasks
+     *
+     * @param type      the command that was executed
+     * @param tasks     the tasks to show
+     * @param taskCount the number of tasks in the list afterwards
+     */
+    public static CommandResult ofTasks(Parser.CommandType type, List<Task> tasks, int taskCount) {
+        CommandResult result = new CommandResult(type);
+        result.tasks = tasks;
+        result.taskCount = taskCount;
+        return result;
+    }
+
+    /**
+     * Creates the result of a list command that shows one page of the list
+     *
+     * @param page      the page to show, from 1
+     * @param pageSize  the number of tasks a page
+     * @param taskCount the number of tasks in the list
+     */
+    public static CommandResult ofPage(int page, int pageSize, int taskCount) {
+        CommandResult result = new CommandResult(Parser.CommandType.LIST);
+        result.page = page;
+        result.count = pageSize;
+        result.taskCount = taskCount;
+        return result;
+    }
+
+    /**
+     * Creates the result of a sort command. Like a list command, it shows the whole list, which is rendered
+     * from the lines kept by the executor rather than copied into the result.
+     *
+     * @param orderName the order the tasks were sorted in, e.g. "date"
+     * @param taskCount the number of tasks in the list
+     */
+    public static CommandResult ofSortedTasks(String orderName, int taskCount) {
+        CommandResult result = new CommandResult(Parser.CommandType.SORT);
+        result.text = orderName;
+        result.taskCount = taskCount;
+        return result;
+    }
+
+    /**
+     * Creates the result of a find command
+     *
+     * @param matches       the matching tasks
+     * @param isFromArchive whether the matches come from the archive rather than the task list
+     */
+    public static CommandResult ofMatches(List<Task> matches, boolean isFromArchive) {
+        CommandResult result = new CommandResult(Parser.CommandType.FIND);
+        result.tasks = matches;
+        result.isFromArchive = isFromArchive;
+        return result;
+    }
+
+    /**
+     * Creates the result of a command that added or removed a dependency
+     *
+     * @param type      the command that was executed
+     * @param dependent the task that waits
+     * @param blocker   the task it waits for
+     */
+    public static CommandResult ofDependency(Parser.CommandType type, Task dependent, Task blocker) {
+        CommandResult result = new CommandResult(type);
+        result.task = dependent;
+        result.otherTask = blocker;
+        return result;
+    }
+
+    /**
+     * Creates the result of an agenda command
+     */
+    public static CommandResult ofAgenda(List<AgendaEntry> agenda) {
+        CommandResult result = new CommandResult(Parser.CommandType.AGENDA);
+        result.agenda = agenda;
+        return result;
+    }
+
+    /**
+     * Creates the result of a free command
+     */
+    public static CommandResult ofFreeSlots(List<FreeSlot> freeSlots) {
+        CommandResult result = new CommandResult(Parser.CommandType.FREE);
+        result.freeSlots = freeSlots;
+        return result;
+    }
+
+    /**
+     * Creates the result of an undo or redo
+     *
+     * @param type    the command that was executed
+     * @param changes the changes that were reverted or re-applied
+     */
+    public static CommandResult ofChanges(Parser.CommandType type, List<TaskListEvent> changes) {
+        CommandResult result = new CommandResult(type);
+        result.changes = changes;
+        return result;
+    }
+
+    /**
+     * Creates the result of running a script
+     *
+     * @param file         the script that was run
+     * @param commandCount the number of commands it ran
+     * @param taskCount    the number of tasks in the list afterwards
+     */
+    public static CommandResult ofScript(String file, int commandCount, int taskCount) {
+        CommandResult result = new CommandResult(Parser.CommandType.RUN);
+        result.text = file;
+        result.count = commandCount;
+        result.taskCount = taskCount;
+        return result;
+    }
+
+    /**
+     * Creates the result of an import or export
+     *
+     * @param type      the command that was executed
+     * @param file      the file the tasks were moved from or to
+     * @param transfer  how many tasks were moved and how fast
+     * @param taskCount the number of tasks in the list afterwards
+     */
+    public static CommandResult ofTransfer(Parser.CommandType type, String file, TaskTransfer.Report transfer,
+            int taskCount) {
+        CommandResult result = new CommandResult(type);
+        result.text = file;
+        result.transfer = transfer;
+        result.taskCount = taskCount;
+        return result;
+    }
+
+    /**
+     * Creates the result of a command that reports a piece of text, e.g. the storage description
+     */
+    public static CommandResult ofText(Parser.CommandType type, String text) {
+        CommandResult result = new CommandResult(type);
+        result.text = text;
+        return result;
+    }
+
+    public Parser.CommandType getType() {
+        return type;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public Task getOtherTask() {
+        return otherTask;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public List<AgendaEntry> getAgenda() {
+        return agenda;
+    }
+
+    public List<FreeSlot> getFreeSlots() {
+        return freeSlots;
+    }
+
+    public List<TaskListEvent> getChanges() {
+        return changes;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the page a list command shows
+     *
+     * @return the page, from 1, or 0 if the whole list is shown
+     */
+    public int getPage() {
+        return page;
+    }
+
+    public boolean isFromArchive() {
+        return isFromArchive;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public TaskTransfer.Report getTransfer() {
+        return transfer;
+    }
+
+    /**
+     * Checks whether the application should exit after this command
+     *
+     * @return true for the bye command
+     */
+    public boolean isExit() {
+        return type == Parser.CommandType.BYE;
+    }
+}
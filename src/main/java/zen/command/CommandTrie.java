@@ -0,0 +1,97 @@
+package zen.command;
+
+/**
+ * Maps command keywords to their command types in a prefix trie.
+ * Matching walks the input once, one character per level, so the cost depends on the length of the keyword
+ * typed and not on how many commands exist. Keywords are lowercase letters, and each keyword has a type for
+ * when it is typed on its own and a type for when arguments follow it after a space.
+ */
+class CommandTrie {
+    private static final int ALPHABET_SIZE = 26;
+
+    private final Node root = new Node();
+
+    /**
+     * Adds a keyword to the trie
+     *
+     * @param keyword      the keyword, in lowercase letters
+     * @param bareType     the type when the keyword is typed on its own, or null if it needs arguments
+     * @param argumentType the type when arguments follow the keyword, or null if it takes none
+     */
+    void add(String keyword, Parser.CommandType bareType, Parser.CommandType argumentType) {
+        Node node = root;
+        for (int i = 0; i < keyword.length(); i++) {
+            int slot = keyword.charAt(i) - 'a';
+            assert slot >= 0 && slot < ALPHABET_SIZE : "Keywords should only contain lowercase letters";
+            if (node.children[slot] == null) {
+                node.children[slot] = new Node();
+            }
+            node = node.children[slot];
+        }
+        node.isKeyword = true;
+        node.bareType = bareType;
+        node.argumentType = argumentType;
+    }
+
+    /**
+     * Finds the command typed in the input. Surrounding whitespace is ignored, and arguments must be
+     * separated from the keyword by a space.
+     *
+     * @param input the command typed by the user
+     * @return the command type with the position of its arguments
+     */
+    CommandLine match(String input) {
+        if (input == null) {
+            return new CommandLine(Parser.CommandType.EMPTY, "", 0, 0);
+        }
+        int start = skipWhitespace(input, 0);
+        int end = input.length();
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return new CommandLine(Parser.CommandType.EMPTY, input, end, end);
+        }
+
+        Node node = root;
+        int position = start;
+        while (position < end) {
+            int slot = input.charAt(position) - 'a';
+            if (slot < 0 || slot >= ALPHABET_SIZE || node.children[slot] == null) {
+                break;
+            }
+            node = node.children[slot];
+            position++;
+        }
+
+        Parser.CommandType type = null;
+        int argumentStart = end;
+        if (node.isKeyword && position == end) {
+            type = node.bareType;
+        } else if (node.isKeyword && input.charAt(position) == ' ') {
+            type = node.argumentType;
+            argumentStart = skipWhitespace(input, position);
+        }
+        if (type == null) {
+            return new CommandLine(Parser.CommandType.UNKNOWN, input, end, end);
+        }
+        return new CommandLine(type, input, argumentStart, end);
+    }
+
+    private static int skipWhitespace(String input, int position) {
+        while (position < input.length() && input.charAt(position) <= ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * One character of a keyword, with the command types if a keyword ends here
+     */
+    private static class Node {
+        private final Node[] children = new Node[ALPHABET_SIZE];
+        private boolean isKeyword;
+        private Parser.CommandType bareType;
+        private Parser.CommandType argumentType;
+    }
+}
@@ -0,0 +1,205 @@
+package zen.command;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Splits the arguments of a command into its leading text and the values of its flags,
+ * e.g. "report /p 1 /by Sunday" into "report", p = "1" and by = "Sunday".
+ * The text is scanned once, flags may come in any order, and each value runs up to the next flag.
+ * A flag is only recognized if it is one of the names given to the scanner, starts a word and is followed
+ * by a space or the end of the text, so "/pages" is not mistaken for "/p" and "a/b" is not split.
+ * The result only records where each value starts and ends; nothing is copied until a value is read.
+ */
+public class FlagScanner {
+    private final String[] names;
+
+    /**
+     * Constructs a FlagScanner for a set of flags
+     *
+     * @param names the flag names without their slash, e.g. "by" for /by
+     */
+    public FlagScanner(String... names) {
+        this.names = names.clone();
+    }
+
+    /**
+     * Scans the arguments of a command
+     *
+     * @param text the arguments, e.g. "report /by Sunday" for "deadline report /by Sunday"
+     * @return the leading text and flag values found
+     */
+    public Fields scan(CharSequence text) {
+        return scan(text, 0);
+    }
+
+    /**
+     * Scans the arguments of a command in place, starting after its keyword
+     *
+     * @param command the full command, e.g. "deadline report /by Sunday"
+     * @param start   the index where the arguments start; past the end means there are none
+     * @return the leading text and flag values found
+     */
+    public Fields scan(CharSequence command, int start) {
+        int length = command.length();
+        Fields fields = new Fields(command, names, Math.min(start, length));
+        int field = 0;
+        for (int i = indexOfSlash(command, fields.bounds[0]); i != -1; i = indexOfSlash(command, i + 1)) {
+            int flag = i > start && command.charAt(i - 1) != ' ' ? -1 : matchFlag(command, i + 1);
+            if (flag == -1) {
+                continue;
+            }
+            fields.bounds[2 * field + 1] = i;
+            field = flag + 1;
+            if (fields.bounds[2 * field] != -1) {
+                fields.hasRepeatedFlag = true;
+            }
+            fields.bounds[2 * field] = i + 1 + names[flag].length();
+            i = fields.bounds[2 * field] - 1;
+        }
+        fields.bounds[2 * field + 1] = length;
+        fields.trim();
+        return fields;
+    }
+
+    /**
+     * Finds the flag whose name starts at a position and is followed by a space or the end of the text
+     *
+     * @return the index of the flag, or -1 if none matches
+     */
+    private int matchFlag(CharSequence text, int position) {
+        for (int flag = 0; flag < names.length; flag++) {
+            String name = names[flag];
+            int end = position + name.length();
+            if (end > text.length() || (end < text.length() && text.charAt(end) != ' ')) {
+                continue;
+            }
+            if (startsWith(text, name, position)) {
+                return flag;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfSlash(CharSequence text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence text, String prefix, int position) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(position + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Where the leading text and each flag value lie in the scanned text
+     */
+    public static class Fields {
+        private final CharSequence text;
+        private final String[] names;
+        private final int[] bounds; // Start and end of the leading text, then of each flag value; -1 if not given
+        private boolean hasRepeatedFlag;
+
+        private Fields(CharSequence text, String[] names, int start) {
+            this.text = text;
+            this.names = names;
+            this.bounds = new int[2 * (names.length + 1)];
+            Arrays.fill(bounds, 2, bounds.length, -1);
+            bounds[0] = start;
+        }
+
+        /**
+         * Checks whether every flag appeared at most once
+         *
+         * @return false if a flag was given more than once
+         */
+        public boolean isValid() {
+            return !hasRepeatedFlag;
+        }
+
+        /**
+         * Checks whether a flag was given, even with an empty value
+         *
+         * @param name the flag name without its slash
+         * @return true if the flag appeared in the text
+         */
+        public boolean has(String name) {
+            return bounds[2 * indexOf(name)] != -1;
+        }
+
+        public boolean hasLeadingText() {
+            return bounds[0] < bounds[1];
+        }
+
+        /**
+         * Gets the text before the first flag
+         *
+         * @return the leading text, without surrounding whitespace
+         */
+        public String getLeadingText() {
+            return text.subSequence(bounds[0], bounds[1]).toString();
+        }
+
+        /**
+         * Gets the text before the first flag as a view into the scanned text, without copying it
+         *
+         * @return the leading text, without surrounding whitespace
+         */
+        public CharSequence getLeadingSpan() {
+            return CharBuffer.wrap(text, bounds[0], bounds[1]);
+        }
+
+        /**
+         * Gets the value of a flag
+         *
+         * @param name the flag name without its slash
+         * @return the value without surrounding whitespace, or null if the flag was not given
+         */
+        public String get(String name) {
+            int start = 2 * indexOf(name);
+            return bounds[start] == -1 ? null : text.subSequence(bounds[start], bounds[start + 1]).toString();
+        }
+
+        /**
+         * Gets the value of a flag as a view into the scanned text, without copying it
+         *
+         * @param name the flag name without its slash
+         * @return the value without surrounding whitespace, or null if the flag was not given
+         */
+        public CharSequence getSpan(String name) {
+            int start = 2 * indexOf(name);
+            return bounds[start] == -1 ? null : CharBuffer.wrap(text, bounds[start], bounds[start + 1]);
+        }
+
+        private int indexOf(String name) {
+            for (int flag = 0; flag < names.length; flag++) {
+                if (names[flag].equals(name)) {
+                    return flag + 1;
+                }
+            }
+            throw new IllegalArgumentException("Unknown flag: " + name);
+        }
+
+        private void trim() {
+            for (int start = 0; start < bounds.length; start += 2) {
+                if (bounds[start] == -1) {
+                    continue;
+                }
+                while (bounds[start] < bounds[start + 1] && text.charAt(bounds[start]) <= ' ') {
+                    bounds[start]++;
+                }
+                while (bounds[start + 1] > bounds[start] && text.charAt(bounds[start + 1] - 1) <= ' ') {
+                    bounds[start + 1]--;
+                }
+            }
+        }
+    }
+}
@@ -1,27 +1,75 @@
 package zen.command;
 
+import java.nio.CharBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import zen.exception.ZenException;
 import zen.task.Deadline;
 import zen.task.Event;
+import zen.task.RecurringTask;
+import zen.task.TaskOrder;
+import zen.util.FlexibleDateTime;
 
 /**
  * Handles parsing of user commands and extracting relevant information
  */
 public class Parser {
-    // Command prefixes
-    private static final String TODO_PREFIX = "todo ";
-    private static final String MARK_PREFIX = "mark ";
-    private static final String UNMARK_PREFIX = "unmark ";
-    private static final String DELETE_PREFIX = "delete ";
-    private static final String DEADLINE_PREFIX = "deadline ";
-    private static final String EVENT_PREFIX = "event ";
-    private static final String FIND_PREFIX = "find ";
+    static final int DEFAULT_NEXT_COUNT = 5;
+    static final int DEFAULT_TOP_COUNT = 5;
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    // Command flags
+    private static final String ARCHIVE_FLAG = "--archive";
 
     // Command format constants
-    private static final int TODO_PREFIX_LENGTH = 5;
-    private static final int FIND_PREFIX_LENGTH = 5;
-    private static final int DEADLINE_PREFIX_LENGTH = 9;
-    private static final int EVENT_PREFIX_LENGTH = 6;
+    private static final int DEFAULT_AGENDA_DAYS = 7;
+    private static final int DEFAULT_FREE_DAYS = 7;
+    private static final Pattern DURATION_PART = Pattern.compile(
+            "(\\d+)\\s*(hours|hour|hrs|hr|h|minutes|minute|mins|min|m)", Pattern.CASE_INSENSITIVE);
+
+    private static final FlagScanner PRIORITY_FLAGS = new FlagScanner("p");
+    private static final FlagScanner DEADLINE_FLAGS = new FlagScanner("by", "p");
+    private static final FlagScanner EVENT_FLAGS = new FlagScanner("from", "to", "p");
+    private static final FlagScanner RECUR_FLAGS = new FlagScanner("from", "every", "p");
+    private static final FlagScanner AGENDA_FLAGS = new FlagScanner("from", "to");
+    private static final FlagScanner FREE_FLAGS = new FlagScanner("between");
+    private static final FlagScanner DEPENDENCY_FLAGS = new FlagScanner("on");
+    private static final CommandTrie COMMANDS = new CommandTrie();
+
+    static {
+        // Keyword, type when typed on its own, type when followed by arguments
+        COMMANDS.add("bye", CommandType.BYE, null);
+        COMMANDS.add("list", CommandType.LIST, CommandType.LIST);
+        COMMANDS.add("help", CommandType.HELP, null);
+        COMMANDS.add("storage", CommandType.STORAGE, null);
+        COMMANDS.add("undo", CommandType.UNDO, null);
+        COMMANDS.add("redo", CommandType.REDO, null);
+        COMMANDS.add("ready", CommandType.READY, null);
+        COMMANDS.add("mark", null, CommandType.MARK);
+        COMMANDS.add("unmark", null, CommandType.UNMARK);
+        COMMANDS.add("delete", null, CommandType.DELETE);
+        COMMANDS.add("todo", CommandType.TODO_EMPTY, CommandType.TODO);
+        COMMANDS.add("deadline", CommandType.DEADLINE_EMPTY, CommandType.DEADLINE);
+        COMMANDS.add("event", CommandType.EVENT_EMPTY, CommandType.EVENT);
+        COMMANDS.add("recur", CommandType.RECUR_EMPTY, CommandType.RECUR);
+        COMMANDS.add("find", CommandType.FIND_EMPTY, CommandType.FIND);
+        COMMANDS.add("next", CommandType.NEXT, CommandType.NEXT);
+        COMMANDS.add("top", CommandType.TOP, CommandType.TOP);
+        COMMANDS.add("archive", CommandType.ARCHIVE, CommandType.ARCHIVE);
+        COMMANDS.add("agenda", CommandType.AGENDA, CommandType.AGENDA);
+        COMMANDS.add("free", CommandType.FREE_EMPTY, CommandType.FREE);
+        COMMANDS.add("depend", CommandType.DEPEND_EMPTY, CommandType.DEPEND);
+        COMMANDS.add("undepend", CommandType.UNDEPEND_EMPTY, CommandType.UNDEPEND);
+        COMMANDS.add("priority", CommandType.PRIORITY_EMPTY, CommandType.PRIORITY);
+        COMMANDS.add("run", CommandType.RUN_EMPTY, CommandType.RUN);
+        COMMANDS.add("import", CommandType.IMPORT_EMPTY, CommandType.IMPORT);
+        COMMANDS.add("export", CommandType.EXPORT_EMPTY, CommandType.EXPORT);
+        COMMANDS.add("sort", CommandType.SORT_EMPTY, CommandType.SORT);
+    }
 
     /**
      * Parses a user command and returns the command type
@@ -30,185 +78,360 @@ public class Parser {
      * @return CommandType representing the parsed command
      */
     public static CommandType parseCommand(String fullCommand) {
-        if (fullCommand == null || fullCommand.trim().isEmpty()) {
-            return CommandType.EMPTY;
-        }
-
-        String command = fullCommand.trim();
+        return parseCommandLine(fullCommand).getType();
+    }
 
-        // Handle single-word commands first
-        CommandType singleWordCommand = parseSingleWordCommand(command);
-        if (singleWordCommand != null) {
-            return singleWordCommand;
-        }
+    /**
+     * Parses a user command into its type and its arguments in one pass over the keyword
+     *
+     * @param fullCommand the full command string from user
+     * @return the parsed command; its type is EMPTY for blank input and UNKNOWN if no keyword matches
+     */
+    public static CommandLine parseCommandLine(String fullCommand) {
+        return COMMANDS.match(fullCommand);
+    }
 
-        // Handle commands with parameters
-        CommandType parameterCommand = parseParameterCommand(command);
-        if (parameterCommand != null) {
-            return parameterCommand;
-        }
+    /**
+     * Extracts the task index from mark/unmark/delete commands
+     *
+     * @param command the command string
+     * @param prefix  the command prefix (e.g., "mark ", "unmark ", "delete ")
+     * @return the task index (0-based) or -1 if invalid
+     */
+    public static int parseTaskIndex(String command, String prefix) {
+        return parseTaskIndex(CharBuffer.wrap(command, prefix.length(), command.length()));
+    }
 
-        return CommandType.UNKNOWN;
+    /**
+     * Extracts a task index from the arguments of a command
+     *
+     * @param arguments the arguments, e.g. "2" for "mark 2"
+     * @return the task index (0-based) or -1 if invalid
+     */
+    public static int parseTaskIndex(CharSequence arguments) {
+        int count = parseNumber(arguments);
+        return count > 0 ? count - 1 : -1; // Convert to 0-based
     }
 
     /**
-     * Parses single-word commands (no parameters)
+     * Extracts a positive count from the arguments of a command such as next, top or archive
      *
-     * @param command the trimmed command string
-     * @return CommandType if it's a single-word command, null otherwise
+     * @param arguments    the arguments, empty if no count is given
+     * @param defaultCount the count to use if none is given
+     * @return the count, the default count if none is given, or -1 if invalid
      */
-    private static CommandType parseSingleWordCommand(String command) {
-        switch (command) {
-        case "bye":
-            return CommandType.BYE;
-        case "list":
-            return CommandType.LIST;
-        case "help":
-            return CommandType.HELP;
-        case "todo":
-            return CommandType.TODO_EMPTY;
-        case "deadline":
-            return CommandType.DEADLINE_EMPTY;
-        case "event":
-            return CommandType.EVENT_EMPTY;
-        case "find":
-            return CommandType.FIND_EMPTY;
-        default:
-            return null;
+    public static int parseCount(CharSequence arguments, int defaultCount) {
+        if (isBlank(arguments)) {
+            return defaultCount;
         }
+        int count = parseNumber(arguments);
+        return count > 0 ? count : -1;
     }
 
     /**
-     * Parses commands that have parameters
+     * Extracts the page to show from the arguments of a list command, e.g. "3" or "3 50"
      *
-     * @param command the trimmed command string
-     * @return CommandType if it's a valid parameter command, null otherwise
+     * @param arguments the page number, optionally followed by the number of tasks a page
+     * @return the page number (1-based) and the page size, or null if invalid
      */
-    private static CommandType parseParameterCommand(String command) {
-        if (command.startsWith(MARK_PREFIX)) {
-            return CommandType.MARK;
+    public static int[] parseListPage(CharSequence arguments) {
+        int split = 0;
+        while (split < arguments.length() && arguments.charAt(split) > ' ') {
+            split++;
         }
-        if (command.startsWith(UNMARK_PREFIX)) {
-            return CommandType.UNMARK;
+        int page = parseNumber(arguments.subSequence(0, split));
+        int pageSize = parseCount(arguments.subSequence(split, arguments.length()), DEFAULT_PAGE_SIZE);
+        return page > 0 && pageSize > 0 ? new int[] {page, pageSize} : null;
+    }
+
+    /**
+     * Parses a whole number surrounded by optional whitespace, without copying it out of the text
+     *
+     * @return the number, or -1 if the text is not a whole number
+     */
+    private static int parseNumber(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
         }
-        if (command.startsWith(DELETE_PREFIX)) {
-            return CommandType.DELETE;
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
         }
-        if (command.startsWith(TODO_PREFIX)) {
-            return CommandType.TODO;
+        try {
+            return Integer.parseInt(text, start, end, 10);
+        } catch (NumberFormatException e) {
+            return -1;
         }
-        if (command.startsWith(DEADLINE_PREFIX)) {
-            return CommandType.DEADLINE;
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
         }
-        if (command.startsWith(EVENT_PREFIX)) {
-            return CommandType.EVENT;
+        return true;
+    }
+
+    /**
+     * Extracts the keyword from the arguments of a find command, without the --archive flag if present
+     *
+     * @param arguments the arguments, e.g. "--archive book" for "find --archive book"
+     * @return the search keyword
+     */
+    public static String parseFindKeyword(CharSequence arguments) {
+        String keyword = arguments.toString();
+        return isArchiveSearch(arguments) ? keyword.substring(ARCHIVE_FLAG.length()).trim() : keyword;
+    }
+
+    /**
+     * Checks if a find command asks to search the archive instead of the active tasks
+     *
+     * @param arguments the arguments of the find command
+     * @return true if the arguments start with the --archive flag
+     */
+    public static boolean isArchiveSearch(CharSequence arguments) {
+        int length = ARCHIVE_FLAG.length();
+        return arguments.length() >= length && ARCHIVE_FLAG.contentEquals(arguments.subSequence(0, length))
+                && (arguments.length() == length || arguments.charAt(length) == ' ');
+    }
+
+    /**
+     * Splits the arguments of a command into its leading text and flags, e.g. "deadline report /by Sunday /p 1"
+     * into "report", by = "Sunday" and p = "1". Every command that adds a task takes /p, as does priority.
+     *
+     * @param commandLine a todo, deadline, event, recur or priority command
+     * @return the leading text and flag values found
+     */
+    public static FlagScanner.Fields parseFlags(CommandLine commandLine) {
+        switch (commandLine.getType()) {
+        case DEADLINE:
+            return commandLine.scanArguments(DEADLINE_FLAGS);
+        case EVENT:
+            return commandLine.scanArguments(EVENT_FLAGS);
+        case RECUR:
+            return commandLine.scanArguments(RECUR_FLAGS);
+        case TODO:
+        case PRIORITY:
+            return commandLine.scanArguments(PRIORITY_FLAGS);
+        default:
+            throw new IllegalArgumentException("No flags for " + commandLine.getType());
         }
-        if (command.startsWith(FIND_PREFIX)) {
-            return CommandType.FIND;
+    }
+
+    /**
+     * Extracts the priority given with /p, e.g. "todo read /p 1"
+     *
+     * @param fields the flags of the command that may carry a priority
+     * @return the priority (1 is the most urgent, 0 means none), 0 if no priority is given, or -1 if invalid
+     */
+    public static int parsePriority(FlagScanner.Fields fields) {
+        if (!fields.has("p")) {
+            return 0;
         }
-        return null;
+        int priority = parseNumber(fields.getSpan("p"));
+        return priority >= 0 ? priority : -1;
     }
 
     /**
-     * Extracts the task index from mark/unmark/delete commands
+     * Builds the deadline described by the flags of a deadline command
      *
-     * @param command the command string
-     * @param prefix  the command prefix (e.g., "mark ", "unmark ", "delete ")
-     * @return the task index (0-based) or -1 if invalid
+     * @param fields the flags of the deadline command
+     * @return Deadline object if valid format, null otherwise
+     * @throws ZenException if there's an error creating the deadline task
      */
-    public static int parseTaskIndex(String command, String prefix) {
-        try {
-            String indexStr = command.substring(prefix.length()).trim();
-            int index = Integer.parseInt(indexStr) - 1; // Convert to 0-based
-            return index >= 0 ? index : -1;
-        } catch (NumberFormatException e) {
-            return -1;
+    public static Deadline parseDeadline(FlagScanner.Fields fields) throws ZenException {
+        if (!fields.isValid() || !fields.has("by")) {
+            return null;
         }
+        return new Deadline(fields.getLeadingText(), fields.get("by"));
     }
 
     /**
-     * Extracts the description from todo commands
+     * Builds the event described by the flags of an event command.
+     * The /from and /to flags may be given in either order.
      *
-     * @param command the todo command
-     * @return the task description
+     * @param fields the flags of the event command
+     * @return Event object if valid format, null otherwise
+     * @throws ZenException if there's an error creating the event task
      */
-    public static String parseTodoDescription(String command) {
-        return command.substring(TODO_PREFIX_LENGTH).trim();
+    public static Event parseEvent(FlagScanner.Fields fields) throws ZenException {
+        if (!fields.isValid() || !fields.has("from") || !fields.has("to")) {
+            return null;
+        }
+        return new Event(fields.getLeadingText(), fields.get("from"), fields.get("to"));
     }
 
     /**
-     * Extracts the keyword from find commands
+     * Builds the recurring task described by the flags of a recur command
      *
-     * @param command the find command
-     * @return the search keyword
+     * @param fields the flags of the recur command, e.g. "recur standup /from 2024-12-16 9am /every week"
+     * @return RecurringTask object if valid format, null otherwise
+     * @throws ZenException if the first occurrence is not a date or the interval is unknown
      */
-    public static String parseFindKeyword(String command) {
-        return command.substring(FIND_PREFIX_LENGTH).trim();
+    public static RecurringTask parseRecurringTask(FlagScanner.Fields fields) throws ZenException {
+        if (!fields.isValid() || !fields.has("from") || !fields.has("every")) {
+            return null;
+        }
+        return new RecurringTask(fields.getLeadingText(), fields.get("from"), fields.get("every"));
     }
 
     /**
-     * Parses deadline command and extracts description and by date
+     * Parses the order a sort asks for
      *
-     * @param command the deadline command
-     * @return Deadline object if valid format, null otherwise
-     * @throws ZenException if there's an error creating the deadline task
+     * @param arguments the name of the order, e.g. "date"
+     * @return the order, or null if there is no order with that name
      */
-    public static Deadline parseDeadline(String command) throws ZenException {
-        String remaining = command.substring(DEADLINE_PREFIX_LENGTH).trim();
-        int byIndex = remaining.indexOf(" /by ");
+    public static TaskOrder parseTaskOrder(CharSequence arguments) {
+        return TaskOrder.fromName(arguments.toString());
+    }
 
-        if (isValidDeadlineFormat(remaining, byIndex)) {
-            String description = remaining.substring(0, byIndex).trim();
-            String by = remaining.substring(byIndex + 5).trim();
-            return new Deadline(description, by);
+    /**
+     * Extracts the period asked about by an agenda command.
+     * Without /from the period starts today, and without /to it lasts a week; the two may come in either order.
+     * A /to date without a time includes that whole day.
+     *
+     * @param arguments the flags of the agenda command, e.g. "/from 2024-12-16 /to 2024-12-22"
+     * @return the start (inclusive) and end (exclusive) of the period, or null if invalid
+     * @throws ZenException if a date is empty
+     */
+    public static LocalDateTime[] parseAgendaPeriod(CharSequence arguments) throws ZenException {
+        FlagScanner.Fields fields = AGENDA_FLAGS.scan(arguments);
+        if (!fields.isValid() || fields.hasLeadingText()) {
+            return null;
         }
 
-        return null;
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        if (fields.has("from")) {
+            FlexibleDateTime start = new FlexibleDateTime(fields.get("from"));
+            if (!start.hasDate()) {
+                return null;
+            }
+            from = start.toLocalDateTime();
+        }
+        LocalDateTime to = from.plusDays(DEFAULT_AGENDA_DAYS);
+        if (fields.has("to")) {
+            FlexibleDateTime end = new FlexibleDateTime(fields.get("to"));
+            if (!end.hasDate()) {
+                return null;
+            }
+            to = end.getType() == FlexibleDateTime.DateTimeType.DATE_ONLY
+                    ? end.toLocalDateTime().plusDays(1)
+                    : end.toLocalDateTime();
+        }
+        return to.isAfter(from) ? new LocalDateTime[] {from, to} : null;
     }
 
     /**
-     * Parses event command and extracts description, from time, and to time
+     * Extracts the length of the free slot asked for by a free command
      *
-     * @param command the event command
-     * @return Event object if valid format, null otherwise
-     * @throws ZenException if there's an error creating the event task
+     * @param arguments the arguments of the free command, e.g. "1h30m /between 2024-12-16 9am 2024-12-16 5pm"
+     * @return the duration, or null if it is missing, zero or not understood
      */
-    public static Event parseEvent(String command) throws ZenException {
-        String remaining = command.substring(EVENT_PREFIX_LENGTH).trim();
-        int fromIndex = remaining.indexOf(" /from ");
-        int toIndex = remaining.indexOf(" /to ");
+    public static Duration parseFreeDuration(CharSequence arguments) {
+        FlagScanner.Fields fields = FREE_FLAGS.scan(arguments);
+        CharSequence text = fields.getLeadingSpan();
+        if (!fields.isValid() || text.length() == 0) {
+            return null;
+        }
+        Matcher matcher = DURATION_PART.matcher(text);
+        Duration duration = Duration.ZERO;
+        int position = 0;
+        while (position < text.length() && matcher.find(position) && matcher.start() == position) {
+            long amount = Long.parseLong(text, matcher.start(1), matcher.end(1), 10);
+            duration = duration.plus(Character.toLowerCase(text.charAt(matcher.start(2))) == 'h'
+                    ? Duration.ofHours(amount)
+                    : Duration.ofMinutes(amount));
+            position = skipSpaces(text, matcher.end());
+        }
+        return position == text.length() && !duration.isZero() ? duration : null;
+    }
 
-        if (isValidEventFormat(remaining, fromIndex, toIndex)) {
-            String description = remaining.substring(0, fromIndex).trim();
-            String from = remaining.substring(fromIndex + 7, toIndex).trim();
-            String to = remaining.substring(toIndex + 5).trim();
-            return new Event(description, from, to);
+    /**
+     * Extracts the period to search for free slots. Without /between, the search covers the next week from now.
+     * The start and end are separated by a space, so every split point is tried until both sides are dates;
+     * an optional "and" or "to" between them is ignored. An end date without a time includes that whole day.
+     *
+     * @param arguments the arguments of the free command
+     * @return the start (inclusive) and end (exclusive) of the period, or null if invalid
+     * @throws ZenException if a date is empty
+     */
+    public static LocalDateTime[] parseFreePeriod(CharSequence arguments) throws ZenException {
+        FlagScanner.Fields fields = FREE_FLAGS.scan(arguments);
+        if (!fields.isValid()) {
+            return null;
+        }
+        if (!fields.has("between")) {
+            LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+            return new LocalDateTime[] {now, now.plusDays(DEFAULT_FREE_DAYS)};
         }
 
+        CharSequence period = fields.getSpan("between");
+        for (int split = 1; split < period.length(); split++) {
+            if (period.charAt(split) != ' ' || period.charAt(split - 1) == ' ') {
+                continue;
+            }
+            int endStart = skipSpaces(period, split);
+            int afterWord = skipWord(period, endStart, "and");
+            endStart = skipSpaces(period, afterWord == endStart ? skipWord(period, endStart, "to") : afterWord);
+            if (endStart == period.length()) {
+                continue;
+            }
+            FlexibleDateTime start = new FlexibleDateTime(period.subSequence(0, split).toString());
+            FlexibleDateTime end = new FlexibleDateTime(period.subSequence(endStart, period.length()).toString());
+            if (start.hasDate() && end.hasDate()) {
+                LocalDateTime to = end.getType() == FlexibleDateTime.DateTimeType.DATE_ONLY
+                        ? end.toLocalDateTime().plusDays(1)
+                        : end.toLocalDateTime();
+                if (to.isAfter(start.toLocalDateTime())) {
+                    return new LocalDateTime[] {start.toLocalDateTime(), to};
+                }
+            }
+        }
         return null;
     }
 
+    private static int skipSpaces(CharSequence text, int position) {
+        while (position < text.length() && text.charAt(position) == ' ') {
+            position++;
+        }
+        return position;
+    }
+
     /**
-     * Validates the format of a deadline command
+     * Skips a word at a position if it is followed by a space
      *
-     * @param remaining the command string after removing the prefix
-     * @param byIndex   the index of " /by " in the remaining string
-     * @return true if the format is valid, false otherwise
+     * @return the position after the word, or the given position if the word is not there
      */
-    private static boolean isValidDeadlineFormat(String remaining, int byIndex) {
-        return byIndex != -1 && byIndex + 5 < remaining.length();
+    private static int skipWord(CharSequence text, int position, String word) {
+        int end = position + word.length();
+        if (end >= text.length() || text.charAt(end) != ' ') {
+            return position;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(position + i) != word.charAt(i)) {
+                return position;
+            }
+        }
+        return end;
     }
 
     /**
-     * Validates the format of an event command
+     * Extracts the two task numbers of a depend or undepend command
      *
-     * @param remaining the command string after removing the prefix
-     * @param fromIndex the index of " /from " in the remaining string
-     * @param toIndex   the index of " /to " in the remaining string
-     * @return true if the format is valid, false otherwise
+     * @param commandLine the command, e.g. "depend 3 /on 1" for task 3 waiting for task 1
+     * @return the index of the waiting task and the index of the task it waits for (both 0-based),
+     *         or null if invalid
      */
-    private static boolean isValidEventFormat(String remaining, int fromIndex, int toIndex) {
-        return fromIndex != -1 && toIndex != -1 && fromIndex < toIndex && toIndex + 5 < remaining.length();
+    public static int[] parseDependency(CommandLine commandLine) {
+        FlagScanner.Fields fields = commandLine.scanArguments(DEPENDENCY_FLAGS);
+        if (!fields.isValid() || !fields.has("on")) {
+            return null;
+        }
+        int dependent = parseTaskIndex(fields.getLeadingText());
+        int blocker = parseTaskIndex(fields.getSpan("on"));
+        return dependent == -1 || blocker == -1 ? null : new int[] {dependent, blocker};
     }
 
     /**
@@ -217,6 +440,11 @@ public class Parser {
     public enum CommandType {
         BYE, LIST, HELP, MARK, UNMARK, DELETE,
         TODO, TODO_EMPTY, DEADLINE, DEADLINE_EMPTY,
-        EVENT, EVENT_EMPTY, FIND, FIND_EMPTY, UNKNOWN, EMPTY
+        EVENT, EVENT_EMPTY, FIND, FIND_EMPTY, NEXT,
+        UNDO, REDO, ARCHIVE, STORAGE, RECUR, RECUR_EMPTY,
+        AGENDA, FREE, FREE_EMPTY, DEPEND, DEPEND_EMPTY,
+        UNDEPEND, UNDEPEND_EMPTY, READY, TOP, PRIORITY,
+        PRIORITY_EMPTY, RUN, RUN_EMPTY, IMPORT, IMPORT_EMPTY,
+        EXPORT, EXPORT_EMPTY, SORT, SORT_EMPTY, UNKNOWN, EMPTY
     }
 }
@@ -0,0 +1,93 @@
+package zen.command;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the rendered responses of read-only commands so that repeating one on an unchanged list is free.
+ * Each response is stamped with the version of the task list it was rendered from, and only counts as a hit
+ * while the list is still at that version. The least recently used command is forgotten once the cache is full.
+ */
+public class ResponseCache {
+    private final Map<String, Response> responses;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Constructs an empty ResponseCache
+     *
+     * @param capacity the most responses kept at once
+     */
+    public ResponseCache(int capacity) {
+        assert capacity > 0 : "Cache capacity should be positive";
+        this.responses = new LinkedHashMap<String, Response>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up the response to a command, counting a hit or a miss
+     *
+     * @param command the command as typed
+     * @param version the current version of the task list
+     * @return the response rendered at that version, or null if there is none
+     */
+    public String get(String command, long version) {
+        Response response = responses.get(command);
+        if (response == null || response.version != version) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return response.text;
+    }
+
+    /**
+     * Remembers the response to a command, replacing any older one
+     *
+     * @param command the command as typed
+     * @param version the version of the task list the response was rendered from
+     * @param text    the response
+     */
+    public void put(String command, long version, String text) {
+        responses.put(command, new Response(version, text));
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of responses held
+     *
+     * @return at most the capacity
+     */
+    public int size() {
+        return responses.size();
+    }
+
+    @Override
+    public String toString() {
+        return responses.size() + " responses, " + hitCount + " hits, " + missCount + " misses";
+    }
+
+    /**
+     * A rendered response and the version of the list it shows
+     */
+    private static class Response {
+        private final long version;
+        private final String text;
+
+        Response(long version, String text) {
+            this.version = version;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package zen.command;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
+import zen.task.TaskListListener;
+
+/**
+ * Records the changes made to a TaskList so they can be undone and redone.
+ * Each notification from the task list (a single change or one batch) becomes one undo step.
+ * A step only keeps the change events themselves, so undoing re-applies their inverse
+ * (re-insert at index, remove the added task, flip the done flag, drop the added dependency,
+ * restore the previous priority) instead of restoring a snapshot.
+ */
+public class UndoLog implements TaskListListener {
+    private final TaskList tasks;
+    private final int capacity;
+    private final Deque<List<TaskListEvent>> undoSteps = new ArrayDeque<>();
+    private final Deque<List<TaskListEvent>> redoSteps = new ArrayDeque<>();
+    private boolean isReplaying;
+    private boolean isPaused;
+
+    /**
+     * Constructs an UndoLog for the given task list.
+     * The log must still be registered as a listener on the task list to record changes.
+     *
+     * @param tasks    the task list whose changes are undone and redone
+     * @param capacity the maximum number of undo steps kept; older steps are forgotten
+     */
+    public UndoLog(TaskList tasks, int capacity) {
+        assert tasks != null : "Task list should not be null";
+        assert capacity > 0 : "Undo capacity should be positive";
+        this.tasks = tasks;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        if (isReplaying || isPaused) {
+            return;
+        }
+        addStep(events);
+    }
+
+    /**
+     * Stops recording changes until resume is called, e.g. while a script runs as one transaction
+     */
+    public void pause() {
+        isPaused = true;
+    }
+
+    public void resume() {
+        isPaused = false;
+    }
+
+    /**
+     * Records changes that were made while paused as a single undo step
+     *
+     * @param changes the changes, in the order they happened
+     */
+    public void record(List<TaskListEvent> changes) {
+        if (!changes.isEmpty()) {
+            addStep(changes);
+        }
+    }
+
+    /**
+     * Reverts changes that were never recorded as a step, e.g. those of a script that failed halfway
+     *
+     * @param changes the changes to revert, in the order they happened
+     */
+    public void revert(List<TaskListEvent> changes) {
+        replay(changes, true);
+    }
+
+    private void addStep(List<TaskListEvent> events) {
+        if (undoSteps.size() == capacity) {
+            undoSteps.removeFirst();
+        }
+        undoSteps.addLast(events);
+        redoSteps.clear();
+    }
+
+    public boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * Forgets all undo and redo steps, e.g. after a change that cannot be reverted
+     */
+    public void clear() {
+        undoSteps.clear();
+        redoSteps.clear();
+    }
+
+    /**
+     * Reverts the most recent step
+     *
+     * @return the changes that were reverted, in the order they originally happened
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    public List<TaskListEvent> undo() {
+        if (undoSteps.isEmpty()) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        List<TaskListEvent> step = undoSteps.removeLast();
+        replay(step, true);
+        redoSteps.addLast(step);
+        return step;
+    }
+
+    /**
+     * Re-applies the most recently undone step
+     *
+     * @return the changes that were re-applied, in the order they originally happened
+     * @throws IllegalStateException if there is nothing to redo
+     */
+    public List<TaskListEvent> redo() {
+        if (redoSteps.isEmpty()) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        List<TaskListEvent> step = redoSteps.removeLast();
+        replay(step, false);
+        undoSteps.addLast(step);
+        return step;
+    }
+
+    /**
+     * Applies a step to the task list as one batch, either forwards or inverted and in reverse order
+     */
+    private void replay(List<TaskListEvent> step, boolean isInverse) {
+        isReplaying = true;
+        tasks.beginBatch();
+        try {
+            if (isInverse) {
+                for (int i = step.size() - 1; i >= 0; i--) {
+                    applyInverse(step.get(i));
+                }
+            } else {
+                for (TaskListEvent event : step) {
+                    apply(event);
+                }
+            }
+        } finally {
+            tasks.endBatch();
+            isReplaying = false;
+        }
+    }
+
+    private void apply(TaskListEvent event) {
+        switch (event.getKind()) {
+        case ADDED:
+            tasks.insertTask(event.getIndex(), event.getTask());
+            break;
+        case REMOVED:
+            tasks.deleteTask(event.getIndex());
+            break;
+        case MARKED:
+            tasks.markTask(event.getIndex());
+            break;
+        case UNMARKED:
+            tasks.unmarkTask(event.getIndex());
+            break;
+        case DEPENDENCY_ADDED:
+            tasks.addDependency(event.getIndex(), event.getOther());
+            break;
+        case DEPENDENCY_REMOVED:
+            tasks.removeDependency(event.getIndex(), event.getOther());
+            break;
+        case PRIORITY_CHANGED:
+            tasks.setPriority(event.getIndex(), event.getPriority());
+            break;
+        case REORDERED:
+            tasks.reorder(event.getPermutation());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown change: " + event.getKind());
+        }
+    }
+
+    private void applyInverse(TaskListEvent event) {
+        switch (event.getKind()) {
+        case ADDED:
+            tasks.deleteTask(event.getIndex());
+            break;
+        case REMOVED:
+            tasks.insertTask(event.getIndex(), event.getTask());
+            break;
+        case MARKED:
+            tasks.unmarkTask(event.getIndex());
+            break;
+        case UNMARKED:
+            tasks.markTask(event.getIndex());
+            break;
+        case DEPENDENCY_ADDED:
+            tasks.removeDependency(event.getIndex(), event.getOther());
+            break;
+        case DEPENDENCY_REMOVED:
+            tasks.addDependency(event.getIndex(), event.getOther());
+            break;
+        case PRIORITY_CHANGED:
+            tasks.setPriority(event.getIndex(), event.getPreviousPriority());
+            break;
+        case REORDERED:
+            tasks.reorder(event.getInversePermutation());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown change: " + event.getKind());
+        }
+    }
+}
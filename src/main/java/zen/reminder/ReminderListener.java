@@ -0,0 +1,16 @@
+package zen.reminder;
+
+import zen.task.Task;
+
+/**
+ * Receives reminders from a ReminderScheduler.
+ * Reminders are delivered on the scheduler's own thread.
+ */
+public interface ReminderListener {
+    /**
+     * Called when a task becomes due: a deadline's "by", an event's "from" or a recurring task's occurrence
+     *
+     * @param task the task that is due
+     */
+    void onReminder(Task task);
+}
@@ -0,0 +1,174 @@
+package zen.reminder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import zen.task.Deadline;
+import zen.task.Event;
+import zen.task.RecurringTask;
+import zen.task.Task;
+import zen.task.TaskListEvent;
+import zen.task.TaskListListener;
+import zen.util.FlexibleDateTime;
+
+/**
+ * Reminds the user when undone tasks become due. Every pending reminder is a node in a
+ * hierarchical timing wheel with one-second ticks, so adding, marking or deleting a task
+ * schedules or cancels its reminder in constant time, and a single daemon thread serves
+ * all reminders, however many there are. Reminders that are already due when a task is
+ * tracked are skipped, so old tasks do not trigger a burst of reminders on startup.
+ * A recurring task is rescheduled for its next occurrence each time it fires.
+ */
+public class ReminderScheduler implements TaskListListener {
+    private static final long TICK_MILLIS = 1000;
+
+    private final ReminderListener listener;
+    private final TimingWheel<Task> wheel;
+    private final Map<Task, TimingWheel.Timeout<Task>> reminders = new IdentityHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Constructs a ReminderScheduler whose clock starts now.
+     * The scheduler must still be registered as a listener on a task list and started.
+     *
+     * @param listener receives the reminders
+     */
+    public ReminderScheduler(ReminderListener listener) {
+        this(listener, LocalDateTime.now());
+    }
+
+    /**
+     * Constructs a ReminderScheduler whose clock starts at the given time
+     */
+    ReminderScheduler(ReminderListener listener, LocalDateTime now) {
+        this.listener = listener;
+        this.wheel = new TimingWheel<>(toTick(now));
+    }
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        for (TaskListEvent event : events) {
+            switch (event.getKind()) {
+            case ADDED:
+            case UNMARKED:
+                track(event.getTask());
+                break;
+            case REMOVED:
+            case MARKED:
+                untrack(event.getTask());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Schedules a reminder for a task if it is undone and has a date that has not passed yet.
+     * Tasks that already have a reminder are left untouched.
+     *
+     * @param task the task to remind about
+     */
+    public synchronized void track(Task task) {
+        if (task.isDone() || reminders.containsKey(task)) {
+            return;
+        }
+        long dueTick = getNextDueTick(task, wheel.getCurrentTick());
+        if (dueTick >= wheel.getCurrentTick()) {
+            reminders.put(task, wheel.schedule(dueTick, task));
+        }
+    }
+
+    /**
+     * Cancels the reminder of a task. Does nothing if it has none.
+     *
+     * @param task the task to stop reminding about
+     */
+    public synchronized void untrack(Task task) {
+        TimingWheel.Timeout<Task> timeout = reminders.remove(task);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Starts the thread that delivers reminders. It is a daemon, so it never keeps the application alive.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "zen-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> advanceTo(LocalDateTime.now()), TICK_MILLIS, TICK_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops delivering reminders
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Fires the reminders due before the given time. The listener is called outside the lock,
+     * so it may add or change tasks.
+     */
+    void advanceTo(LocalDateTime now) {
+        List<Task> dueTasks;
+        synchronized (this) {
+            dueTasks = wheel.advanceTo(toTick(now));
+            for (Task task : dueTasks) {
+                reminders.remove(task);
+                if (task instanceof RecurringTask) {
+                    track(task);
+                }
+            }
+        }
+        for (Task task : dueTasks) {
+            listener.onReminder(task);
+        }
+    }
+
+    /**
+     * Gets the tick at which to remind about a task: the "by" of a deadline, the "from" of an event,
+     * or the first occurrence of a recurring task at or after the given tick
+     *
+     * @return the tick, or -1 if the task has no date
+     */
+    private static long getNextDueTick(Task task, long fromTick) {
+        FlexibleDateTime due = null;
+        if (task instanceof Deadline) {
+            due = ((Deadline) task).getFlexibleBy();
+        } else if (task instanceof Event) {
+            due = ((Event) task).getFlexibleFrom();
+        } else if (task instanceof RecurringTask) {
+            Iterator<FlexibleDateTime> occurrences = ((RecurringTask) task)
+                    .occurrencesFrom(LocalDateTime.ofEpochSecond(fromTick, 0, ZoneOffset.UTC));
+            due = occurrences.next();
+        }
+        return due == null || !due.hasDate() ? -1 : due.toEpochSecond();
+    }
+
+    private static long toTick(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
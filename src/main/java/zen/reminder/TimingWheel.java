@@ -0,0 +1,199 @@
+package zen.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel: a fixed set of wheels of 64 slots each, where every wheel covers
+ * 64 times the span of the one below it. A timeout is placed in the lowest wheel whose span reaches
+ * its expiry, in the slot picked by the expiry's bits for that wheel. Whenever the lowest wheel wraps
+ * around, the next slot of the wheel above is cascaded down, so each timeout moves at most once per wheel.
+ * <p>
+ * Scheduling and cancelling are O(1): slots are intrusive doubly-linked lists and each timeout
+ * remembers its slot. Advancing by one tick is O(1) plus the timeouts that expire or cascade.
+ * The wheel has no notion of wall-clock time and is not thread-safe; callers decide what a tick is
+ * and synchronize access.
+ *
+ * @param <T> the type of value carried by each timeout
+ */
+class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6; // 2^36 ticks: over 2,000 years of one-second ticks
+
+    private final Slot<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs an empty TimingWheel whose clock starts at the given tick
+     *
+     * @param startTick the current tick
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(long startTick) {
+        wheels = new Slot[LEVELS][SLOTS];
+        for (Slot<T>[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot<>();
+            }
+        }
+        currentTick = startTick;
+    }
+
+    /**
+     * Schedules a value to expire at a tick. Ticks that have already passed expire on the next advance.
+     *
+     * @param expiryTick the tick at which the value expires
+     * @param value      the value to hand back when it expires
+     * @return a handle that can be used to cancel the timeout
+     */
+    Timeout<T> schedule(long expiryTick, T value) {
+        Timeout<T> timeout = new Timeout<>(expiryTick, value);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout. Does nothing if it has already expired or been cancelled.
+     *
+     * @param timeout the timeout to cancel
+     */
+    void cancel(Timeout<T> timeout) {
+        if (timeout.slot != null) {
+            timeout.slot.remove(timeout);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the clock forward, tick by tick, up to the given tick
+     *
+     * @param tick the tick to advance to; nothing happens if it is not after the current tick
+     * @return the values that expired, in expiry order
+     */
+    List<T> advanceTo(long tick) {
+        List<T> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            int index = (int) (currentTick & SLOT_MASK);
+            if (index == 0) {
+                cascade(1);
+            }
+            Slot<T> slot = wheels[0][index];
+            currentTick++;
+            while (slot.head != null) {
+                Timeout<T> timeout = slot.head;
+                slot.remove(timeout);
+                size--;
+                expired.add(timeout.value);
+            }
+        }
+        return expired;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Re-places the timeouts of the current slot of a wheel into the wheels below,
+     * cascading the wheel above first if this wheel has wrapped around as well
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        Slot<T> slot = wheels[level][index];
+        Timeout<T> timeout = slot.head;
+        slot.head = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.expiryTick - currentTick;
+        if (delta < 0) {
+            wheels[0][(int) (currentTick & SLOT_MASK)].add(timeout);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        long expiry = Math.min(timeout.expiryTick, currentTick + (1L << (SLOT_BITS * LEVELS)) - 1);
+        wheels[level][(int) ((expiry >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timeout);
+    }
+
+    /**
+     * A scheduled value; also the node of the slot list it sits in
+     *
+     * @param <T> the type of value carried
+     */
+    static final class Timeout<T> {
+        private final long expiryTick;
+        private final T value;
+        private Slot<T> slot;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(long expiryTick, T value) {
+            this.expiryTick = expiryTick;
+            this.value = value;
+        }
+
+        long getExpiryTick() {
+            return expiryTick;
+        }
+
+        T getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * One slot of a wheel: a doubly-linked list of timeouts
+     */
+    private static final class Slot<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
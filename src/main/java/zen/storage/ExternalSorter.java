@@ -0,0 +1,244 @@
+package zen.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntUnaryOperator;
+
+import zen.exception.ZenException;
+import zen.task.Task;
+
+/**
+ * Sorts the data file on disk, holding no more than a run of tasks in memory at once.
+ * The file is read in runs of bounded size; each run is sorted and spilled to a temporary file next to the
+ * data file, and the runs are then merged k ways into a new data file, holding only the next task of each run.
+ * Blockers are saved as line numbers, so a last pass renumbers them to the lines their tasks moved to.
+ * The sort is stable, and lines that cannot be read are dropped, as loading the file skips them too.
+ */
+class ExternalSorter implements Closeable {
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int INTERNER_SPAN = 1024; // Tasks read from a run before its interner is renewed
+    private static final int INITIAL_LINE_CAPACITY = 1024;
+
+    private final Storage storage;
+    private final Comparator<? super Task> order;
+    private final int runSize;
+    private final Path dataPath;
+    private final List<Path> temporaryFiles = new ArrayList<>();
+    private final List<BufferedReader> readers = new ArrayList<>();
+    private int[] indexOfLine = new int[INITIAL_LINE_CAPACITY]; // The task index of each line, -1 if it was skipped
+    private int lineCount;
+    private int taskCount;
+
+    /**
+     * Constructs an ExternalSorter
+     *
+     * @param storage  reads the tasks of the data file and writes them back
+     * @param order    the order to sort in
+     * @param runSize  the most tasks held in memory before a run is spilled
+     * @param dataPath the data file to sort
+     */
+    ExternalSorter(Storage storage, Comparator<? super Task> order, int runSize, Path dataPath) {
+        assert runSize > 0 : "Runs should hold at least one task";
+        this.storage = storage;
+        this.order = order;
+        this.runSize = runSize;
+        this.dataPath = dataPath;
+    }
+
+    /**
+     * Sorts the data file in place
+     *
+     * @return for each new index, the index the task had before the sort
+     * @throws IOException  if a file could not be read or written
+     * @throws ZenException if a spilled task could not be read back
+     */
+    int[] sort() throws IOException, ZenException {
+        List<Path> runs = spillRuns();
+        int[] permutation = new int[taskCount];
+        Path merged = createTemporaryFile();
+        mergeRuns(runs, merged, permutation);
+        renumberBlockers(merged, permutation);
+        return permutation;
+    }
+
+    /**
+     * Closes the runs still open and deletes every temporary file
+     */
+    @Override
+    public void close() throws IOException {
+        for (BufferedReader reader : readers) {
+            reader.close();
+        }
+        for (Path file : temporaryFiles) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Reads the data file a run at a time, spilling each run sorted to its own file.
+     * Each spilled line is prefixed with the index of its task, which breaks ties in the merge.
+     */
+    private List<Path> spillRuns() throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<RunCursor> run = new ArrayList<>();
+        LoadInterner interner = new LoadInterner();
+        try (BufferedReader reader = Files.newBufferedReader(dataPath)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                Task task = parseOrSkip(line, interner);
+                recordLine(task == null ? -1 : taskCount);
+                if (task == null) {
+                    continue;
+                }
+                run.add(new RunCursor(task, taskCount++, line));
+                if (run.size() == runSize) {
+                    runs.add(spill(run));
+                    run.clear();
+                    interner = new LoadInterner();
+                }
+            }
+        }
+        if (!run.isEmpty()) {
+            runs.add(spill(run));
+        }
+        return runs;
+    }
+
+    private Task parseOrSkip(String line, LoadInterner interner) {
+        try {
+            return storage.parseTaskFromLine(line, interner);
+        } catch (Exception e) {
+            return null; // Loading the file skips the line as well, so the list never had its task
+        }
+    }
+
+    private void recordLine(int taskIndex) {
+        if (lineCount == indexOfLine.length) {
+            indexOfLine = Arrays.copyOf(indexOfLine, 2 * lineCount);
+        }
+        indexOfLine[lineCount++] = taskIndex;
+    }
+
+    private Path spill(List<RunCursor> run) throws IOException {
+        run.sort((first, second) -> order.compare(first.task, second.task));
+        Path file = createTemporaryFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (RunCursor head : run) {
+                writer.write(head.index + " " + head.line);
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Merges the sorted runs into one file, recording where each task came from
+     */
+    private void mergeRuns(List<Path> runs, Path merged, int[] permutation) throws IOException, ZenException {
+        PriorityQueue<RunCursor> heads = new PriorityQueue<>((first, second) -> {
+            int comparison = order.compare(first.task, second.task);
+            return comparison != 0 ? comparison : Integer.compare(first.index, second.index);
+        });
+        for (Path run : runs) {
+            BufferedReader reader = Files.newBufferedReader(run);
+            readers.add(reader);
+            RunCursor cursor = new RunCursor(reader);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(merged)) {
+            for (int next = 0; !heads.isEmpty(); next++) {
+                RunCursor cursor = heads.poll();
+                permutation[next] = cursor.index;
+                writer.write(cursor.line);
+                writer.newLine();
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Points the blockers of the merged file at the new lines of their tasks, then moves it over the data file
+     */
+    private void renumberBlockers(Path merged, int[] permutation) throws IOException {
+        int[] newIndexOf = new int[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            newIndexOf[permutation[i]] = i;
+        }
+        IntUnaryOperator lineNumbers = lineNumber -> {
+            int index = lineNumber >= 1 && lineNumber <= lineCount ? indexOfLine[lineNumber - 1] : -1;
+            return index == -1 ? 0 : newIndexOf[index] + 1;
+        };
+        Path sorted = createTemporaryFile();
+        try (BufferedReader reader = Files.newBufferedReader(merged);
+                BufferedWriter writer = Files.newBufferedWriter(sorted)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                writer.write(storage.renumberBlockers(line, lineNumbers));
+                writer.newLine();
+            }
+        }
+        Files.move(sorted, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path createTemporaryFile() throws IOException {
+        Path file = Files.createTempFile(dataPath.getParent(), dataPath.getFileName() + "-sort-", TEMPORARY_SUFFIX);
+        temporaryFiles.add(file);
+        return file;
+    }
+
+    /**
+     * Holds a task with its line and its index before the sort: one task of a run being spilled,
+     * or the next task of a spilled run during the merge
+     */
+    private class RunCursor {
+        private final BufferedReader reader;
+        private LoadInterner interner = new LoadInterner();
+        private int readCount;
+        private Task task;
+        private int index;
+        private String line;
+
+        RunCursor(Task task, int index, String line) {
+            this.reader = null;
+            this.task = task;
+            this.index = index;
+            this.line = line;
+        }
+
+        RunCursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Moves on to the next task of the run
+         *
+         * @return false if the run is exhausted
+         */
+        boolean advance() throws IOException, ZenException {
+            String spilledLine = reader.readLine();
+            if (spilledLine == null) {
+                return false;
+            }
+            if (++readCount % INTERNER_SPAN == 0) {
+                interner = new LoadInterner(); // Shares within a stretch of the run without growing with it
+            }
+            int separator = spilledLine.indexOf(' ');
+            index = Integer.parseInt(spilledLine, 0, separator, 10);
+            line = spilledLine.substring(separator + 1);
+            task = storage.parseTaskFromLine(line, interner);
+            return true;
+        }
+    }
+}
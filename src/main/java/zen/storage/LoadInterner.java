@@ -0,0 +1,99 @@
+package zen.storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import zen.exception.ZenException;
+import zen.util.FlexibleDateTime;
+
+/**
+ * Shares identical descriptions and dates between the tasks read in one load, so a file where
+ * "standup" or "Dec 20 2024, 9:00 AM" appears thousands of times keeps a single instance of each.
+ * Dates can be shared because FlexibleDateTime is immutable. The interner is only meant to live
+ * for the duration of a load; it is safe to use from several threads, as shards are loaded in parallel.
+ * Saved bytes are estimated from the usual object layout of a 64-bit JVM with compressed pointers.
+ */
+final class LoadInterner {
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int DATE_BYTES = 32;
+
+    private final Map<String, String> descriptions = new ConcurrentHashMap<>();
+    private final Map<String, FlexibleDateTime> dates = new ConcurrentHashMap<>();
+    private final AtomicLong sharedCount = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * Returns the shared instance of a description
+     *
+     * @param description the description as read from the file
+     * @return an equal description, shared with earlier tasks of this load
+     */
+    String internDescription(String description) {
+        String shared = descriptions.putIfAbsent(description, description);
+        if (shared == null) {
+            return description;
+        }
+        recordShared(sizeOf(description));
+        return shared;
+    }
+
+    /**
+     * Returns the shared date for a date as written in the file, parsing it only the first time it is seen
+     *
+     * @param text the date as read from the file
+     * @return the shared date, or null if the text is empty
+     * @throws ZenException if the date cannot be created
+     */
+    FlexibleDateTime internDate(String text) throws ZenException {
+        if (text.isEmpty()) {
+            return null;
+        }
+        FlexibleDateTime shared = dates.get(text);
+        if (shared == null) {
+            FlexibleDateTime created = new FlexibleDateTime(text);
+            shared = dates.putIfAbsent(text, created);
+            if (shared == null) {
+                return created;
+            }
+        }
+        recordShared(DATE_BYTES + (shared.hasDate() ? 0 : sizeOf(text)));
+        return shared;
+    }
+
+    /**
+     * Summarizes how much was shared, for display to the user
+     *
+     * @return a human-readable summary
+     */
+    String describe() {
+        return String.format("Last load shared %d repeated descriptions and dates, saving about %.1f KB",
+                sharedCount.get(), bytesSaved.get() / 1024.0);
+    }
+
+    long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    private void recordShared(long bytes) {
+        sharedCount.incrementAndGet();
+        bytesSaved.addAndGet(bytes);
+    }
+
+    /**
+     * Estimates the heap taken by a string: the String object plus its backing array,
+     * which holds one byte per character unless a character needs two
+     */
+    private static long sizeOf(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) value.length() * bytesPerChar;
+        return STRING_BYTES + (arrayBytes + 7) / 8 * 8;
+    }
+}
@@ -0,0 +1,444 @@
+package zen.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import zen.exception.ZenException;
+import zen.task.Task;
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
+
+/**
+ * Stores tasks across several shard files instead of a single data file.
+ * Every task gets a stable key the first time it is saved. The hash of the key decides which shard
+ * holds the task, and the keys themselves restore the original task order when the shards are merged on load.
+ * Shards are read and written in parallel, and saving a change only rewrites the shards holding an affected task.
+ * Each shard line is the normal storage line prefixed with the task key: KEY | TYPE | STATUS | DESCRIPTION ...
+ * Blockers are referred to by their keys, which stay put when other tasks are deleted, so only the shards of
+ * the tasks whose dependencies changed need rewriting.
+ */
+public class ShardedStorage extends Storage {
+    private static final String SHARD_INFIX = ".shard-";
+    private static final String SHARD_EXTENSION = ".txt";
+    private static final String KEY_SEPARATOR = " | ";
+    private static final long KEY_MIXER = 0x9E3779B97F4A7C15L;
+
+    private final int shardCount;
+    private final Path directory;
+    private final String baseName;
+    private final ShardStats[] loadStats;
+    private final ShardStats[] saveStats;
+    // Task does not override equals/hashCode, so this behaves as a weak identity map; keys of deleted tasks
+    // are kept for as long as something (e.g. the undo log) can still put the task back
+    private final Map<Task, Long> keys = new WeakHashMap<>();
+    private long nextKey = 1;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a ShardedStorage that splits the given data file into the given number of shards,
+     * e.g. zen.shard-0.txt to zen.shard-3.txt for zen.txt and 4 shards
+     *
+     * @param dataFile   the name of the unsharded data file
+     * @param shardCount the number of shard files to spread tasks over
+     */
+    public ShardedStorage(String dataFile, int shardCount) {
+        super(dataFile);
+        assert shardCount > 0 : "Shard count should be positive";
+        this.shardCount = shardCount;
+        this.directory = getDataPath().getParent();
+        String fileName = getDataPath().getFileName().toString();
+        this.baseName = fileName.endsWith(SHARD_EXTENSION)
+                ? fileName.substring(0, fileName.length() - SHARD_EXTENSION.length())
+                : fileName;
+        this.loadStats = new ShardStats[shardCount];
+        this.saveStats = new ShardStats[shardCount];
+    }
+
+    /**
+     * Constructs a ShardedStorage over the default data file location
+     *
+     * @param shardCount the number of shard files to spread tasks over
+     */
+    public ShardedStorage(int shardCount) {
+        this(DATA_FILE, shardCount);
+    }
+
+    /**
+     * Loads tasks from all shard files in parallel and merges them back into their original order.
+     * If no shard files exist yet, the unsharded data file is loaded, split into shards and then deleted,
+     * so it cannot be mistaken for the current tasks later.
+     * Shards left over from a larger shard count are folded into the current shards.
+     *
+     * @return ArrayList of tasks loaded from the shards
+     * @throws ZenException if there's an error loading tasks
+     */
+    @Override
+    public ArrayList<Task> load() throws ZenException {
+        TreeMap<Integer, Path> shardFiles = findShardFiles(directory, baseName);
+        if (shardFiles.isEmpty()) {
+            ArrayList<Task> tasks = super.load();
+            if (!tasks.isEmpty()) {
+                save(tasks);
+            }
+            deleteFiles(Collections.singletonList(getDataPath()));
+            return tasks;
+        }
+
+        LoadInterner interner = new LoadInterner();
+        Map<Task, String> references = new ConcurrentHashMap<>();
+        List<Callable<List<KeyedTask>>> jobs = new ArrayList<>();
+        for (Map.Entry<Integer, Path> shardFile : shardFiles.entrySet()) {
+            jobs.add(() -> loadShard(shardFile.getKey(), shardFile.getValue(), interner, references));
+        }
+        List<KeyedTask> keyedTasks = new ArrayList<>();
+        for (List<KeyedTask> shard : runInParallel(jobs, "load")) {
+            keyedTasks.addAll(shard);
+        }
+        keyedTasks.sort(Comparator.comparingLong(keyedTask -> keyedTask.key));
+        recordInterning(interner);
+
+        ArrayList<Task> tasks = new ArrayList<>(keyedTasks.size());
+        for (KeyedTask keyedTask : keyedTasks) {
+            keys.put(keyedTask.task, keyedTask.key);
+            nextKey = Math.max(nextKey, keyedTask.key + 1);
+            tasks.add(keyedTask.task);
+        }
+        if (!references.isEmpty()) {
+            Map<Long, Task> tasksByKey = new TreeMap<>();
+            for (KeyedTask keyedTask : keyedTasks) {
+                tasksByKey.put(keyedTask.key, keyedTask.task);
+            }
+            linkBlockers(references, key -> tasksByKey.get(Long.parseLong(key)));
+        }
+
+        if (shardFiles.keySet().stream().anyMatch(shard -> shard >= shardCount)) {
+            save(tasks);
+            deleteFiles(shardFiles.tailMap(shardCount).values());
+        }
+        return tasks;
+    }
+
+    /**
+     * Loads the tasks of a data file that was split into shards, by a plain Storage that has no shard count
+     * configured. The tasks are folded back into the unsharded data file and the shard files are deleted.
+     *
+     * @param storage the plain storage of the data file
+     * @return the tasks, or null if the data file has no shard files
+     * @throws ZenException if the shards could not be loaded or folded back
+     */
+    static ArrayList<Task> unshard(Storage storage) throws ZenException {
+        Path dataPath = storage.getDataPath();
+        String fileName = dataPath.getFileName().toString();
+        ShardedStorage shards = new ShardedStorage(fileName, 1);
+        TreeMap<Integer, Path> shardFiles = findShardFiles(shards.directory, shards.baseName);
+        if (shardFiles.isEmpty()) {
+            return null;
+        }
+        shards = new ShardedStorage(fileName, shardFiles.lastKey() + 1);
+        ArrayList<Task> tasks = shards.load();
+        storage.save(tasks);
+        deleteFiles(shardFiles.values());
+        return tasks;
+    }
+
+    /**
+     * Rewrites every shard
+     *
+     * @param tasks ArrayList of tasks to save
+     * @throws ZenException if there's an error saving tasks
+     */
+    @Override
+    public void save(ArrayList<Task> tasks) throws ZenException {
+        assignKeys(tasks);
+        boolean[] isDirty = new boolean[shardCount];
+        Arrays.fill(isDirty, true);
+        writeShards(tasks, isDirty);
+    }
+
+    /**
+     * Rewrites only the shards that hold a task affected by the changes.
+     * If the changes broke the key order (e.g. a brand new task was inserted between existing ones),
+     * keys are renumbered and every shard is rewritten.
+     *
+     * @param tasks   the task list after the changes
+     * @param changes the changes made since the shards were last written, in order
+     * @throws ZenException if there's an error saving tasks
+     */
+    @Override
+    public void saveChanges(TaskList tasks, List<TaskListEvent> changes) throws ZenException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        ArrayList<Task> allTasks = tasks.getTasks();
+        boolean isRenumbered = assignKeys(allTasks);
+        boolean[] isDirty = new boolean[shardCount];
+        for (TaskListEvent change : changes) {
+            Long key = keys.get(change.getTask());
+            if (isRenumbered || key == null) {
+                Arrays.fill(isDirty, true);
+                break;
+            }
+            isDirty[shardOf(key)] = true;
+        }
+        writeShards(allTasks, isDirty);
+    }
+
+    /**
+     * Shards hold tasks by key rather than in list order, so there is no single file to sort on disk
+     *
+     * @param order   how to compare tasks
+     * @param runSize the most tasks sorted in memory at once
+     * @return null, so the list is sorted in memory
+     */
+    @Override
+    public int[] sort(Comparator<? super Task> order, int runSize) {
+        return null;
+    }
+
+    @Override
+    public String describe() {
+        StringBuilder description = new StringBuilder("Tasks are sharded across " + shardCount + " files in "
+                + directory + ":");
+        for (int shard = 0; shard < shardCount; shard++) {
+            description.append("\n  ").append(shardPath(shard).getFileName())
+                    .append(" | load: ").append(loadStats[shard] == null ? "-" : loadStats[shard])
+                    .append(" | last save: ").append(saveStats[shard] == null ? "-" : saveStats[shard]);
+        }
+        return description.append(describeInterning()).toString();
+    }
+
+    /**
+     * Makes sure every task has a key and that keys increase along the list
+     *
+     * @return true if the keys had to be renumbered
+     */
+    private boolean assignKeys(List<Task> tasks) {
+        long previousKey = 0;
+        boolean isOrdered = true;
+        for (Task task : tasks) {
+            Long key = keys.get(task);
+            if (key == null) {
+                key = nextKey++;
+                keys.put(task, key);
+            }
+            isOrdered = isOrdered && key > previousKey;
+            previousKey = key;
+        }
+        if (isOrdered) {
+            return false;
+        }
+
+        keys.clear();
+        nextKey = 1;
+        for (Task task : tasks) {
+            keys.put(task, nextKey++);
+        }
+        return true;
+    }
+
+    private String keyOf(Task task) {
+        Long key = keys.get(task);
+        return key == null ? null : key.toString();
+    }
+
+    private int shardOf(long key) {
+        return (int) Math.floorMod(Long.hashCode(key * KEY_MIXER), (long) shardCount);
+    }
+
+    private Path shardPath(int shard) {
+        return directory.resolve(baseName + SHARD_INFIX + shard + SHARD_EXTENSION);
+    }
+
+    /**
+     * Writes the dirty shards in parallel. Tasks are written in key order within each shard.
+     */
+    private void writeShards(List<Task> tasks, boolean[] isDirty) throws ZenException {
+        List<List<String>> shardLines = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardLines.add(isDirty[shard] ? new ArrayList<>() : null);
+        }
+        for (Task task : tasks) {
+            long key = keys.get(task);
+            List<String> lines = shardLines.get(shardOf(key));
+            if (lines != null) {
+                lines.add(key + KEY_SEPARATOR + taskToFileFormat(task, this::keyOf));
+            }
+        }
+
+        List<Callable<Void>> jobs = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (isDirty[shard]) {
+                int shardIndex = shard;
+                jobs.add(() -> {
+                    writeShard(shardIndex, shardLines.get(shardIndex));
+                    return null;
+                });
+            }
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ZenException("Failed to save tasks: " + e.getMessage());
+        }
+        runInParallel(jobs, "save");
+    }
+
+    private void writeShard(int shard, List<String> lines) throws IOException {
+        long start = System.nanoTime();
+        Files.write(shardPath(shard), lines);
+        long bytes = 0;
+        for (String line : lines) {
+            bytes += line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+        }
+        saveStats[shard] = new ShardStats(lines.size(), bytes, System.nanoTime() - start);
+    }
+
+    private List<KeyedTask> loadShard(int shard, Path path, LoadInterner interner, Map<Task, String> references)
+            throws IOException {
+        long start = System.nanoTime();
+        List<String> lines = Files.readAllLines(path);
+        List<KeyedTask> keyedTasks = new ArrayList<>(lines.size());
+        long bytes = 0;
+        for (String line : lines) {
+            bytes += line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+            if (isEmptyLine(line)) {
+                continue;
+            }
+            try {
+                int separatorIndex = line.indexOf(KEY_SEPARATOR);
+                long key = Long.parseLong(line.substring(0, separatorIndex).trim());
+                Task task = parseTaskFromLine(line.substring(separatorIndex + KEY_SEPARATOR.length()), interner,
+                        references);
+                if (task != null) {
+                    keyedTasks.add(new KeyedTask(key, task));
+                }
+            } catch (Exception e) {
+                System.out.println("Warning: Skipping corrupted line: " + line);
+                System.out.println("Error message: " + e.getMessage());
+            }
+        }
+        if (shard < shardCount) {
+            loadStats[shard] = new ShardStats(keyedTasks.size(), bytes, System.nanoTime() - start);
+        }
+        return keyedTasks;
+    }
+
+    /**
+     * Finds the shard files that exist for a data file, by shard number
+     */
+    private static TreeMap<Integer, Path> findShardFiles(Path directory, String baseName) throws ZenException {
+        TreeMap<Integer, Path> shardFiles = new TreeMap<>();
+        try {
+            Files.createDirectories(directory);
+            String prefix = baseName + SHARD_INFIX;
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, prefix + "*" + SHARD_EXTENSION)) {
+                for (Path path : paths) {
+                    String fileName = path.getFileName().toString();
+                    String number = fileName.substring(prefix.length(), fileName.length() - SHARD_EXTENSION.length());
+                    try {
+                        shardFiles.put(Integer.parseInt(number), path);
+                    } catch (NumberFormatException e) {
+                        // Not one of our shard files; leave it alone
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ZenException("Failed to load tasks: " + e.getMessage());
+        }
+        return shardFiles;
+    }
+
+    private static void deleteFiles(Collection<Path> paths) throws ZenException {
+        try {
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new ZenException("Failed to remove old data files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the jobs on the shard thread pool and waits for all of them
+     */
+    private <T> List<T> runInParallel(List<Callable<T>> jobs, String operation) throws ZenException {
+        List<T> results = new ArrayList<>(jobs.size());
+        try {
+            for (Future<T> future : getExecutor().invokeAll(jobs)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZenException("Interrupted while trying to " + operation + " tasks");
+        } catch (ExecutionException e) {
+            throw new ZenException("Failed to " + operation + " tasks: " + e.getCause().getMessage());
+        }
+        return results;
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(shardCount, runnable -> {
+                Thread thread = new Thread(runnable, "zen-storage-shard");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * A task read from a shard together with its key
+     */
+    private static class KeyedTask {
+        private final long key;
+        private final Task task;
+
+        KeyedTask(long key, Task task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Throughput of the last load or save of one shard
+     */
+    private static class ShardStats {
+        private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+        private final int taskCount;
+        private final long bytes;
+        private final long nanos;
+
+        ShardStats(int taskCount, long bytes, long nanos) {
+            this.taskCount = taskCount;
+            this.bytes = bytes;
+            this.nanos = Math.max(nanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / NANOS_PER_SECOND;
+            return String.format("%d tasks, %.1f KB in %.2f ms (%.0f tasks/s, %.1f MB/s)",
+                    taskCount, bytes / 1024.0, seconds * 1000, taskCount / seconds, bytes / seconds / (1024 * 1024));
+        }
+    }
+}
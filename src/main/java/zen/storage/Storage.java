@@ -1,17 +1,34 @@
 package zen.storage;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
 
 import zen.exception.ZenException;
 import zen.task.Deadline;
 import zen.task.Event;
+import zen.task.Recurrence;
+import zen.task.RecurringTask;
 import zen.task.Task;
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
 import zen.task.Todo;
+import zen.util.FlexibleDateTime;
 
 /**
  * Handles the loading and saving of tasks to and from a file.
@@ -19,29 +36,45 @@ import zen.task.Todo;
  */
 public class Storage {
     // File and directory constants
+    static final String DATA_FILE = "zen.txt";
+    // Status field values, shared with TaskTransfer which builds fields in the file format
+    static final String DONE_STATUS = "1";
+    static final String NOT_DONE_STATUS = "0";
     private static final String DATA_DIRECTORY = "data";
-    private static final String DATA_FILE = "zen.txt";
+    private static final String ARCHIVE_SUFFIX = "-archive";
+    private static final String FILE_EXTENSION = ".txt";
 
     // File format constants
     private static final String FIELD_SEPARATOR = " | ";
-    private static final String DONE_STATUS = "1";
-    private static final String NOT_DONE_STATUS = "0";
     private static final String TASK_TYPE_TODO = "T";
     private static final String TASK_TYPE_DEADLINE = "D";
     private static final String TASK_TYPE_EVENT = "E";
+    private static final String TASK_TYPE_RECURRING = "R";
+    private static final String PRIORITY_FIELD = "p:";
+    private static final String BLOCKERS_FIELD = "after:";
+    private static final String BLOCKER_SEPARATOR = ",";
 
     // Minimum field requirements
     private static final int MIN_TASK_FIELDS = 3;
     private static final int MIN_DEADLINE_FIELDS = 4;
     private static final int MIN_EVENT_FIELDS = 5;
+    private static final int MIN_RECURRING_FIELDS = 5;
 
     private final Path dataPath;
+    private final Path archivePath;
+    private ArrayList<Task> archivedTasks; // Loaded lazily on first query
+    private String interningSummary; // How much the last load of the task list shared
 
     /**
-     * Constructs a Storage instance with the given data file location
+     * Constructs a Storage instance with the given data file location.
+     * Archived tasks are kept next to it, e.g. zen-archive.txt for zen.txt.
      */
     public Storage(String dataFile) {
         this.dataPath = Paths.get(DATA_DIRECTORY, dataFile);
+        String baseName = dataFile.endsWith(FILE_EXTENSION)
+                ? dataFile.substring(0, dataFile.length() - FILE_EXTENSION.length())
+                : dataFile;
+        this.archivePath = Paths.get(DATA_DIRECTORY, baseName + ARCHIVE_SUFFIX + FILE_EXTENSION);
     }
 
     /**
@@ -51,38 +84,134 @@ public class Storage {
         this(DATA_FILE);
     }
 
+    Path getDataPath() {
+        return dataPath;
+    }
+
+    /**
+     * Describes where tasks are kept, for display to the user
+     *
+     * @return a human-readable description of the storage layout
+     */
+    public String describe() {
+        return "Tasks are stored in " + dataPath + describeInterning();
+    }
+
+    /**
+     * Remembers how much the given interner shared, to be included in {@link #describe()}
+     */
+    void recordInterning(LoadInterner interner) {
+        interningSummary = interner.describe();
+    }
+
+    /**
+     * Describes how much the last load shared, on its own line
+     *
+     * @return the summary prefixed with a line break, or an empty string if nothing was loaded yet
+     */
+    String describeInterning() {
+        return interningSummary == null ? "" : "\n" + interningSummary;
+    }
+
     /**
      * Loads tasks from the data file.
      * Creates the data directory and file if they don't exist.
+     * If the data file was split into shards by an earlier run, the shards are folded back into it.
      *
      * @return ArrayList of tasks loaded from file
      * @throws ZenException if there's an error loading tasks
      */
     public ArrayList<Task> load() throws ZenException {
+        if (!Files.exists(dataPath)) {
+            ArrayList<Task> unsharded = ShardedStorage.unshard(this);
+            if (unsharded != null) {
+                return unsharded;
+            }
+        }
+        LoadInterner interner = new LoadInterner();
+        ArrayList<Task> tasks = loadFrom(dataPath, interner, true);
+        recordInterning(interner);
+        return tasks;
+    }
+
+    /**
+     * Moves tasks into the archive file. The archive is append-only, so archiving never
+     * rewrites tasks that were archived before.
+     *
+     * @param tasks the tasks to archive
+     * @throws ZenException if there's an error writing the archive
+     */
+    public void archive(List<Task> tasks) throws ZenException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(archivePath.getParent());
+            List<String> lines = new ArrayList<>();
+            for (Task task : tasks) {
+                lines.add(taskToFileFormat(task));
+            }
+            Files.write(archivePath, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new ZenException("Failed to archive tasks: " + e.getMessage());
+        }
+        if (archivedTasks != null) {
+            archivedTasks.addAll(tasks);
+        }
+    }
+
+    /**
+     * Gets the archived tasks. The archive file is only read the first time this is called.
+     *
+     * @return ArrayList of archived tasks, oldest first
+     * @throws ZenException if there's an error loading the archive
+     */
+    public ArrayList<Task> loadArchive() throws ZenException {
+        if (archivedTasks == null) {
+            archivedTasks = loadFrom(archivePath, new LoadInterner(), false);
+        }
+        return new ArrayList<>(archivedTasks);
+    }
+
+    /**
+     * Loads tasks from a file in the storage format, creating the data directory if needed.
+     * Blockers are saved as the line numbers of the tasks they refer to, so they can only be
+     * linked up once the whole file has been read.
+     */
+    private ArrayList<Task> loadFrom(Path path, LoadInterner interner, boolean hasBlockers) throws ZenException {
         ArrayList<Task> tasks = new ArrayList<>();
 
         try {
             // Create data directory if it doesn't exist
-            Files.createDirectories(dataPath.getParent());
+            Files.createDirectories(path.getParent());
 
             // If file doesn't exist, return empty list
-            if (!Files.exists(dataPath)) {
+            if (!Files.exists(path)) {
                 return tasks;
             }
 
             // Read and parse each line
-            List<String> lines = Files.readAllLines(dataPath);
-            for (String line : lines) {
+            List<String> lines = Files.readAllLines(path);
+            Task[] tasksByLine = new Task[hasBlockers ? lines.size() : 0];
+            Map<Task, String> references = hasBlockers ? new HashMap<>() : null;
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
                 try {
-                    Task task = parseTaskFromLine(line);
+                    Task task = parseTaskFromLine(line, interner, references);
                     if (task != null) {
                         tasks.add(task);
                     }
+                    if (hasBlockers) {
+                        tasksByLine[i] = task;
+                    }
                 } catch (Exception e) {
                     System.out.println("Warning: Skipping corrupted line: " + line);
                     System.out.println("Error message: " + e.getMessage());
                 }
             }
+            if (hasBlockers) {
+                linkBlockers(references, lineNumber -> tasksByLine[Integer.parseInt(lineNumber) - 1]);
+            }
 
         } catch (IOException e) {
             throw new ZenException("Failed to load tasks: " + e.getMessage());
@@ -104,8 +233,9 @@ public class Storage {
 
             // Convert tasks to file format and write to file
             List<String> lines = new ArrayList<>();
+            Function<Task, String> references = linesOf(() -> tasks);
             for (Task task : tasks) {
-                lines.add(taskToFileFormat(task));
+                lines.add(taskToFileFormat(task, references));
             }
 
             Files.write(dataPath, lines);
@@ -116,13 +246,196 @@ public class Storage {
     }
 
     /**
-     * Converts a task to the file format string.
-     * Format: TYPE | STATUS | DESCRIPTION [| ADDITIONAL_INFO]
+     * Sorts the data file on disk, holding at most a run of tasks in memory at a time.
+     * The file must hold the current list, i.e. every change must have been saved.
+     * Tasks that compare equal keep their order, and blockers follow their tasks to their new lines.
+     *
+     * @param order   how to compare tasks
+     * @param runSize the most tasks sorted in memory before a sorted run is spilled to a temporary file
+     * @return for each new index, the index the task had before the sort, or null if this storage
+     *         cannot sort on disk
+     * @throws ZenException if the data file could not be read, sorted or written
+     */
+    public int[] sort(Comparator<? super Task> order, int runSize) throws ZenException {
+        try (ExternalSorter sorter = new ExternalSorter(this, order, runSize, dataPath)) {
+            return sorter.sort();
+        } catch (IOException e) {
+            throw new ZenException("Failed to sort tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Persists a set of changes made to the task list since the last save, touching as little of the
+     * data file as possible. Tasks appended to the end of the list are appended to the file and tasks
+     * removed from the end are truncated from it; any other change rewrites the whole file.
+     *
+     * @param tasks   the task list after the changes
+     * @param changes the changes made since the file was last written, in order
+     * @throws ZenException if there's an error saving tasks
+     */
+    public void saveChanges(TaskList tasks, List<TaskListEvent> changes) throws ZenException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            if (Files.exists(dataPath)) {
+                if (isTailAppend(tasks, changes) && appendTasks(tasks, changes)) {
+                    return;
+                }
+                if (isTailRemoval(tasks, changes) && truncateTasks(changes)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Fall back to rewriting the whole file below
+        }
+        save(tasks.getTasks());
+    }
+
+    /**
+     * Checks if the changes only added tasks, one after another, at the end of the list
+     */
+    private boolean isTailAppend(TaskList tasks, List<TaskListEvent> changes) {
+        int firstIndex = tasks.size() - changes.size();
+        for (int i = 0; i < changes.size(); i++) {
+            TaskListEvent change = changes.get(i);
+            if (change.getKind() != TaskListEvent.Kind.ADDED || change.getIndex() != firstIndex + i
+                    || tasks.getTask(firstIndex + i) != change.getTask()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the changes only removed tasks, one after another, from the end of the list
+     */
+    private boolean isTailRemoval(TaskList tasks, List<TaskListEvent> changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            TaskListEvent change = changes.get(i);
+            if (change.getKind() != TaskListEvent.Kind.REMOVED
+                    || change.getIndex() != tasks.size() + changes.size() - 1 - i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the lines of tasks appended to the list to the end of the file.
+     * A file whose last line has no line break, e.g. one edited by hand, is left alone,
+     * as the first new task would otherwise be joined onto that line.
+     *
+     * @return true if the tasks were appended, false if the file does not end in a line break
+     */
+    private boolean appendTasks(TaskList tasks, List<TaskListEvent> changes) throws IOException {
+        if (!endsWithLineBreak()) {
+            return false;
+        }
+        List<String> lines = new ArrayList<>();
+        Function<Task, String> references = linesOf(tasks::getTasks);
+        for (TaskListEvent change : changes) {
+            lines.add(taskToFileFormat(change.getTask(), references));
+        }
+        Files.write(dataPath, lines, StandardOpenOption.APPEND);
+        return true;
+    }
+
+    private boolean endsWithLineBreak() throws IOException {
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            return channel.read(lastByte, channel.size() - 1) == 1 && lastByte.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Cuts the lines of tasks removed from the end of the list off the end of the file.
+     * The tail of the file is compared against the expected lines first, so a file that was
+     * edited by hand is never truncated blindly.
+     *
+     * @return true if the file was truncated, false if its tail did not match
+     */
+    private boolean truncateTasks(List<TaskListEvent> changes) throws IOException {
+        StringBuilder expectedTail = new StringBuilder();
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            expectedTail.append(taskToFileFormat(changes.get(i).getTask())).append(System.lineSeparator());
+        }
+        byte[] expected = expectedTail.toString().getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long newSize = channel.size() - expected.length;
+            if (newSize < 0) {
+                return false;
+            }
+            ByteBuffer actual = ByteBuffer.allocate(expected.length);
+            while (actual.hasRemaining() && channel.read(actual, newSize + actual.position()) > 0) {
+                // Keep reading until the whole tail is in the buffer
+            }
+            if (actual.hasRemaining() || !Arrays.equals(actual.array(), expected)) {
+                return false;
+            }
+            channel.truncate(newSize);
+            return true;
+        }
+    }
+
+    /**
+     * Refers to tasks by their line in a file holding the given tasks, one per line.
+     * The line numbers are only worked out if a task with blockers is actually saved.
+     */
+    private static Function<Task, String> linesOf(Supplier<List<Task>> tasks) {
+        Map<Task, String> lineNumbers = new IdentityHashMap<>();
+        return task -> {
+            if (lineNumbers.isEmpty()) {
+                List<Task> allTasks = tasks.get();
+                for (int i = 0; i < allTasks.size(); i++) {
+                    lineNumbers.put(allTasks.get(i), String.valueOf(i + 1));
+                }
+            }
+            return lineNumbers.get(task);
+        };
+    }
+
+    /**
+     * Converts a task to the file format string, without its blockers
      *
      * @param task Task to convert
      * @return String representation for file
      */
-    private String taskToFileFormat(Task task) {
+    String taskToFileFormat(Task task) {
+        return taskToFileFormat(task, null);
+    }
+
+    /**
+     * Converts a task to the file format string.
+     * Format: TYPE | STATUS | DESCRIPTION [| ADDITIONAL_INFO] [| p:PRIORITY] [| after:BLOCKER,BLOCKER...]
+     *
+     * @param task       Task to convert
+     * @param references how to refer to a blocker in the same file, or null to leave blockers out
+     * @return String representation for file
+     */
+    String taskToFileFormat(Task task, Function<Task, String> references) {
+        String line = formatTask(task);
+        if (task.getPriority() > 0) {
+            line += FIELD_SEPARATOR + PRIORITY_FIELD + task.getPriority();
+        }
+        if (references == null || task.getBlockers().isEmpty()) {
+            return line;
+        }
+        StringBuilder blockers = new StringBuilder();
+        for (Task blocker : task.getBlockers()) {
+            String reference = references.apply(blocker);
+            if (reference != null) {
+                blockers.append(blockers.length() == 0 ? "" : BLOCKER_SEPARATOR).append(reference);
+            }
+        }
+        return blockers.length() == 0 ? line : line + FIELD_SEPARATOR + BLOCKERS_FIELD + blockers;
+    }
+
+    private String formatTask(Task task) {
         String status = task.isDone() ? DONE_STATUS : NOT_DONE_STATUS;
         String type = task.getTaskType().getSymbol();
 
@@ -134,11 +447,38 @@ public class Storage {
         } else if (task instanceof Event) {
             Event event = (Event) task;
             return formatEventTask(type, status, task.getDescription(), event.getFrom(), event.getTo());
+        } else if (task instanceof RecurringTask) {
+            RecurringTask recurringTask = (RecurringTask) task;
+            return formatRecurringTask(type, status, task.getDescription(), recurringTask.getStart(),
+                    recurringTask.getRecurrence().getName());
         }
 
         return formatTodoTask(type, status, task.getDescription());
     }
 
+    /**
+     * Splits a task into the fields of its line in the file format, without its priority or blockers
+     *
+     * @param task the task to split
+     * @return the type symbol, status, description and then the dates or interval of the task type
+     */
+    String[] taskToFields(Task task) {
+        String status = task.isDone() ? DONE_STATUS : NOT_DONE_STATUS;
+        String type = task.getTaskType().getSymbol();
+
+        if (task instanceof Deadline) {
+            return new String[] {type, status, task.getDescription(), ((Deadline) task).getBy()};
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            return new String[] {type, status, task.getDescription(), event.getFrom(), event.getTo()};
+        } else if (task instanceof RecurringTask) {
+            RecurringTask recurringTask = (RecurringTask) task;
+            String every = recurringTask.getRecurrence().getName();
+            return new String[] {type, status, task.getDescription(), recurringTask.getStart(), every};
+        }
+        return new String[] {type, status, task.getDescription()};
+    }
+
     /**
      * Formats a todo task for file storage
      */
@@ -161,14 +501,36 @@ public class Storage {
                 + FIELD_SEPARATOR + from + FIELD_SEPARATOR + to;
     }
 
+    /**
+     * Formats a recurring task for file storage
+     */
+    private String formatRecurringTask(String type, String status, String description, String start, String every) {
+        return type + FIELD_SEPARATOR + status + FIELD_SEPARATOR + description
+                + FIELD_SEPARATOR + start + FIELD_SEPARATOR + every;
+    }
+
     /**
      * Parses a line from the file to create a Task object.
      *
-     * @param line Line from the file
+     * @param line     Line from the file
+     * @param interner shares repeated descriptions and dates with the other tasks of the same load
      * @return Task object or null if parsing fails
      * @throws ZenException if task creation fails
      */
-    private Task parseTaskFromLine(String line) throws ZenException {
+    Task parseTaskFromLine(String line, LoadInterner interner) throws ZenException {
+        return parseTaskFromLine(line, interner, null);
+    }
+
+    /**
+     * Parses a line from the file to create a Task object, collecting the references to its blockers.
+     *
+     * @param line       Line from the file
+     * @param interner   shares repeated descriptions and dates with the other tasks of the same load
+     * @param references receives the unresolved blocker references of the task, or null to ignore them
+     * @return Task object or null if parsing fails
+     * @throws ZenException if task creation fails
+     */
+    Task parseTaskFromLine(String line, LoadInterner interner, Map<Task, String> references) throws ZenException {
         if (isEmptyLine(line)) {
             return null;
         }
@@ -176,26 +538,154 @@ public class Storage {
         String[] parts = line.split(" \\| ");
         validateMinimumFields(parts);
 
+        String type = parts[0].trim();
+
+        // Optional attributes follow the fields of the task type
+        String blockers = null;
+        int priority = 0;
+        while (parts.length > getFieldCount(type)) {
+            String lastPart = parts[parts.length - 1].trim();
+            if (lastPart.startsWith(BLOCKERS_FIELD)) {
+                blockers = lastPart.substring(BLOCKERS_FIELD.length());
+            } else if (lastPart.startsWith(PRIORITY_FIELD)) {
+                priority = Integer.parseInt(lastPart.substring(PRIORITY_FIELD.length()));
+            } else {
+                break;
+            }
+            parts = Arrays.copyOf(parts, parts.length - 1);
+        }
+
+        Task task = createTask(parts, priority, interner);
+
+        if (task != null && blockers != null && references != null) {
+            references.put(task, blockers);
+        }
+
+        return task;
+    }
+
+    /**
+     * Creates a task from the fields of a line in the file format, e.g. those of a record being imported
+     *
+     * @param parts    the fields: type, status, description and the dates or interval of the task type
+     * @param priority the priority of the task, 0 for none
+     * @param interner shares repeated descriptions and dates with the other tasks created with it
+     * @return the task
+     * @throws ZenException if task creation fails
+     */
+    Task createTask(String[] parts, int priority, LoadInterner interner) throws ZenException {
+        validateMinimumFields(parts);
         String type = parts[0].trim();
         boolean isDone = DONE_STATUS.equals(parts[1].trim());
-        String description = parts[2].trim();
+        String description = interner.internDescription(parts[2].trim());
 
-        Task task = createTaskByType(type, description, parts);
+        Task task = createTaskByType(type, description, parts, interner);
 
         if (task != null && isDone) {
             task.markAsDone();
         }
-
+        if (task != null && priority > 0) {
+            task.setPriority(priority);
+        }
         return task;
     }
 
+    /**
+     * Gives each task the blockers its line referred to
+     *
+     * @param references the unresolved blocker references collected while parsing, by task
+     * @param lookup     finds the task a reference refers to
+     */
+    void linkBlockers(Map<Task, String> references, Function<String, Task> lookup) {
+        for (Map.Entry<Task, String> entry : references.entrySet()) {
+            for (String reference : entry.getValue().split(BLOCKER_SEPARATOR)) {
+                Task blocker;
+                try {
+                    blocker = lookup.apply(reference.trim());
+                } catch (RuntimeException e) {
+                    blocker = null;
+                }
+                if (blocker == null) {
+                    System.out.println("Warning: Skipping unknown blocker " + reference + " of: " + entry.getKey());
+                } else {
+                    entry.getKey().addBlocker(blocker);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites the blocker references of a line in the file format, e.g. once its blockers moved to other lines
+     *
+     * @param line        the line
+     * @param lineNumbers gives the new line number for an old one, or 0 if that line is gone
+     * @return the line with its blockers renumbered, leaving out those that are gone
+     */
+    String renumberBlockers(String line, IntUnaryOperator lineNumbers) {
+        if (!line.contains(FIELD_SEPARATOR + BLOCKERS_FIELD)) {
+            return line;
+        }
+        List<String> parts = new ArrayList<>(Arrays.asList(line.split(" \\| ")));
+        int fieldCount = getFieldCount(parts.get(0).trim());
+        for (int i = parts.size() - 1; i >= fieldCount; i--) {
+            String part = parts.get(i).trim();
+            if (!part.startsWith(BLOCKERS_FIELD)) {
+                continue;
+            }
+            StringBuilder blockers = new StringBuilder();
+            for (String reference : part.substring(BLOCKERS_FIELD.length()).split(BLOCKER_SEPARATOR)) {
+                int lineNumber;
+                try {
+                    lineNumber = lineNumbers.applyAsInt(Integer.parseInt(reference.trim()));
+                } catch (NumberFormatException e) {
+                    lineNumber = 0;
+                }
+                if (lineNumber > 0) {
+                    blockers.append(blockers.length() == 0 ? "" : BLOCKER_SEPARATOR).append(lineNumber);
+                }
+            }
+            if (blockers.length() == 0) {
+                parts.remove(i);
+            } else {
+                parts.set(i, BLOCKERS_FIELD + blockers);
+            }
+        }
+        return String.join(FIELD_SEPARATOR, parts);
+    }
+
+    /**
+     * Checks whether a field can be written to the file as it is, i.e. it does not contain
+     * the field separator or a line break that would split its line when the file is read back
+     */
+    static boolean canStore(String field) {
+        return !field.contains(FIELD_SEPARATOR) && field.indexOf('\n') == -1 && field.indexOf('\r') == -1;
+    }
+
     /**
      * Checks if a line is empty or null
      */
-    private boolean isEmptyLine(String line) {
+    boolean isEmptyLine(String line) {
         return line == null || line.trim().isEmpty();
     }
 
+    /**
+     * Gets the number of fields a line of the given type has before any blockers
+     */
+    private int getFieldCount(String type) {
+        switch (type) {
+        case TASK_TYPE_TODO:
+            return MIN_TASK_FIELDS;
+        case TASK_TYPE_DEADLINE:
+            return MIN_DEADLINE_FIELDS;
+        case TASK_TYPE_EVENT:
+            return MIN_EVENT_FIELDS;
+        case TASK_TYPE_RECURRING:
+            return MIN_RECURRING_FIELDS;
+        default:
+            return Integer.MAX_VALUE;
+        }
+    }
+
     /**
      * Validates that the line has the minimum required fields
      */
@@ -208,14 +698,17 @@ public class Storage {
     /**
      * Creates a task based on its type
      */
-    private Task createTaskByType(String type, String description, String[] parts) throws ZenException {
+    private Task createTaskByType(String type, String description, String[] parts, LoadInterner interner)
+            throws ZenException {
         switch (type) {
         case TASK_TYPE_TODO:
             return new Todo(description);
         case TASK_TYPE_DEADLINE:
-            return createDeadlineTask(description, parts);
+            return createDeadlineTask(description, parts, interner);
         case TASK_TYPE_EVENT:
-            return createEventTask(description, parts);
+            return createEventTask(description, parts, interner);
+        case TASK_TYPE_RECURRING:
+            return createRecurringTask(description, parts, interner);
         default:
             throw new IllegalArgumentException("Unknown task type: " + type);
         }
@@ -224,23 +717,36 @@ public class Storage {
     /**
      * Creates a deadline task from parsed parts
      */
-    private Task createDeadlineTask(String description, String[] parts) throws ZenException {
+    private Task createDeadlineTask(String description, String[] parts, LoadInterner interner) throws ZenException {
         if (parts.length < MIN_DEADLINE_FIELDS) {
             throw new IllegalArgumentException("Deadline missing date");
         }
-        String by = parts[3].trim();
+        FlexibleDateTime by = interner.internDate(parts[3].trim());
         return new Deadline(description, by);
     }
 
     /**
      * Creates an event task from parsed parts
      */
-    private Task createEventTask(String description, String[] parts) throws ZenException {
+    private Task createEventTask(String description, String[] parts, LoadInterner interner) throws ZenException {
         if (parts.length < MIN_EVENT_FIELDS) {
             throw new IllegalArgumentException("Event missing time information");
         }
-        String from = parts[3].trim();
-        String to = parts[4].trim();
+        FlexibleDateTime from = interner.internDate(parts[3].trim());
+        FlexibleDateTime to = interner.internDate(parts[4].trim());
         return new Event(description, from, to);
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a recurring task from parsed parts
+     */
+    private Task createRecurringTask(String description, String[] parts, LoadInterner interner)
+            throws ZenException {
+        if (parts.length < MIN_RECURRING_FIELDS) {
+            throw new IllegalArgumentException("Recurring task missing start or interval");
+        }
+        FlexibleDateTime start = interner.internDate(parts[3].trim());
+        Recurrence recurrence = Recurrence.fromName(parts[4]);
+        return new RecurringTask(description, start, recurrence);
+    }
+}
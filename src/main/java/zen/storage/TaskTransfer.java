@@ -0,0 +1,688 @@
+package zen.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import zen.exception.ZenException;
+import zen.task.Task;
+import zen.task.TaskType;
+
+/**
+ * Imports tasks from and exports them to CSV and JSON Lines files, one task per record.
+ * Records are streamed through a fixed-size buffer and handed on in chunks of a fixed number of tasks,
+ * so a file is never held in memory as a whole and one of any size is read with the same footprint.
+ * Records are turned into tasks through the same code that reads the data file.
+ * <p>
+ * Each record has the fields type (todo, deadline, event or recurring), done, priority, description,
+ * by, from, to and every, as CSV columns named in a header line or as the keys of a JSON object.
+ * Dependencies between tasks are not transferred.
+ */
+public class TaskTransfer {
+    private static final String ERROR_FILE_TYPE = "📄 I can import and export .csv and .jsonl files, not %s.";
+    private static final String ERROR_READ = "📥 I couldn't read %s.";
+    private static final String ERROR_READ_PARTWAY = "📥 I couldn't read all of %s. "
+            + "The %d tasks before the problem were kept.";
+    private static final String ERROR_CSV_HEADER = "📥 The first line of %s should name the columns, "
+            + "e.g. type,done,description,by";
+    private static final String ERROR_WRITE = "📤 I couldn't write %s.";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 1024;
+
+    private final Storage storage;
+
+    /**
+     * Constructs a TaskTransfer that creates and reads tasks the way the given storage does
+     *
+     * @param storage the storage whose file format records are mapped to
+     */
+    public TaskTransfer(Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Streams the tasks in a CSV or JSON Lines file to a sink. Records that cannot be turned into a task
+     * are skipped and counted. If the file cannot be read halfway, the chunks already handed on stay with the sink.
+     *
+     * @param file the path of the file, ending in .csv or .jsonl
+     * @param sink receives the tasks, in chunks
+     * @return how many tasks were imported and how fast
+     * @throws ZenException if the file cannot be read or the sink fails
+     */
+    public Report importTasks(String file, TaskSink sink) throws ZenException {
+        Path path = toPath(file);
+        boolean isCsv = isCsv(path, file);
+        long startTime = System.nanoTime();
+        Report report = new Report();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            RecordReader records = isCsv ? new CsvReader(reader, file) : new JsonLinesReader(reader);
+            List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+            LoadInterner interner = new LoadInterner(); // Renewed per chunk, so it never grows with the file
+            for (String record = records.read(); record != null; record = records.read()) {
+                try {
+                    chunk.add(toTask(records.parse(record), interner));
+                } catch (ZenException | RuntimeException e) {
+                    report.recordSkipped(records.getLineNumber());
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    sink.accept(chunk);
+                    report.taskCount += chunk.size();
+                    chunk.clear();
+                    interner = new LoadInterner();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                sink.accept(chunk);
+                report.taskCount += chunk.size();
+            }
+            report.bytes = Files.size(path);
+        } catch (IOException | UncheckedIOException e) {
+            throw new ZenException(report.taskCount == 0
+                    ? String.format(ERROR_READ, file)
+                    : String.format(ERROR_READ_PARTWAY, file, report.taskCount));
+        }
+        report.nanos = Math.max(System.nanoTime() - startTime, 1);
+        return report;
+    }
+
+    /**
+     * Streams tasks to a CSV or JSON Lines file, replacing the file if it exists
+     *
+     * @param tasks the tasks to export, in order
+     * @param file  the path of the file, ending in .csv or .jsonl
+     * @return how many tasks were exported and how fast
+     * @throws ZenException if the file cannot be written
+     */
+    public Report exportTasks(List<Task> tasks, String file) throws ZenException {
+        Path path = toPath(file);
+        boolean isCsv = isCsv(path, file);
+        long startTime = System.nanoTime();
+        Report report = new Report();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                if (isCsv) {
+                    writeCsvHeader(writer);
+                }
+                String[] values = new String[Field.COUNT];
+                for (Task task : tasks) {
+                    toValues(task, values);
+                    if (isCsv) {
+                        writeCsvRecord(writer, values);
+                    } else {
+                        writeJsonRecord(writer, values);
+                    }
+                    report.taskCount++;
+                }
+            }
+            report.bytes = Files.size(path);
+        } catch (IOException e) {
+            throw new ZenException(String.format(ERROR_WRITE, file));
+        }
+        report.nanos = Math.max(System.nanoTime() - startTime, 1);
+        return report;
+    }
+
+    private static Path toPath(String file) throws ZenException {
+        try {
+            return Paths.get(file);
+        } catch (InvalidPathException e) {
+            throw new ZenException(String.format(ERROR_FILE_TYPE, file));
+        }
+    }
+
+    /**
+     * Tells the format of a file from its extension
+     *
+     * @return true for CSV, false for JSON Lines
+     * @throws ZenException if the extension is neither
+     */
+    private static boolean isCsv(Path path, String file) throws ZenException {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return true;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return false;
+        }
+        throw new ZenException(String.format(ERROR_FILE_TYPE, file));
+    }
+
+    /**
+     * Creates a task from the values of a record, by building the fields of its line in the data file
+     *
+     * @param values the value of each field, or null where the record has none
+     */
+    private Task toTask(String[] values, LoadInterner interner) throws ZenException {
+        TaskType type = TaskType.valueOf(require(values, Field.TYPE).toUpperCase(Locale.ROOT));
+        String status = isTrue(values[Field.DONE]) ? Storage.DONE_STATUS : Storage.NOT_DONE_STATUS;
+        String description = require(values, Field.DESCRIPTION);
+        String[] parts;
+        switch (type) {
+        case DEADLINE:
+            parts = new String[] {type.getSymbol(), status, description, require(values, Field.BY)};
+            break;
+        case EVENT:
+            String to = require(values, Field.TO);
+            parts = new String[] {type.getSymbol(), status, description, require(values, Field.FROM), to};
+            break;
+        case RECURRING:
+            String every = require(values, Field.EVERY);
+            parts = new String[] {type.getSymbol(), status, description, require(values, Field.FROM), every};
+            break;
+        default:
+            parts = new String[] {type.getSymbol(), status, description};
+            break;
+        }
+        String priority = values[Field.PRIORITY];
+        int level = priority == null || priority.isEmpty() ? 0 : Integer.parseInt(priority);
+        if (level < 0) {
+            throw new IllegalArgumentException("Negative priority: " + level);
+        }
+        return storage.createTask(parts, level, interner);
+    }
+
+    /**
+     * Gets a field the task type cannot do without
+     *
+     * @throws IllegalArgumentException if the field is missing, empty or would break the data file
+     */
+    private static String require(String[] values, int field) {
+        String value = values[field] == null ? "" : values[field].trim();
+        if (value.isEmpty() || !Storage.canStore(value)) {
+            throw new IllegalArgumentException("Missing or unstorable " + Field.NAMES[field]);
+        }
+        return value;
+    }
+
+    private static boolean isTrue(String value) {
+        return value != null && (value.equalsIgnoreCase("true") || value.equals(Storage.DONE_STATUS));
+    }
+
+    /**
+     * Fills in the values of the record for a task, in the same layout that import reads
+     */
+    private void toValues(Task task, String[] values) {
+        String[] parts = storage.taskToFields(task);
+        Arrays.fill(values, null);
+        values[Field.TYPE] = task.getTaskType().name().toLowerCase(Locale.ROOT);
+        values[Field.DONE] = String.valueOf(Storage.DONE_STATUS.equals(parts[1]));
+        values[Field.PRIORITY] = task.getPriority() > 0 ? String.valueOf(task.getPriority()) : null;
+        values[Field.DESCRIPTION] = parts[2];
+        switch (task.getTaskType()) {
+        case DEADLINE:
+            values[Field.BY] = parts[3];
+            break;
+        case EVENT:
+            values[Field.FROM] = parts[3];
+            values[Field.TO] = parts[4];
+            break;
+        case RECURRING:
+            values[Field.FROM] = parts[3];
+            values[Field.EVERY] = parts[4];
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static void writeCsvHeader(Writer writer) throws IOException {
+        writer.write(String.join(",", Field.NAMES));
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a CSV record, quoting the values that contain a comma, quote, line break or surrounding space
+     */
+    private static void writeCsvRecord(Writer writer, String[] values) throws IOException {
+        for (int field = 0; field < values.length; field++) {
+            if (field > 0) {
+                writer.write(',');
+            }
+            String value = values[field];
+            if (value == null) {
+                continue;
+            }
+            if (needsQuotes(value)) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return !value.isEmpty() && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ');
+    }
+
+    /**
+     * Writes a JSON Lines record, leaving out the fields the task does not have
+     */
+    private static void writeJsonRecord(Writer writer, String[] values) throws IOException {
+        writer.write('{');
+        boolean isFirst = true;
+        for (int field = 0; field < values.length; field++) {
+            if (values[field] == null) {
+                continue;
+            }
+            writer.write(isFirst ? "\"" : ",\"");
+            writer.write(Field.NAMES[field]);
+            writer.write("\":");
+            if (field == Field.DONE || field == Field.PRIORITY) {
+                writer.write(values[field]); // Written as a JSON boolean or number
+            } else {
+                writeJsonString(writer, values[field]);
+            }
+            isFirst = false;
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c == '\n') {
+                writer.write("\\n");
+            } else if (c == '\r') {
+                writer.write("\\r");
+            } else if (c == '\t') {
+                writer.write("\\t");
+            } else if (c < ' ') {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * The fields of a record, by their position in a values array
+     */
+    private static final class Field {
+        static final String[] NAMES = {"type", "done", "priority", "description", "by", "from", "to", "every"};
+        static final int TYPE = 0;
+        static final int DONE = 1;
+        static final int PRIORITY = 2;
+        static final int DESCRIPTION = 3;
+        static final int BY = 4;
+        static final int FROM = 5;
+        static final int TO = 6;
+        static final int EVERY = 7;
+        static final int COUNT = NAMES.length;
+
+        private Field() {
+        }
+
+        /**
+         * Finds a field by name
+         *
+         * @return the position of the field, or -1 if no field has that name
+         */
+        static int indexOf(String name) {
+            for (int field = 0; field < COUNT; field++) {
+                if (NAMES[field].equals(name)) {
+                    return field;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the records of a file one at a time
+     */
+    private abstract static class RecordReader {
+        protected final BufferedReader reader;
+        protected int lineNumber;
+
+        RecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the next record, skipping blank lines
+         *
+         * @return the text of the record, or null at the end of the file
+         */
+        String read() throws IOException {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Splits a record into the values of its fields
+         *
+         * @return the value of each field, or null where the record has none
+         * @throws IllegalArgumentException if the record is malformed
+         */
+        abstract String[] parse(String record);
+
+        /**
+         * Gets the line the last record read ended on
+         */
+        int getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * Reads CSV records, with the columns named in the first line. Quoted values may contain commas,
+     * doubled quotes and line breaks; columns with other names are ignored.
+     */
+    private static class CsvReader extends RecordReader {
+        private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+        private final int[] fieldsByColumn;
+
+        CsvReader(BufferedReader reader, String file) throws IOException, ZenException {
+            super(reader);
+            String header = read();
+            List<String> columns = header == null ? new ArrayList<>() : split(header);
+            fieldsByColumn = new int[columns.size()];
+            boolean hasType = false;
+            for (int column = 0; column < columns.size(); column++) {
+                fieldsByColumn[column] = Field.indexOf(columns.get(column).trim().toLowerCase(Locale.ROOT));
+                hasType |= fieldsByColumn[column] == Field.TYPE;
+            }
+            if (!hasType) {
+                throw new ZenException(String.format(ERROR_CSV_HEADER, file));
+            }
+        }
+
+        /**
+         * Reads the next record, joining lines while a quoted value is still open.
+         * A record longer than MAX_RECORD_LENGTH is not joined any further; its remaining lines are read past
+         * and the record, whose quote is then still open, is left for parse to reject as one skipped record.
+         */
+        @Override
+        String read() throws IOException {
+            String line = super.read();
+            if (line == null || !isQuoteOpenAfter(line, false)) {
+                return line;
+            }
+            StringBuilder record = new StringBuilder(line);
+            boolean isQuoted = true;
+            boolean isTooLong = false;
+            while (isQuoted) {
+                line = reader.readLine();
+                if (line == null) {
+                    break; // Left for parse to reject
+                }
+                lineNumber++;
+                isQuoted = isQuoteOpenAfter(line, isQuoted);
+                isTooLong |= record.length() + line.length() >= MAX_RECORD_LENGTH;
+                if (!isTooLong) {
+                    record.append('\n').append(line);
+                }
+            }
+            return record.toString();
+        }
+
+        @Override
+        String[] parse(String record) {
+            List<String> columns = split(record);
+            String[] values = new String[Field.COUNT];
+            for (int column = 0; column < columns.size() && column < fieldsByColumn.length; column++) {
+                if (fieldsByColumn[column] != -1) {
+                    values[fieldsByColumn[column]] = columns.get(column);
+                }
+            }
+            return values;
+        }
+
+        private static boolean isQuoteOpenAfter(String line, boolean isQuoted) {
+            boolean isOpen = isQuoted;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    isOpen = !isOpen;
+                }
+            }
+            return isOpen;
+        }
+
+        private static List<String> split(String record) {
+            List<String> columns = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean isQuoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (isQuoted && c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = !isQuoted;
+                } else if (c == ',' && !isQuoted) {
+                    columns.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (isQuoted) {
+                throw new IllegalArgumentException("Unclosed quote");
+            }
+            columns.add(value.toString());
+            return columns;
+        }
+    }
+
+    /**
+     * Reads JSON Lines records: one flat JSON object per line, whose values are strings, numbers,
+     * booleans or null. Keys that are not fields are ignored.
+     */
+    private static class JsonLinesReader extends RecordReader {
+        private String record;
+        private int position;
+
+        JsonLinesReader(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        String[] parse(String text) {
+            record = text;
+            position = 0;
+            String[] values = new String[Field.COUNT];
+            expect('{');
+            if (peek() == '}') {
+                position++;
+            } else {
+                do {
+                    String key = readString();
+                    expect(':');
+                    String value = readValue();
+                    int field = Field.indexOf(key);
+                    if (field != -1) {
+                        values[field] = value;
+                    }
+                } while (skip(','));
+                expect('}');
+            }
+            if (peek() != -1) {
+                throw new IllegalArgumentException("Text after the object");
+            }
+            return values;
+        }
+
+        /**
+         * Reads a string, number, boolean or null
+         *
+         * @return the value as text, or null for a JSON null
+         */
+        private String readValue() {
+            if (peek() == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < record.length() && record.charAt(position) != ','
+                    && record.charAt(position) != '}' && record.charAt(position) > ' ') {
+                position++;
+            }
+            String literal = record.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+                throw new IllegalArgumentException("Unsupported value at " + start);
+            }
+            return literal;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < record.length()) {
+                char c = record.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = record.charAt(position++);
+                switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    value.append((char) Integer.parseInt(record.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped); // \" \\ and \/
+                    break;
+                }
+            }
+            throw new IllegalArgumentException("Unclosed string");
+        }
+
+        /**
+         * Gets the next character after any whitespace, without consuming it
+         *
+         * @return the character, or -1 at the end of the record
+         */
+        private int peek() {
+            while (position < record.length() && record.charAt(position) <= ' ') {
+                position++;
+            }
+            return position < record.length() ? record.charAt(position) : -1;
+        }
+
+        private boolean skip(char c) {
+            if (peek() == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!skip(c)) {
+                throw new IllegalArgumentException("Expected " + c + " at " + position);
+            }
+        }
+    }
+
+    /**
+     * Receives imported tasks, one chunk at a time
+     */
+    @FunctionalInterface
+    public interface TaskSink {
+
+        /**
+         * Takes a chunk of imported tasks
+         *
+         * @param tasks the tasks, in file order; the list is reused for the next chunk, so it must not be kept
+         * @throws ZenException if the tasks could not be taken, which stops the import
+         */
+        void accept(List<Task> tasks) throws ZenException;
+    }
+
+    /**
+     * How many tasks an import or export moved, and how fast
+     */
+    public static class Report {
+        private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+        private int taskCount;
+        private int skippedCount;
+        private int firstSkippedLine;
+        private long bytes;
+        private long nanos;
+
+        public int getTaskCount() {
+            return taskCount;
+        }
+
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        public int getFirstSkippedLine() {
+            return firstSkippedLine;
+        }
+
+        private void recordSkipped(int lineNumber) {
+            if (skippedCount == 0) {
+                firstSkippedLine = lineNumber;
+            }
+            skippedCount++;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / NANOS_PER_SECOND;
+            return String.format("%d tasks, %.1f KB in %.2f ms (%.0f tasks/s, %.1f MB/s)",
+                    taskCount, bytes / 1024.0, seconds * 1000, taskCount / seconds, bytes / seconds / (1024 * 1024));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package zen.task;
+
+import zen.util.FlexibleDateTime;
+
+/**
+ * One line of an agenda: a task and the time it falls on within the period asked about.
+ * For a recurring task this is one of its occurrences; for a deadline or event it is its due time.
+ */
+public class AgendaEntry {
+    private final FlexibleDateTime time;
+    private final Task task;
+
+    /**
+     * Constructs an AgendaEntry.
+     *
+     * @param time when the task falls in the agenda
+     * @param task the task
+     */
+    public AgendaEntry(FlexibleDateTime time, Task task) {
+        this.time = time;
+        this.task = task;
+    }
+
+    public FlexibleDateTime getTime() {
+        return time;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return time + ": " + task;
+    }
+}
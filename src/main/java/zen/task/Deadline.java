@@ -26,6 +26,21 @@ public class Deadline extends Task {
         this.by = new FlexibleDateTime(by.trim());
     }
 
+    /**
+     * Constructs a new Deadline task with an already parsed due date, which may be shared with other tasks
+     *
+     * @param description the description of the deadline task
+     * @param by          the due date/time for the task
+     * @throws ZenException if the description is empty or the by date is null
+     */
+    public Deadline(String description, FlexibleDateTime by) throws ZenException {
+        super(description, TaskType.DEADLINE);
+        if (by == null) {
+            throw new ZenException("The deadline date cannot be empty.");
+        }
+        this.by = by;
+    }
+
     public FlexibleDateTime getFlexibleBy() {
         return by;
     }
@@ -35,7 +50,7 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        return super.toString() + " (by: " + by.toString() + ")";
+    protected String getDetails() {
+        return " (by: " + by.toString() + ")";
     }
 } 
\ No newline at end of file
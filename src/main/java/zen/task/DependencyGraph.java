@@ -0,0 +1,205 @@
+package zen.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the "waits for" dependencies between tasks in a topological order that is maintained incrementally
+ * (Pearce and Kelly's dynamic topological sort). Every task with a dependency has a position, and a blocker
+ * always has a lower position than the tasks waiting for it. Adding a dependency that already agrees with
+ * the order costs nothing; otherwise only the tasks whose positions lie between the two ends are searched
+ * and shuffled, and reaching the blocker from the waiting task during that search means the new dependency
+ * would close a cycle. Removing a dependency never invalidates the order.
+ * <p>
+ * The blockers themselves are kept on each Task, so they are saved with it; this class adds the reverse
+ * direction and the positions. Tasks without any dependency are not tracked at all.
+ */
+public class DependencyGraph {
+    private final Map<Task, Integer> positions = new IdentityHashMap<>();
+    private final Map<Task, List<Task>> dependents = new IdentityHashMap<>();
+    private int nextPosition;
+
+    /**
+     * Starts tracking the blockers a task already has, e.g. after it was loaded.
+     * Blockers that would close a cycle are dropped from the task.
+     *
+     * @param task the task to track
+     */
+    public void track(Task task) {
+        for (Task blocker : new ArrayList<>(task.getBlockers())) {
+            task.removeBlocker(blocker);
+            link(blocker, task);
+        }
+    }
+
+    /**
+     * Makes a task wait for another one, unless that would make some task wait for itself.
+     * Linking two tasks that are already linked changes nothing.
+     *
+     * @param blocker   the task that must be done first
+     * @param dependent the task that waits
+     * @return false if the dependency would close a cycle, in which case nothing is changed
+     */
+    public boolean link(Task blocker, Task dependent) {
+        if (blocker == dependent) {
+            return false;
+        }
+        if (dependent.getBlockers().contains(blocker)) {
+            return true;
+        }
+        int upperBound = positionOf(blocker);
+        int lowerBound = positionOf(dependent);
+        if (lowerBound < upperBound) {
+            List<Task> forward = new ArrayList<>();
+            if (!collectDependents(dependent, blocker, upperBound, forward)) {
+                forgetIfUnlinked(blocker);
+                forgetIfUnlinked(dependent);
+                return false;
+            }
+            reorder(collectBlockers(blocker, lowerBound), forward);
+        }
+        dependents.computeIfAbsent(blocker, key -> new ArrayList<>(1)).add(dependent);
+        dependent.addBlocker(blocker);
+        return true;
+    }
+
+    /**
+     * Stops a task from waiting for another one
+     *
+     * @param blocker   the task that had to be done first
+     * @param dependent the task that waited
+     * @return false if the task was not waiting for the blocker
+     */
+    public boolean unlink(Task blocker, Task dependent) {
+        if (!dependent.removeBlocker(blocker)) {
+            return false;
+        }
+        List<Task> waiting = dependents.get(blocker);
+        waiting.remove(dependent);
+        if (waiting.isEmpty()) {
+            dependents.remove(blocker);
+        }
+        forgetIfUnlinked(blocker);
+        forgetIfUnlinked(dependent);
+        return true;
+    }
+
+    /**
+     * Gets the tasks waiting for a task
+     *
+     * @param blocker the task to look up
+     * @return an unmodifiable view of the waiting tasks
+     */
+    public List<Task> getDependents(Task blocker) {
+        List<Task> waiting = dependents.get(blocker);
+        return waiting == null ? Collections.emptyList() : Collections.unmodifiableList(waiting);
+    }
+
+    /**
+     * Checks whether a task waits for, or is waited for by, any other task
+     *
+     * @param task the task to look up
+     * @return true if the task has a dependency in either direction
+     */
+    public boolean isLinked(Task task) {
+        return positions.containsKey(task);
+    }
+
+    /**
+     * Gets the position of a linked task in the topological order
+     *
+     * @return the position; blockers always have lower positions than the tasks waiting for them
+     */
+    int getPosition(Task task) {
+        return positions.get(task);
+    }
+
+    private int positionOf(Task task) {
+        Integer position = positions.get(task);
+        if (position == null) {
+            position = nextPosition++;
+            positions.put(task, position);
+        }
+        return position;
+    }
+
+    private void forgetIfUnlinked(Task task) {
+        if (task.getBlockers().isEmpty() && !dependents.containsKey(task)) {
+            positions.remove(task);
+        }
+    }
+
+    /**
+     * Collects the tasks reachable from start through "waited for by" links, positioned before the upper bound
+     *
+     * @return false if the target was reached, i.e. the target (transitively) waits for start
+     */
+    private boolean collectDependents(Task start, Task target, int upperBound, List<Task> found) {
+        Set<Task> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Task> pending = new ArrayDeque<>();
+        seen.add(start);
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Task task = pending.pop();
+            found.add(task);
+            for (Task next : getDependents(task)) {
+                if (next == target) {
+                    return false;
+                }
+                if (positions.get(next) < upperBound && seen.add(next)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the tasks start (transitively) waits for that are positioned after the lower bound
+     */
+    private List<Task> collectBlockers(Task start, int lowerBound) {
+        List<Task> found = new ArrayList<>();
+        Set<Task> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Task> pending = new ArrayDeque<>();
+        seen.add(start);
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Task task = pending.pop();
+            found.add(task);
+            for (Task previous : task.getBlockers()) {
+                if (positions.get(previous) > lowerBound && seen.add(previous)) {
+                    pending.push(previous);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reuses the positions of both groups, giving the lowest to the blockers and the rest to the dependents,
+     * while keeping the relative order within each group
+     */
+    private void reorder(List<Task> blockers, List<Task> waiting) {
+        Comparator<Task> byPosition = Comparator.comparingInt(positions::get);
+        blockers.sort(byPosition);
+        waiting.sort(byPosition);
+        List<Task> affected = new ArrayList<>(blockers);
+        affected.addAll(waiting);
+        int[] freed = new int[affected.size()];
+        for (int i = 0; i < freed.length; i++) {
+            freed[i] = positions.get(affected.get(i));
+        }
+        Arrays.sort(freed);
+        for (int i = 0; i < freed.length; i++) {
+            positions.put(affected.get(i), freed[i]);
+        }
+    }
+}
@@ -32,6 +32,26 @@ public class Event extends Task {
         this.to = new FlexibleDateTime(to.trim());
     }
 
+    /**
+     * Constructs a new Event task with already parsed times, which may be shared with other tasks
+     *
+     * @param description the description of the event task
+     * @param from        the start date/time of the event
+     * @param to          the end date/time of the event
+     * @throws ZenException if the description is empty or either time is null
+     */
+    public Event(String description, FlexibleDateTime from, FlexibleDateTime to) throws ZenException {
+        super(description, TaskType.EVENT);
+        if (from == null) {
+            throw new ZenException("The event start time cannot be empty.");
+        }
+        if (to == null) {
+            throw new ZenException("The event end time cannot be empty.");
+        }
+        this.from = from;
+        this.to = to;
+    }
+
     public String getFrom() {
         return from.toString();
     }
@@ -50,7 +70,7 @@ public class Event extends Task {
 
 
     @Override
-    public String toString() {
-        return super.toString() + " (from: " + from.toString() + " to: " + to.toString() + ")";
+    protected String getDetails() {
+        return " (from: " + from.toString() + " to: " + to.toString() + ")";
     }
 } 
\ No newline at end of file
@@ -0,0 +1,156 @@
+package zen.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import zen.util.FlexibleDateTime;
+
+/**
+ * Keeps the events of a task list ordered by start time, so the busy periods around a given
+ * time can be read without scanning the whole task list. The index is maintained incrementally
+ * as events are added and deleted; done events still count as busy.
+ * <p>
+ * An event's end is its "to" if that is a date. A time on its own, as in "/from 2024-12-20 2pm /to 4pm",
+ * is taken on the start's day. Any other end is unknown, and the event is assumed to last until the end
+ * of the day it starts, so a free slot never clashes with it. Events whose start is free text are ignored.
+ */
+public class EventIndex implements TaskListListener {
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.start)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final TreeSet<Entry> ordered = new TreeSet<>(ENTRY_ORDER);
+    private final Map<Task, Entry> entries = new IdentityHashMap<>();
+    // How many tracked events last each duration, so the longest one is known as events come and go
+    private final TreeMap<Long, Integer> durationCounts = new TreeMap<>();
+    private long nextSequence;
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        for (TaskListEvent event : events) {
+            if (event.getKind() == TaskListEvent.Kind.ADDED) {
+                track(event.getTask());
+            } else if (event.getKind() == TaskListEvent.Kind.REMOVED) {
+                untrack(event.getTask());
+            }
+        }
+    }
+
+    /**
+     * Starts tracking a task if it is an event with a parseable start.
+     * Tasks that are already tracked are left untouched.
+     *
+     * @param task the task to track
+     */
+    public void track(Task task) {
+        if (!(task instanceof Event) || entries.containsKey(task)) {
+            return;
+        }
+        Event event = (Event) task;
+        FlexibleDateTime from = event.getFlexibleFrom();
+        if (!from.hasDate()) {
+            return;
+        }
+        long start = from.toEpochSecond();
+        long end = Math.max(start, getEndSecond(from, event.getFlexibleTo()));
+        Entry entry = new Entry(start, end, nextSequence++);
+        entries.put(task, entry);
+        ordered.add(entry);
+        durationCounts.merge(end - start, 1, Integer::sum);
+    }
+
+    /**
+     * Stops tracking a task. Does nothing if the task is not tracked.
+     *
+     * @param task the task to stop tracking
+     */
+    public void untrack(Task task) {
+        Entry entry = entries.remove(task);
+        if (entry != null) {
+            ordered.remove(entry);
+            durationCounts.computeIfPresent(entry.end - entry.start,
+                    (duration, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    public int size() {
+        return ordered.size();
+    }
+
+    /**
+     * Finds the gaps between events within a period that are at least a given length.
+     * Overlapping and touching events are merged into a single busy period first.
+     *
+     * @param minSeconds the shortest gap to report, in seconds
+     * @param from       the start of the period, inclusive
+     * @param to         the end of the period, exclusive
+     * @return the free slots, earliest first
+     */
+    public List<FreeSlot> findFreeSlots(long minSeconds, LocalDateTime from, LocalDateTime to) {
+        long periodStart = from.toEpochSecond(ZoneOffset.UTC);
+        long periodEnd = to.toEpochSecond(ZoneOffset.UTC);
+        List<FreeSlot> slots = new ArrayList<>();
+
+        // Events that started up to the longest duration earlier may still be running at the start
+        long longestDuration = durationCounts.isEmpty() ? 0 : durationCounts.lastKey();
+        Entry lowest = new Entry(periodStart - longestDuration, 0, Long.MIN_VALUE);
+        Entry highest = new Entry(periodEnd, 0, Long.MIN_VALUE);
+        long freeFrom = periodStart;
+        for (Entry entry : ordered.subSet(lowest, true, highest, false)) {
+            if (entry.start - freeFrom >= minSeconds && entry.start > freeFrom) {
+                slots.add(toSlot(freeFrom, entry.start));
+            }
+            freeFrom = Math.max(freeFrom, entry.end);
+        }
+        if (periodEnd - freeFrom >= minSeconds && periodEnd > freeFrom) {
+            slots.add(toSlot(freeFrom, periodEnd));
+        }
+        return slots;
+    }
+
+    private static FreeSlot toSlot(long start, long end) {
+        return new FreeSlot(FlexibleDateTime.of(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC)),
+                FlexibleDateTime.of(LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC)));
+    }
+
+    /**
+     * Works out when an event ends, in epoch seconds, as described in the class comment
+     */
+    private static long getEndSecond(FlexibleDateTime from, FlexibleDateTime to) {
+        if (to.hasDate()) {
+            return to.getType() == FlexibleDateTime.DateTimeType.DATE_ONLY
+                    ? to.toEpochSecond() + SECONDS_PER_DAY
+                    : to.toEpochSecond();
+        }
+        LocalDate day = from.toLocalDateTime().toLocalDate();
+        LocalTime time = FlexibleDateTime.parseTimeOfDay(to.toString());
+        return time != null
+                ? day.atTime(time).toEpochSecond(ZoneOffset.UTC)
+                : day.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * A tracked event: its busy period, in epoch seconds, and a tie-breaker for events that start together
+     */
+    private static class Entry {
+        private final long start;
+        private final long end;
+        private final long sequence;
+
+        Entry(long start, long end, long sequence) {
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package zen.task;
+
+import zen.util.FlexibleDateTime;
+
+/**
+ * A period with no events in it
+ */
+public class FreeSlot {
+    private final FlexibleDateTime start;
+    private final FlexibleDateTime end;
+
+    /**
+     * Constructs a FreeSlot.
+     *
+     * @param start when the free period starts
+     * @param end   when the free period ends
+     */
+    public FreeSlot(FlexibleDateTime start, FlexibleDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public FlexibleDateTime getStart() {
+        return start;
+    }
+
+    public FlexibleDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return start + " to " + end;
+    }
+}
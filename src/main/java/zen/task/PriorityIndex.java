@@ -0,0 +1,190 @@
+package zen.task;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the undone tasks that have a priority in a binary heap, most urgent first.
+ * Each entry remembers where it sits in the heap, so a task can be re-prioritized (moved up or down)
+ * or dropped when it is marked done or deleted in O(log n), without searching for it.
+ * Reading the top k tasks walks the heap from the root with a small frontier queue instead of
+ * popping the heap itself, which takes O(k log k) and leaves the heap untouched.
+ * Tasks with the same priority are ordered by when they were first tracked.
+ */
+public class PriorityIndex implements TaskListListener {
+    private final List<Entry> heap = new ArrayList<>();
+    private final Map<Task, Entry> entries = new IdentityHashMap<>();
+    private long nextSequence;
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        for (TaskListEvent event : events) {
+            switch (event.getKind()) {
+            case ADDED:
+            case UNMARKED:
+                track(event.getTask());
+                break;
+            case REMOVED:
+            case MARKED:
+                untrack(event.getTask());
+                break;
+            case PRIORITY_CHANGED:
+                update(event.getTask());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Starts tracking a task if it is undone and has a priority.
+     * Tasks that are already tracked are left untouched.
+     *
+     * @param task the task to track
+     */
+    public void track(Task task) {
+        assert task != null : "Task to be tracked should not be null";
+        if (task.isDone() || task.getPriority() <= 0 || entries.containsKey(task)) {
+            return;
+        }
+        Entry entry = new Entry(task, task.getPriority(), nextSequence++);
+        entries.put(task, entry);
+        entry.position = heap.size();
+        heap.add(entry);
+        siftUp(entry.position);
+    }
+
+    /**
+     * Stops tracking a task. Does nothing if the task is not tracked.
+     *
+     * @param task the task to stop tracking
+     */
+    public void untrack(Task task) {
+        Entry entry = entries.remove(task);
+        if (entry == null) {
+            return;
+        }
+        Entry last = heap.remove(heap.size() - 1);
+        if (last != entry) {
+            place(last, entry.position);
+            siftDown(last.position);
+            siftUp(last.position);
+        }
+    }
+
+    /**
+     * Moves a task to where its current priority belongs, starting or stopping tracking it as needed
+     *
+     * @param task the task whose priority changed
+     */
+    public void update(Task task) {
+        Entry entry = entries.get(task);
+        if (entry == null) {
+            track(task);
+            return;
+        }
+        if (task.getPriority() <= 0) {
+            untrack(task);
+            return;
+        }
+        int previousPriority = entry.priority;
+        entry.priority = task.getPriority();
+        if (entry.priority < previousPriority) {
+            siftUp(entry.position);
+        } else {
+            siftDown(entry.position);
+        }
+    }
+
+    /**
+     * Returns up to k tracked tasks, most urgent first
+     *
+     * @param k the maximum number of tasks to return
+     * @return ArrayList of the most urgent tasks
+     */
+    public ArrayList<Task> top(int k) {
+        ArrayList<Task> result = new ArrayList<>(Math.min(Math.max(k, 0), heap.size()));
+        if (heap.isEmpty()) {
+            return result;
+        }
+        PriorityQueue<Entry> frontier = new PriorityQueue<>();
+        frontier.add(heap.get(0));
+        while (result.size() < k && !frontier.isEmpty()) {
+            Entry entry = frontier.poll();
+            result.add(entry.task);
+            int child = 2 * entry.position + 1;
+            if (child < heap.size()) {
+                frontier.add(heap.get(child));
+            }
+            if (child + 1 < heap.size()) {
+                frontier.add(heap.get(child + 1));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    private void siftUp(int position) {
+        Entry entry = heap.get(position);
+        while (position > 0) {
+            Entry parent = heap.get((position - 1) / 2);
+            if (parent.compareTo(entry) <= 0) {
+                break;
+            }
+            place(parent, position);
+            position = (position - 1) / 2;
+        }
+        place(entry, position);
+    }
+
+    private void siftDown(int position) {
+        Entry entry = heap.get(position);
+        int size = heap.size();
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && heap.get(child + 1).compareTo(heap.get(child)) < 0) {
+                child++;
+            }
+            if (entry.compareTo(heap.get(child)) <= 0) {
+                break;
+            }
+            place(heap.get(child), position);
+            position = child;
+        }
+        place(entry, position);
+    }
+
+    private void place(Entry entry, int position) {
+        heap.set(position, entry);
+        entry.position = position;
+    }
+
+    /**
+     * A tracked task together with its ordering key and its position in the heap
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final Task task;
+        private final long sequence;
+        private int priority;
+        private int position;
+
+        Entry(Task task, int priority, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package zen.task;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the set of ready tasks, i.e. the undone tasks that do not wait for any undone task, in step with
+ * the changes to the list, so listing them does not walk every task and its blockers again.
+ * A change only rechecks the tasks it can affect: the task itself and, when a task is marked or unmarked,
+ * the tasks waiting for it. Tasks are rechecked against the current list, so a batch of changes can be
+ * applied in one go after the list has moved on.
+ */
+public class ReadyTasks implements TaskListListener {
+    private final DependencyGraph dependencies;
+    private final Set<Task> readyTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Constructs a ReadyTasks that finds the tasks waiting for a task in the given graph
+     *
+     * @param dependencies the dependencies between the tasks of the list
+     */
+    public ReadyTasks(DependencyGraph dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        for (TaskListEvent event : events) {
+            switch (event.getKind()) {
+            case ADDED:
+            case DEPENDENCY_ADDED:
+            case DEPENDENCY_REMOVED:
+                track(event.getTask());
+                break;
+            case MARKED:
+            case UNMARKED:
+                track(event.getTask());
+                for (Task dependent : dependencies.getDependents(event.getTask())) {
+                    track(dependent);
+                }
+                break;
+            case REMOVED:
+                readyTasks.remove(event.getTask());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Adds a task to the ready set if it is ready, and drops it otherwise
+     *
+     * @param task the task to check
+     */
+    public void track(Task task) {
+        if (!task.isDone() && !task.isBlocked()) {
+            readyTasks.add(task);
+        } else {
+            readyTasks.remove(task);
+        }
+    }
+
+    /**
+     * Gets the ready tasks
+     *
+     * @return an unmodifiable view of the ready tasks, in no particular order
+     */
+    public Set<Task> getTasks() {
+        return Collections.unmodifiableSet(readyTasks);
+    }
+}
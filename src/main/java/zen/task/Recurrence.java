@@ -0,0 +1,48 @@
+package zen.task;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enumeration representing how often a recurring task repeats.
+ * The name used in commands and in the data file is the lower-case unit, e.g. "week".
+ */
+public enum Recurrence {
+    DAY(ChronoUnit.DAYS),
+    WEEK(ChronoUnit.WEEKS),
+    MONTH(ChronoUnit.MONTHS),
+    YEAR(ChronoUnit.YEARS);
+
+    private final ChronoUnit unit;
+
+    /**
+     * Constructs a Recurrence that repeats every one of the given unit.
+     *
+     * @param unit the length of one period
+     */
+    Recurrence(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Finds the recurrence with the given name
+     *
+     * @param name the name, e.g. "week", in any case
+     * @return the matching recurrence, or null if there is none
+     */
+    public static Recurrence fromName(String name) {
+        for (Recurrence recurrence : values()) {
+            if (recurrence.getName().equalsIgnoreCase(name.trim())) {
+                return recurrence;
+            }
+        }
+        return null;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+}
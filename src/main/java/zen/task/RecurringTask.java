@@ -0,0 +1,108 @@
+package zen.task;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+import zen.exception.ZenException;
+import zen.util.FlexibleDateTime;
+
+/**
+ * Represents a task that repeats at a fixed interval from a start date, e.g. a standup every week.
+ * Only the series itself is stored; occurrences are generated lazily, on request,
+ * for the period that is being looked at.
+ */
+public class RecurringTask extends Task {
+
+    protected FlexibleDateTime start;
+    protected Recurrence recurrence;
+
+    /**
+     * Constructs a new RecurringTask with the specified description, first occurrence and interval.
+     *
+     * @param description the description of the recurring task
+     * @param start       the date/time of the first occurrence, which must be a date Zen understands
+     * @param every       the interval, e.g. "week"
+     * @throws ZenException if the description is empty, the start is not a date or the interval is unknown
+     */
+    public RecurringTask(String description, String start, String every) throws ZenException {
+        this(description, start == null || start.trim().isEmpty() ? null : new FlexibleDateTime(start.trim()),
+                every == null ? null : Recurrence.fromName(every));
+    }
+
+    /**
+     * Constructs a new RecurringTask with an already parsed first occurrence, which may be shared with other tasks
+     *
+     * @param description the description of the recurring task
+     * @param start       the date/time of the first occurrence
+     * @param recurrence  the interval
+     * @throws ZenException if the description is empty, the start is not a date or the interval is missing
+     */
+    public RecurringTask(String description, FlexibleDateTime start, Recurrence recurrence) throws ZenException {
+        super(description, TaskType.RECURRING);
+        if (start == null || !start.hasDate()) {
+            throw new ZenException("A recurring task needs a start date, e.g. 2024-12-16 9am.");
+        }
+        if (recurrence == null) {
+            throw new ZenException("A recurring task repeats every day, week, month or year.");
+        }
+        this.start = start;
+        this.recurrence = recurrence;
+    }
+
+    public FlexibleDateTime getFlexibleStart() {
+        return start;
+    }
+
+    public String getStart() {
+        return start.toString();
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Returns the occurrences of this task at or after the given time, in order.
+     * The iterator never ends by itself, so callers must stop once they are past the period they need.
+     *
+     * @param from the earliest time of interest
+     * @return a lazy iterator over the occurrences
+     */
+    public Iterator<FlexibleDateTime> occurrencesFrom(LocalDateTime from) {
+        LocalDateTime first = start.toLocalDateTime();
+        boolean hasTime = start.getType() == FlexibleDateTime.DateTimeType.DATE_TIME;
+        long firstIndex = Math.max(0, recurrence.getUnit().between(first, from));
+        while (occurrence(first, firstIndex).isBefore(from)) {
+            firstIndex++;
+        }
+        long startIndex = firstIndex;
+
+        return new Iterator<FlexibleDateTime>() {
+            private long index = startIndex;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public FlexibleDateTime next() {
+                LocalDateTime time = occurrence(first, index++);
+                return hasTime ? FlexibleDateTime.of(time) : FlexibleDateTime.of(time.toLocalDate());
+            }
+        };
+    }
+
+    /**
+     * Computes the n-th occurrence from the first one, rather than from the previous occurrence,
+     * so a series starting on the 31st keeps returning to the 31st after shorter months
+     */
+    private LocalDateTime occurrence(LocalDateTime first, long index) {
+        return first.plus(index, recurrence.getUnit());
+    }
+
+    @Override
+    protected String getDetails() {
+        return " (every " + recurrence.getName() + " from: " + start.toString() + ")";
+    }
+}
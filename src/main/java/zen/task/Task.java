@@ -1,5 +1,9 @@
 package zen.task;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import zen.exception.ZenException;
 
 /**
@@ -11,6 +15,11 @@ public abstract class Task {
     protected String description;
     protected boolean isDone;
     protected TaskType taskType;
+    protected int priority; // 1 is the most urgent; 0 if the task has no priority
+    // Display text built on first use; only the done marker changes afterwards
+    private String display;
+    // Tasks that must be done before this one can start; null until the first is added
+    private List<Task> blockers;
 
     /**
      * Constructs a new Task with the specified description and type.
@@ -39,10 +48,12 @@ public abstract class Task {
 
     public void markAsDone() {
         this.isDone = true;
+        patchStatusIcon();
     }
 
     public void markAsNotDone() {
         this.isDone = false;
+        patchStatusIcon();
     }
 
     public String getDescription() {
@@ -57,8 +68,111 @@ public abstract class Task {
         return this.taskType;
     }
 
+    public int getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * Sets the priority of this task.
+     * This does not notify anyone; use TaskList.setPriority for tasks that are already listed.
+     *
+     * @param priority the new priority, 1 being the most urgent, or 0 for none
+     */
+    public void setPriority(int priority) {
+        assert priority >= 0 : "Priority should not be negative";
+        this.priority = priority;
+        this.display = null;
+    }
+
+    /**
+     * Gets the tasks this task waits for
+     *
+     * @return an unmodifiable view of the blockers, in the order they were added
+     */
+    public List<Task> getBlockers() {
+        return blockers == null ? Collections.emptyList() : Collections.unmodifiableList(blockers);
+    }
+
+    /**
+     * Records that this task waits for another one.
+     * This does not check for cycles; use TaskList.addDependency for dependencies between listed tasks.
+     *
+     * @param blocker the task that must be done first
+     */
+    public void addBlocker(Task blocker) {
+        if (blockers == null) {
+            blockers = new ArrayList<>(1);
+        }
+        if (!blockers.contains(blocker)) {
+            blockers.add(blocker);
+        }
+    }
+
+    /**
+     * Stops this task from waiting for another one
+     *
+     * @param blocker the task to stop waiting for
+     * @return true if this task was waiting for it
+     */
+    public boolean removeBlocker(Task blocker) {
+        if (blockers == null || !blockers.remove(blocker)) {
+            return false;
+        }
+        if (blockers.isEmpty()) {
+            blockers = null;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether this task still waits for a task that is not done
+     *
+     * @return true if any blocker is not done yet
+     */
+    public boolean isBlocked() {
+        if (blockers != null) {
+            for (Task blocker : blockers) {
+                if (!blocker.isDone()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the type-specific text shown after the description, e.g. the deadline of a Deadline.
+     * Subclasses must only return values that cannot change after construction, as the result is cached.
+     *
+     * @return the text to append to the description, or an empty string if there is none
+     */
+    protected String getDetails() {
+        return "";
+    }
+
+    /**
+     * Returns the display text of this task. The text is built once and cached, since the description and
+     * details never change; marking or unmarking the task only swaps the done marker in the cached text,
+     * and only a change of priority rebuilds it.
+     */
     @Override
     public String toString() {
-        return taskType + "[" + getStatusIcon() + "] " + description;
+        if (display == null) {
+            display = taskType + "[" + getStatusIcon() + "] " + description + getDetails()
+                    + (priority > 0 ? " (p" + priority + ")" : "");
+        }
+        return display;
+    }
+
+    /**
+     * Replaces the done marker in the cached display text, if there is one
+     */
+    private void patchStatusIcon() {
+        if (display == null) {
+            return;
+        }
+        char[] chars = display.toCharArray();
+        chars[taskType.toString().length() + 1] = getStatusIcon().charAt(0);
+        display = new String(chars);
     }
 } 
\ No newline at end of file
@@ -1,18 +1,47 @@
 package zen.task;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import zen.util.FlexibleDateTime;
 
 /**
- * Represents a list of tasks and provides operations to manage them
+ * Represents a list of tasks and provides operations to manage them.
+ * Every change is published to the registered listeners as a TaskListEvent.
+ * Every change also moves the list to a new version, so a view of the list can be reused while it is current.
  */
 public class TaskList {
     private ArrayList<Task> tasks;
+    private final UpcomingTasks upcomingTasks = new UpcomingTasks();
+    private final EventIndex eventIndex = new EventIndex();
+    private final PriorityIndex priorityIndex = new PriorityIndex();
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private final ReadyTasks readyTasks = new ReadyTasks(dependencies);
+    private final List<TaskListListener> listeners = new ArrayList<>();
+    private Map<Task, Integer> indexes; // The index of each task, built when needed and dropped when tasks move
+    private List<TaskListEvent> pendingEvents;
+    private int batchDepth;
+    private long version;
 
     /**
      * Creates an empty task list
      */
     public TaskList() {
         this.tasks = new ArrayList<>();
+        listeners.add(upcomingTasks);
+        listeners.add(eventIndex);
+        listeners.add(priorityIndex);
+        listeners.add(readyTasks);
     }
 
     /**
@@ -24,6 +53,83 @@ public class TaskList {
         assert tasks != null : "Tasks list should not be null";
         this.tasks = new ArrayList<>(tasks);
         assert this.tasks != null : "Internal tasks list should be properly initialized";
+        for (Task task : this.tasks) {
+            upcomingTasks.track(task);
+            eventIndex.track(task);
+            priorityIndex.track(task);
+            dependencies.track(task);
+        }
+        for (Task task : this.tasks) {
+            readyTasks.track(task); // Only once every blocker is tracked, as tracking drops those closing a cycle
+        }
+        listeners.add(upcomingTasks);
+        listeners.add(eventIndex);
+        listeners.add(priorityIndex);
+        listeners.add(readyTasks);
+    }
+
+    /**
+     * Registers a listener to be told about every subsequent change to the list
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(TaskListListener listener) {
+        assert listener != null : "Listener should not be null";
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously registered listener
+     *
+     * @param listener the listener to unregister
+     */
+    public void removeListener(TaskListListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a batch. Until the matching endBatch call, changes are collected instead of published,
+     * and listeners then receive them all in one notification. Batches may be nested;
+     * only the outermost endBatch publishes.
+     */
+    public void beginBatch() {
+        if (batchDepth == 0) {
+            pendingEvents = new ArrayList<>();
+        }
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch started with beginBatch, publishing the collected changes if this is the outermost batch
+     */
+    public void endBatch() {
+        assert batchDepth > 0 : "endBatch should only be called after beginBatch";
+        batchDepth--;
+        if (batchDepth > 0) {
+            return;
+        }
+        List<TaskListEvent> events = pendingEvents;
+        pendingEvents = null;
+        if (!events.isEmpty()) {
+            notifyListeners(Collections.unmodifiableList(events));
+        }
+    }
+
+    /**
+     * Adds several tasks to the end of the list as one batch
+     *
+     * @param newTasks the tasks to add, in order
+     */
+    public void addTasks(List<? extends Task> newTasks) {
+        assert newTasks != null : "Tasks to be added should not be null";
+        beginBatch();
+        try {
+            for (Task task : newTasks) {
+                addTask(task);
+            }
+        } finally {
+            endBatch();
+        }
     }
 
     /**
@@ -36,7 +142,28 @@ public class TaskList {
         assert tasks != null : "Tasks list should be initialized before adding tasks";
         int sizeBefore = tasks.size();
         tasks.add(task);
+        if (indexes != null) {
+            indexes.put(task, sizeBefore);
+        }
         assert tasks.size() == sizeBefore + 1 : "Task list size should increase by 1 after adding a task";
+        publish(new TaskListEvent(TaskListEvent.Kind.ADDED, sizeBefore, task));
+    }
+
+    /**
+     * Inserts a task at the given position, shifting later tasks down by one
+     *
+     * @param index the position to insert at (0-based, may equal the size of the list)
+     * @param task  the task to insert
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public void insertTask(int index, Task task) {
+        assert task != null : "Task to be inserted should not be null";
+        if (index < 0 || index > tasks.size()) {
+            throw new IndexOutOfBoundsException("Task index is out of range!");
+        }
+        tasks.add(index, task);
+        indexes = null;
+        publish(new TaskListEvent(TaskListEvent.Kind.ADDED, index, task));
     }
 
     /**
@@ -52,14 +179,61 @@ public class TaskList {
             throw new IndexOutOfBoundsException("Task index is out of range!");
         }
         int sizeBefore = tasks.size();
-        Task removedTask = tasks.remove(index);
-        assert removedTask != null : "Removed task should not be null for valid index";
-        assert tasks.size() == sizeBefore - 1 : "Task list size should decrease by 1 after removing a task";
-        return removedTask;
+        beginBatch();
+        try {
+            // Dependencies are dropped first, so undoing the batch puts the task back before relinking it
+            unlinkAll(tasks.get(index), index);
+            Task removedTask = tasks.remove(index);
+            indexes = null;
+            assert removedTask != null : "Removed task should not be null for valid index";
+            assert tasks.size() == sizeBefore - 1 : "Task list size should decrease by 1 after removing a task";
+            publish(new TaskListEvent(TaskListEvent.Kind.REMOVED, index, removedTask));
+            return removedTask;
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * Removes done tasks from the list in a single pass, publishing the removals as one batch.
+     * If a cutoff is given, only deadlines and events whose date (the "by" of a deadline,
+     * the "to" of an event) falls before the cutoff are removed; tasks without a date are kept.
+     *
+     * @param endedBefore the cutoff date, or null to remove every done task
+     * @return the removed tasks, in list order
+     */
+    public ArrayList<Task> removeDoneTasks(LocalDate endedBefore) {
+        ArrayList<Task> removedTasks = new ArrayList<>();
+        ArrayList<Task> keptTasks = new ArrayList<>(tasks.size());
+        beginBatch();
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                if (task.isDone() && hasEndedBefore(task, endedBefore)) {
+                    unlinkAll(task, i);
+                }
+            }
+            for (Task task : tasks) {
+                if (task.isDone() && hasEndedBefore(task, endedBefore)) {
+                    // Earlier removals have already shifted this task towards the front
+                    int indexAtRemoval = keptTasks.size();
+                    removedTasks.add(task);
+                    publish(new TaskListEvent(TaskListEvent.Kind.REMOVED, indexAtRemoval, task));
+                } else {
+                    keptTasks.add(task);
+                }
+            }
+            tasks = keptTasks;
+            indexes = null;
+        } finally {
+            endBatch();
+        }
+        return removedTasks;
     }
 
     /**
-     * Marks a task as done
+     * Marks a task as done.
+     * A change event is only published if the task was not already done.
      *
      * @param index the index of the task to mark (0-based)
      * @return the marked task
@@ -72,13 +246,18 @@ public class TaskList {
         }
         Task task = tasks.get(index);
         assert task != null : "Task at valid index should not be null";
+        boolean wasDone = task.isDone();
         task.markAsDone();
         assert task.isDone() : "Task should be marked as done after calling markAsDone()";
+        if (!wasDone) {
+            publish(new TaskListEvent(TaskListEvent.Kind.MARKED, index, task));
+        }
         return task;
     }
 
     /**
-     * Marks a task as not done
+     * Marks a task as not done.
+     * A change event is only published if the task was done.
      *
      * @param index the index of the task to unmark (0-based)
      * @return the unmarked task
@@ -91,11 +270,135 @@ public class TaskList {
         }
         Task task = tasks.get(index);
         assert task != null : "Task at valid index should not be null";
+        boolean wasDone = task.isDone();
         task.markAsNotDone();
         assert !task.isDone() : "Task should be marked as not done after calling markAsNotDone()";
+        if (wasDone) {
+            publish(new TaskListEvent(TaskListEvent.Kind.UNMARKED, index, task));
+        }
         return task;
     }
 
+    /**
+     * Changes the priority of a task.
+     * A change event is only published if the priority actually changed.
+     *
+     * @param index    the index of the task (0-based)
+     * @param priority the new priority, 1 being the most urgent, or 0 for none
+     * @return the task
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public Task setPriority(int index, int priority) {
+        if (index < 0 || index >= tasks.size()) {
+            throw new IndexOutOfBoundsException("Task index is out of range!");
+        }
+        Task task = tasks.get(index);
+        int previousPriority = task.getPriority();
+        if (previousPriority != priority) {
+            task.setPriority(priority);
+            publish(new TaskListEvent(index, task, previousPriority));
+        }
+        return task;
+    }
+
+    /**
+     * Sorts the list, keeping the current order of tasks that compare equal.
+     * The sort is published as a single reordering, so it is saved and undone as one change.
+     *
+     * @param order how to compare tasks
+     * @return false if the list was already in order, in which case nothing is published
+     */
+    public boolean sortTasks(Comparator<? super Task> order) {
+        Integer[] positions = new Integer[tasks.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, (first, second) -> order.compare(tasks.get(first), tasks.get(second)));
+        int[] permutation = new int[positions.length];
+        boolean isMoved = false;
+        for (int i = 0; i < positions.length; i++) {
+            permutation[i] = positions[i];
+            isMoved |= permutation[i] != i;
+        }
+        if (isMoved) {
+            reorder(permutation);
+        }
+        return isMoved;
+    }
+
+    /**
+     * Moves every task to a new position
+     *
+     * @param permutation for each new index, the current index of the task to put there
+     */
+    public void reorder(int[] permutation) {
+        assert permutation.length == tasks.size() : "A reordering should place every task";
+        ArrayList<Task> reorderedTasks = new ArrayList<>(tasks.size());
+        for (int index : permutation) {
+            reorderedTasks.add(tasks.get(index));
+        }
+        tasks = reorderedTasks;
+        indexes = null;
+        publish(new TaskListEvent(permutation));
+    }
+
+    /**
+     * Makes a task wait for another one. Nothing is published if it already did.
+     *
+     * @param index   the index of the task that waits (0-based)
+     * @param blocker the task that must be done first
+     * @return false if the dependency would make a task (transitively) wait for itself, in which case
+     *         nothing is changed
+     */
+    public boolean addDependency(int index, Task blocker) {
+        Task dependent = getTask(index);
+        assert tasks.contains(blocker) : "The blocker should be in the list";
+        if (dependent.getBlockers().contains(blocker)) {
+            return true;
+        }
+        if (!dependencies.link(blocker, dependent)) {
+            return false;
+        }
+        publish(new TaskListEvent(TaskListEvent.Kind.DEPENDENCY_ADDED, index, dependent, blocker));
+        return true;
+    }
+
+    /**
+     * Stops a task from waiting for another one
+     *
+     * @param index   the index of the task that waits (0-based)
+     * @param blocker the task it waits for
+     * @return false if the task was not waiting for the blocker
+     */
+    public boolean removeDependency(int index, Task blocker) {
+        Task dependent = getTask(index);
+        if (!dependencies.unlink(blocker, dependent)) {
+            return false;
+        }
+        publish(new TaskListEvent(TaskListEvent.Kind.DEPENDENCY_REMOVED, index, dependent, blocker));
+        return true;
+    }
+
+    /**
+     * Gets the undone tasks that do not wait for any undone task.
+     * The ready set is kept up to date as the list changes, so only the ready tasks are visited.
+     *
+     * @return ArrayList of the ready tasks, in list order
+     */
+    public ArrayList<Task> getReadyTasks() {
+        int[] readyIndexes = new int[readyTasks.getTasks().size()];
+        int count = 0;
+        for (Task task : readyTasks.getTasks()) {
+            readyIndexes[count++] = indexOf(task);
+        }
+        Arrays.sort(readyIndexes);
+        ArrayList<Task> result = new ArrayList<>(readyIndexes.length);
+        for (int index : readyIndexes) {
+            result.add(tasks.get(index));
+        }
+        return result;
+    }
+
     /**
      * Gets the task at the specified index
      *
@@ -128,6 +431,15 @@ public class TaskList {
         return tasks.isEmpty();
     }
 
+    /**
+     * Gets the version of the list, which goes up with every change and never repeats
+     *
+     * @return the number of changes made since the list was created
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Gets the underlying ArrayList of tasks
      *
@@ -137,6 +449,82 @@ public class TaskList {
         return new ArrayList<>(tasks);
     }
 
+    /**
+     * Gets the undone deadlines and events that are due soonest
+     *
+     * @param k the maximum number of tasks to return
+     * @return ArrayList of up to k tasks, earliest due first
+     */
+    public ArrayList<Task> getUpcomingTasks(int k) {
+        return upcomingTasks.next(k);
+    }
+
+    /**
+     * Gets the undone tasks with the most urgent priorities
+     *
+     * @param k the maximum number of tasks to return
+     * @return ArrayList of up to k tasks, most urgent first
+     */
+    public ArrayList<Task> getTopTasks(int k) {
+        return priorityIndex.top(k);
+    }
+
+    /**
+     * Finds the periods between events that are long enough for something new
+     *
+     * @param duration the shortest period to report
+     * @param from     the start of the search, inclusive
+     * @param to       the end of the search, exclusive
+     * @return the free slots, earliest first
+     */
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to) {
+        return eventIndex.findFreeSlots(duration.getSeconds(), from, to);
+    }
+
+    /**
+     * Lists what falls within a period: deadlines by their due date, events by their start,
+     * and every occurrence of each recurring task, merged in time order.
+     * Recurring series are expanded lazily and only up to the end of the period,
+     * so a series that never ends costs no more than the occurrences actually shown.
+     *
+     * @param from the start of the period, inclusive
+     * @param to   the end of the period, exclusive
+     * @return ArrayList of agenda entries, earliest first; ties keep the order of the task list
+     */
+    public ArrayList<AgendaEntry> getAgenda(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "Agenda period should have a start and an end";
+        long start = FlexibleDateTime.of(from).toEpochSecond();
+        long end = FlexibleDateTime.of(to).toEpochSecond();
+        PriorityQueue<AgendaCursor> cursors = new PriorityQueue<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            Iterator<FlexibleDateTime> times;
+            if (task instanceof RecurringTask) {
+                times = ((RecurringTask) task).occurrencesFrom(from);
+            } else {
+                FlexibleDateTime due = getDueTime(task);
+                if (due == null || !due.hasDate() || due.toEpochSecond() < start || due.toEpochSecond() >= end) {
+                    continue;
+                }
+                times = Collections.singletonList(due).iterator();
+            }
+            AgendaCursor cursor = new AgendaCursor(task, i, times);
+            if (cursor.advance(end)) {
+                cursors.add(cursor);
+            }
+        }
+
+        ArrayList<AgendaEntry> agenda = new ArrayList<>();
+        while (!cursors.isEmpty()) {
+            AgendaCursor cursor = cursors.poll();
+            agenda.add(new AgendaEntry(cursor.current, cursor.task));
+            if (cursor.advance(end)) {
+                cursors.add(cursor);
+            }
+        }
+        return agenda;
+    }
+
     /**
      * Finds tasks that contain the specified keyword in their description
      *
@@ -144,8 +532,20 @@ public class TaskList {
      * @return ArrayList of tasks that match the keyword (case-insensitive)
      */
     public ArrayList<Task> findTasksContaining(String keyword) {
-        assert keyword != null : "Search keyword should not be null";
         assert tasks != null : "Tasks list should be initialized before searching";
+        return findTasksContaining(tasks, keyword);
+    }
+
+    /**
+     * Finds tasks that contain the specified keyword in their description, among tasks outside any list,
+     * e.g. the archived ones
+     *
+     * @param tasks   the tasks to search
+     * @param keyword the keyword to search for
+     * @return ArrayList of tasks that match the keyword (case-insensitive)
+     */
+    public static ArrayList<Task> findTasksContaining(List<Task> tasks, String keyword) {
+        assert keyword != null : "Search keyword should not be null";
 
         ArrayList<Task> matchingTasks = new ArrayList<>();
         String lowercaseKeyword = keyword.toLowerCase();
@@ -162,4 +562,111 @@ public class TaskList {
 
         return matchingTasks;
     }
+
+    private static FlexibleDateTime getDueTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getFlexibleBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFlexibleFrom();
+        }
+        return null;
+    }
+
+    private static boolean hasEndedBefore(Task task, LocalDate cutoff) {
+        if (cutoff == null) {
+            return true;
+        }
+        FlexibleDateTime end = null;
+        if (task instanceof Deadline) {
+            end = ((Deadline) task).getFlexibleBy();
+        } else if (task instanceof Event) {
+            end = ((Event) task).getFlexibleTo();
+        }
+        LocalDateTime endTime = end == null ? null : end.toLocalDateTime();
+        return endTime != null && endTime.toLocalDate().isBefore(cutoff);
+    }
+
+    /**
+     * Drops every dependency of a task about to be removed, in both directions
+     */
+    private void unlinkAll(Task task, int index) {
+        if (!dependencies.isLinked(task)) {
+            return;
+        }
+        for (Task blocker : new ArrayList<>(task.getBlockers())) {
+            dependencies.unlink(blocker, task);
+            publish(new TaskListEvent(TaskListEvent.Kind.DEPENDENCY_REMOVED, index, task, blocker));
+        }
+        for (Task dependent : new ArrayList<>(dependencies.getDependents(task))) {
+            dependencies.unlink(task, dependent);
+            publish(new TaskListEvent(TaskListEvent.Kind.DEPENDENCY_REMOVED, indexOf(dependent), dependent, task));
+        }
+    }
+
+    /**
+     * Finds the index of a task in the list, indexing the whole list first if tasks moved since the last lookup
+     */
+    private int indexOf(Task task) {
+        if (indexes == null) {
+            indexes = new IdentityHashMap<>(2 * tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                indexes.put(tasks.get(i), i);
+            }
+        }
+        return indexes.get(task);
+    }
+
+    /**
+     * Publishes a change immediately, or queues it if a batch is in progress
+     */
+    private void publish(TaskListEvent event) {
+        version++; // Counted even inside a batch, so commands run by a script never see a stale view
+        if (batchDepth > 0) {
+            pendingEvents.add(event);
+        } else {
+            notifyListeners(Collections.singletonList(event));
+        }
+    }
+
+    private void notifyListeners(List<TaskListEvent> events) {
+        for (TaskListListener listener : new ArrayList<>(listeners)) {
+            listener.onTasksChanged(events);
+        }
+    }
+
+    /**
+     * Walks the agenda times of one task during the merge in getAgenda
+     */
+    private static class AgendaCursor implements Comparable<AgendaCursor> {
+        private final Task task;
+        private final int position;
+        private final Iterator<FlexibleDateTime> times;
+        private FlexibleDateTime current;
+
+        AgendaCursor(Task task, int position, Iterator<FlexibleDateTime> times) {
+            this.task = task;
+            this.position = position;
+            this.times = times;
+        }
+
+        /**
+         * Moves to the next time before the end of the period
+         *
+         * @param end the end of the period, in epoch seconds
+         * @return false if there is none
+         */
+        boolean advance(long end) {
+            if (!times.hasNext()) {
+                return false;
+            }
+            current = times.next();
+            return current.toEpochSecond() < end;
+        }
+
+        @Override
+        public int compareTo(AgendaCursor other) {
+            int byTime = Long.compare(current.toEpochSecond(), other.current.toEpochSecond());
+            return byTime != 0 ? byTime : Integer.compare(position, other.position);
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package zen.task;
+
+/**
+ * Describes a single change made to a TaskList.
+ * Events carry the index the change happened at (0-based, as of the moment of the change)
+ * and the task that was affected. Dependency changes also carry the other end of the dependency,
+ * and priority changes carry the priority before and after the change. A reordering affects the
+ * whole list rather than one task, and carries where each task came from instead.
+ */
+public class TaskListEvent {
+    private final Kind kind;
+    private final int index;
+    private final Task task;
+    private final Task other;
+    private final int previousPriority;
+    private final int priority;
+    private final int[] permutation; // For REORDERED: the previous index of the task at each new index
+
+    /**
+     * Constructs an event of the given kind
+     *
+     * @param kind  what happened to the task
+     * @param index the index of the task at the time of the change (0-based)
+     * @param task  the affected task
+     */
+    public TaskListEvent(Kind kind, int index, Task task) {
+        this(kind, index, task, null);
+    }
+
+    /**
+     * Constructs an event that involves a second task, e.g. the blocker of a dependency
+     *
+     * @param kind  what happened to the task
+     * @param index the index of the task at the time of the change (0-based)
+     * @param task  the affected task
+     * @param other the other task involved, or null if there is none
+     */
+    public TaskListEvent(Kind kind, int index, Task task, Task other) {
+        assert kind != null : "Event kind should not be null";
+        assert task != null : "Event task should not be null";
+        this.kind = kind;
+        this.index = index;
+        this.task = task;
+        this.other = other;
+        this.previousPriority = task.getPriority();
+        this.priority = task.getPriority();
+        this.permutation = null;
+    }
+
+    /**
+     * Constructs an event for a change of priority
+     *
+     * @param index            the index of the task at the time of the change (0-based)
+     * @param task             the affected task
+     * @param previousPriority the priority the task had before the change
+     */
+    public TaskListEvent(int index, Task task, int previousPriority) {
+        assert task != null : "Event task should not be null";
+        this.kind = Kind.PRIORITY_CHANGED;
+        this.index = index;
+        this.task = task;
+        this.other = null;
+        this.previousPriority = previousPriority;
+        this.priority = task.getPriority();
+        this.permutation = null;
+    }
+
+    /**
+     * Constructs an event for a reordering of the whole list, e.g. by a sort
+     *
+     * @param permutation for each new index, the index the task there had before
+     */
+    public TaskListEvent(int[] permutation) {
+        assert permutation != null : "Event permutation should not be null";
+        this.kind = Kind.REORDERED;
+        this.index = 0;
+        this.task = null;
+        this.other = null;
+        this.previousPriority = 0;
+        this.priority = 0;
+        this.permutation = permutation;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public Task getOther() {
+        return other;
+    }
+
+    public int getPreviousPriority() {
+        return previousPriority;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int[] getPermutation() {
+        return permutation;
+    }
+
+    /**
+     * Gets the permutation that puts the tasks of a reordering back where they were
+     *
+     * @return for each index before the reordering, the index the task there moved to
+     */
+    public int[] getInversePermutation() {
+        int[] inverse = new int[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            inverse[permutation[i]] = i;
+        }
+        return inverse;
+    }
+
+    @Override
+    public String toString() {
+        return kind + "@" + index + ": " + task;
+    }
+
+    /**
+     * Enum representing the kinds of changes a TaskList publishes
+     */
+    public enum Kind {
+        ADDED, // task inserted at index
+        REMOVED, // task removed from index
+        MARKED, // task at index marked as done
+        UNMARKED, // task at index marked as not done
+        DEPENDENCY_ADDED, // task at index now waits for the other task
+        DEPENDENCY_REMOVED, // task at index no longer waits for the other task
+        PRIORITY_CHANGED, // task at index changed from the previous priority to the new one
+        REORDERED // every task moved to the index given by the permutation; no single task is affected
+    }
+}
@@ -0,0 +1,18 @@
+package zen.task;
+
+import java.util.List;
+
+/**
+ * Receives the changes made to a TaskList.
+ * A single operation is delivered as a list with one event; the operations performed inside a batch
+ * are delivered together, in the order they happened, when the batch ends.
+ */
+public interface TaskListListener {
+
+    /**
+     * Called after the task list has changed
+     *
+     * @param events the changes, in the order they were applied
+     */
+    void onTasksChanged(List<TaskListEvent> events);
+}
@@ -0,0 +1,63 @@
+package zen.task;
+
+import java.util.Comparator;
+
+import zen.util.FlexibleDateTime;
+
+/**
+ * Enumeration representing the orders a task list can be sorted in.
+ * The name used in commands is the lower-case constant, e.g. "date".
+ */
+public enum TaskOrder {
+    // Earliest first, by the "by" of a deadline or the "from" of an event or recurring task; undated tasks last
+    DATE(Comparator.comparing(TaskOrder::getDate, Comparator.nullsLast(Comparator.naturalOrder()))),
+    // Alphabetical, ignoring case
+    DESCRIPTION(Comparator.comparing(Task::getDescription, String.CASE_INSENSITIVE_ORDER)),
+    // Most urgent first; tasks without a priority last
+    PRIORITY(Comparator.comparingInt(task -> task.getPriority() > 0 ? task.getPriority() : Integer.MAX_VALUE));
+
+    private final Comparator<Task> comparator;
+
+    /**
+     * Constructs a TaskOrder that compares tasks with the given comparator.
+     *
+     * @param comparator how to compare two tasks
+     */
+    TaskOrder(Comparator<Task> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Finds the order with the given name
+     *
+     * @param name the name, e.g. "date", in any case
+     * @return the matching order, or null if there is none
+     */
+    public static TaskOrder fromName(String name) {
+        for (TaskOrder order : values()) {
+            if (order.getName().equalsIgnoreCase(name.trim())) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    public Comparator<Task> getComparator() {
+        return comparator;
+    }
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    private static FlexibleDateTime getDate(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getFlexibleBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFlexibleFrom();
+        } else if (task instanceof RecurringTask) {
+            return ((RecurringTask) task).getFlexibleStart();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,126 @@
+package zen.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import zen.util.FlexibleDateTime;
+
+/**
+ * Keeps the undone deadlines and events ordered by their due time.
+ * The ordering is maintained incrementally as tasks are added, marked, unmarked or deleted,
+ * so the next k tasks can be read without scanning the whole task list.
+ * Tasks whose date could not be parsed (string fallback) are never tracked.
+ */
+public class UpcomingTasks implements TaskListListener {
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.dueAt)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final TreeSet<Entry> ordered = new TreeSet<>(ENTRY_ORDER);
+    private final Map<Task, Entry> entries = new IdentityHashMap<>();
+    private long nextSequence;
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        for (TaskListEvent event : events) {
+            switch (event.getKind()) {
+            case ADDED:
+            case UNMARKED:
+                track(event.getTask());
+                break;
+            case REMOVED:
+            case MARKED:
+                untrack(event.getTask());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Starts tracking a task if it is undone and has a parseable due time.
+     * Tasks that are already tracked are left untouched.
+     *
+     * @param task the task to track
+     */
+    public void track(Task task) {
+        assert task != null : "Task to be tracked should not be null";
+        if (task.isDone() || entries.containsKey(task)) {
+            return;
+        }
+        FlexibleDateTime due = getDueTime(task);
+        if (due == null || !due.hasDate()) {
+            return;
+        }
+        Entry entry = new Entry(task, due.getEpochKey(), nextSequence++);
+        entries.put(task, entry);
+        ordered.add(entry);
+    }
+
+    /**
+     * Stops tracking a task. Does nothing if the task is not tracked.
+     *
+     * @param task the task to stop tracking
+     */
+    public void untrack(Task task) {
+        Entry entry = entries.remove(task);
+        if (entry != null) {
+            ordered.remove(entry);
+        }
+    }
+
+    /**
+     * Returns up to k tracked tasks, earliest due first
+     *
+     * @param k the maximum number of tasks to return
+     * @return ArrayList of the earliest due tasks
+     */
+    public ArrayList<Task> next(int k) {
+        ArrayList<Task> result = new ArrayList<>(Math.min(Math.max(k, 0), ordered.size()));
+        Iterator<Entry> iterator = ordered.iterator();
+        while (result.size() < k && iterator.hasNext()) {
+            result.add(iterator.next().task);
+        }
+        return result;
+    }
+
+    public int size() {
+        return ordered.size();
+    }
+
+    /**
+     * Gets the time a task is due: the "by" of a deadline or the "from" of an event
+     *
+     * @param task the task to inspect
+     * @return the due time, or null if the task is neither a deadline nor an event
+     */
+    private static FlexibleDateTime getDueTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getFlexibleBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFlexibleFrom();
+        }
+        return null;
+    }
+
+    /**
+     * A tracked task together with its ordering key
+     */
+    private static class Entry {
+        private final Task task;
+        private final long dueAt; // epoch key of the due time
+        private final long sequence;
+
+        Entry(Task task, long dueAt, long sequence) {
+            this.task = task;
+            this.dueAt = dueAt;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package zen.ui;
 
-import java.util.ArrayList;
+import java.util.List;
 
+import zen.storage.TaskTransfer;
+import zen.task.AgendaEntry;
+import zen.task.FreeSlot;
 import zen.task.Task;
+import zen.task.TaskListEvent;
 
 /**
  * Handles formatting of responses specifically for the GUI interface
@@ -12,22 +16,54 @@ public class GuiResponseFormatter {
     /**
      * Formats the task list for GUI display
      */
-    public static String formatTaskList(ArrayList<Task> tasks) {
+    public static String formatTaskList(TaskListRenderer tasks) {
         if (tasks.isEmpty()) {
             return "No tasks in your list yet!";
+        }
+        return formatLines("Here are the tasks in your list:\n", tasks);
+    }
+
+    /**
+     * Formats one page of the task list for GUI display, ending with how to see the next one
+     */
+    public static String formatTaskPage(TaskListRenderer tasks, int page, int pageSize) {
+        int from = (page - 1) * pageSize;
+        int to = Math.min(from + pageSize, tasks.size());
+        StringBuilder output = new StringBuilder("Here are tasks ").append(from + 1).append("-").append(to)
+                .append(" of ").append(tasks.size()).append(" in your list:\n");
+        tasks.render(output::append, from, to);
+        if (to < tasks.size()) {
+            output.append("Type 'list ").append(page + 1).append(" ").append(pageSize).append("' for the next page.");
         } else {
-            StringBuilder output = new StringBuilder("Here are the tasks in your list:\n");
-            for (int i = 0; i < tasks.size(); i++) {
-                output.append(i + 1).append(".").append(tasks.get(i)).append("\n");
-            }
-            return output.toString().trim();
+            output.setLength(output.length() - 1);
         }
+        return output.toString();
+    }
+
+    /**
+     * Formats the task list after a sort for GUI display
+     */
+    public static String formatTasksSorted(String orderName, TaskListRenderer tasks) {
+        if (tasks.isEmpty()) {
+            return "No tasks in your list yet!";
+        }
+        return formatLines("Sorted by " + orderName + ". Here are the tasks in your list:\n", tasks);
+    }
+
+    /**
+     * Joins a heading and the rendered lines of a task list, without the separator after the last line
+     */
+    private static String formatLines(String heading, TaskListRenderer tasks) {
+        StringBuilder output = new StringBuilder(heading);
+        tasks.render(output::append);
+        output.setLength(output.length() - 1);
+        return output.toString();
     }
 
     /**
      * Formats matching tasks from a find operation for GUI display
      */
-    public static String formatMatchingTasks(ArrayList<Task> matchingTasks) {
+    public static String formatMatchingTasks(List<Task> matchingTasks) {
         if (matchingTasks.isEmpty()) {
             return "No matching tasks found in your list.";
         } else {
@@ -39,6 +75,135 @@ public class GuiResponseFormatter {
         }
     }
 
+    /**
+     * Formats matching archived tasks from a find --archive operation for GUI display
+     */
+    public static String formatMatchingArchivedTasks(List<Task> matchingTasks) {
+        if (matchingTasks.isEmpty()) {
+            return "No matching tasks found in your archive.";
+        } else {
+            StringBuilder output = new StringBuilder("Here are the matching tasks in your archive:\n");
+            for (int i = 0; i < matchingTasks.size(); i++) {
+                output.append(i + 1).append(".").append(matchingTasks.get(i)).append("\n");
+            }
+            return output.toString().trim();
+        }
+    }
+
+    /**
+     * Formats tasks archived message for GUI display
+     */
+    public static String formatTasksArchived(List<Task> archivedTasks, int totalTasks) {
+        if (archivedTasks.isEmpty()) {
+            return "There are no done tasks to archive.";
+        }
+        return "Done and dusted! I've archived " + archivedTasks.size() + " completed tasks."
+               + "\nNow you have " + totalTasks + " tasks in the list.";
+    }
+
+    /**
+     * Formats the upcoming deadlines and events for GUI display
+     */
+    public static String formatUpcomingTasks(List<Task> upcomingTasks) {
+        if (upcomingTasks.isEmpty()) {
+            return "Nothing with a date is coming up. Enjoy the calm!";
+        } else {
+            StringBuilder output = new StringBuilder("Here is what's coming up next:\n");
+            for (int i = 0; i < upcomingTasks.size(); i++) {
+                output.append(i + 1).append(".").append(upcomingTasks.get(i)).append("\n");
+            }
+            return output.toString().trim();
+        }
+    }
+
+    /**
+     * Formats the tasks that fall within a period for GUI display
+     */
+    public static String formatAgenda(List<AgendaEntry> agenda) {
+        if (agenda.isEmpty()) {
+            return "Nothing is scheduled in that period.";
+        } else {
+            StringBuilder output = new StringBuilder("Here is your agenda:\n");
+            for (int i = 0; i < agenda.size(); i++) {
+                output.append(i + 1).append(".").append(agenda.get(i)).append("\n");
+            }
+            return output.toString().trim();
+        }
+    }
+
+    /**
+     * Formats the free periods found between events for GUI display
+     */
+    public static String formatFreeSlots(List<FreeSlot> freeSlots) {
+        if (freeSlots.isEmpty()) {
+            return "No free slot is long enough in that period.";
+        } else {
+            StringBuilder output = new StringBuilder("You are free:\n");
+            for (int i = 0; i < freeSlots.size(); i++) {
+                output.append(i + 1).append(".").append(freeSlots.get(i)).append("\n");
+            }
+            return output.toString().trim();
+        }
+    }
+
+    /**
+     * Formats the undone tasks with the most urgent priorities for GUI display
+     */
+    public static String formatTopTasks(List<Task> topTasks) {
+        if (topTasks.isEmpty()) {
+            return "No undone task has a priority. Add one with /p, e.g. todo file taxes /p 1";
+        } else {
+            StringBuilder output = new StringBuilder("Here are your most urgent tasks:\n");
+            for (int i = 0; i < topTasks.size(); i++) {
+                output.append(i + 1).append(".").append(topTasks.get(i)).append("\n");
+            }
+            return output.toString().trim();
+        }
+    }
+
+    /**
+     * Formats task priority changed message for GUI display
+     */
+    public static String formatPriorityChanged(Task task) {
+        return "Got it. I've updated the priority of this task:\n   " + task;
+    }
+
+    /**
+     * Formats a new dependency between two tasks for GUI display
+     */
+    public static String formatDependencyAdded(Task dependent, Task blocker) {
+        return "Got it. This task:\n   " + dependent + "\nnow waits until this one is done:\n   " + blocker;
+    }
+
+    /**
+     * Formats a removed dependency between two tasks for GUI display
+     */
+    public static String formatDependencyRemoved(Task dependent, Task blocker) {
+        return "OK. This task:\n   " + dependent + "\nno longer waits for:\n   " + blocker;
+    }
+
+    /**
+     * Formats the undone tasks that are not waiting for anything for GUI display
+     */
+    public static String formatReadyTasks(List<Task> readyTasks) {
+        if (readyTasks.isEmpty()) {
+            return "Nothing is ready to start right now.";
+        } else {
+            StringBuilder output = new StringBuilder("These tasks are ready to start:\n");
+            for (int i = 0; i < readyTasks.size(); i++) {
+                output.append(i + 1).append(".").append(readyTasks.get(i)).append("\n");
+            }
+            return output.toString().trim();
+        }
+    }
+
+    /**
+     * Formats a reminder for a task that has become due for GUI display
+     */
+    public static String formatReminder(Task task) {
+        return "⏰ Reminder! This is due now:\n   " + task;
+    }
+
     /**
      * Formats task marked message for GUI display
      */
@@ -69,6 +234,65 @@ public class GuiResponseFormatter {
                + "\nNow you have " + totalTasks + " tasks in the list.";
     }
 
+    /**
+     * Formats the changes reverted by an undo for GUI display
+     */
+    public static String formatChangesUndone(List<TaskListEvent> changes) {
+        StringBuilder output = new StringBuilder("OK, I've undone your last change to:");
+        for (TaskListEvent change : changes) {
+            output.append("\n   ").append(describeChange(change));
+        }
+        return output.toString();
+    }
+
+    /**
+     * Formats the changes re-applied by a redo for GUI display
+     */
+    public static String formatChangesRedone(List<TaskListEvent> changes) {
+        StringBuilder output = new StringBuilder("OK, I've redone the change to:");
+        for (TaskListEvent change : changes) {
+            output.append("\n   ").append(describeChange(change));
+        }
+        return output.toString();
+    }
+
+    private static String describeChange(TaskListEvent change) {
+        return change.getKind() == TaskListEvent.Kind.REORDERED ? "the order of the list" : change.getTask().toString();
+    }
+
+    /**
+     * Formats storage information for GUI display
+     */
+    public static String formatStorageInfo(String description) {
+        return description;
+    }
+
+    /**
+     * Formats the outcome of running a script for GUI display
+     */
+    public static String formatScriptRun(String file, int commandCount, int taskCount) {
+        return "Ran " + commandCount + " commands from " + file + "."
+               + "\nNow you have " + taskCount + " tasks in the list.";
+    }
+
+    /**
+     * Formats the outcome of an import for GUI display
+     */
+    public static String formatTasksImported(String file, TaskTransfer.Report report, int taskCount) {
+        String skipped = report.getSkippedCount() == 0 ? ""
+                : "\nSkipped " + report.getSkippedCount() + " records I couldn't read, the first on line "
+                        + report.getFirstSkippedLine() + ".";
+        return "Imported tasks from " + file + ": " + report + skipped
+               + "\nNow you have " + taskCount + " tasks in the list.";
+    }
+
+    /**
+     * Formats the outcome of an export for GUI display
+     */
+    public static String formatTasksExported(String file, TaskTransfer.Report report) {
+        return "Exported tasks to " + file + ": " + report;
+    }
+
     /**
      * Formats goodbye message for GUI display
      */
@@ -84,20 +308,44 @@ public class GuiResponseFormatter {
         help.append("Here are the commands you can use:\n\n");
         help.append("bye                              - Exit the application\n");
         help.append("list                             - Show all tasks\n");
-        help.append("help                             - Show this help message\n\n");
+        help.append("list <page> [size]               - Show one page of tasks, 20 to a page by default\n");
+        help.append("help                             - Show this help message\n");
+        help.append("storage                          - Show where tasks are stored\n");
+        help.append("run <file>                       - Run the commands in a file, saving once at the end\n");
+        help.append("import <file>                    - Add the tasks in a .csv or .jsonl file\n");
+        help.append("export <file>                    - Write all tasks to a .csv or .jsonl file\n");
+        help.append("sort <date|description|priority> - Sort the list\n\n");
         help.append("todo <description>               - Add a todo task\n");
         help.append("deadline <description> /by <date> - Add a deadline task\n");
-        help.append("event <description> /from <start> /to <end> - Add an event task\n\n");
+        help.append("event <description> /from <start> /to <end> - Add an event task\n");
+        help.append("recur <description> /from <start> /every <unit> - Add a task that repeats\n\n");
         help.append("mark <number>                    - Mark a task as done\n");
         help.append("unmark <number>                  - Mark a task as not done\n");
-        help.append("delete <number>                  - Delete a task\n\n");
-        help.append("find <keyword>                   - Find tasks containing keyword\n\n");
+        help.append("delete <number>                  - Delete a task\n");
+        help.append("undo                             - Undo your last change\n");
+        help.append("redo                             - Redo the change you last undid\n\n");
+        help.append("find <keyword>                   - Find tasks containing keyword\n");
+        help.append("find --archive <keyword>         - Find archived tasks containing keyword\n");
+        help.append("archive [days]                   - Archive done tasks (older than days, if given)\n");
+        help.append("next [count]                     - Show the undone deadlines and events due soonest\n");
+        help.append("agenda [/from <date>] [/to <date>] - Show what falls in a period (default: next 7 days)\n");
+        help.append("free <duration> [/between <start> <end>] - Find free time between events\n");
+        help.append("depend <number> /on <number>     - Make a task wait until another is done\n");
+        help.append("undepend <number> /on <number>   - Stop a task waiting for another\n");
+        help.append("ready                            - Show the undone tasks not waiting on anything\n");
+        help.append("priority <number> /p <level>     - Set a priority (1 is the most urgent, 0 clears it)\n");
+        help.append("top [count]                      - Show the undone tasks with the most urgent priority\n\n");
         help.append("Examples:\n");
         help.append("  todo Buy groceries\n");
+        help.append("  todo File taxes /p 1\n");
         help.append("  deadline Submit report /by 2024-12-25\n");
         help.append("  event Team meeting /from 2024-12-20 2pm /to 4pm\n");
+        help.append("  recur Standup /from 2024-12-16 9am /every week\n");
         help.append("  mark 1\n");
-        help.append("  find meeting\n\n");
+        help.append("  find meeting\n");
+        help.append("  next 3\n");
+        help.append("  depend 3 /on 1\n");
+        help.append("  free 2h /between 2024-12-16 9am 2024-12-20 5pm\n\n");
         help.append("Tips: use Ctrl+L to clear chat history");
         return help.toString();
     }
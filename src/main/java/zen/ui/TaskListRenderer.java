@@ -0,0 +1,139 @@
+package zen.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
+import zen.task.TaskListListener;
+
+/**
+ * Renders the numbered lines of a task list, keeping them between listings.
+ * The lines are kept in chunks of CHUNK_SIZE tasks, and a change only drops the chunks it affects:
+ * marking a task or changing its priority re-renders its own chunk, while adding or removing a task
+ * renumbers the chunks from its position onwards, which is cheap when the change is near the end.
+ * Nothing is re-rendered until the list is next shown, and the lines are handed out chunk by chunk
+ * so the whole list never has to be built into one string.
+ * A page of the list is rendered on its own, line by line, without touching or filling the chunks.
+ */
+public class TaskListRenderer implements TaskListListener {
+    static final int CHUNK_SIZE = 256;
+
+    private final TaskList tasks;
+    private final String linePrefix;
+    private final String lineSeparator;
+    private final List<String> chunks = new ArrayList<>();
+    private int firstRenumberedChunk;
+    private long renderedVersion;
+
+    /**
+     * Constructs a TaskListRenderer. It must still be registered as a listener on the task list.
+     *
+     * @param tasks         the task list to render
+     * @param linePrefix    the text before the number of each line, e.g. " " for the console
+     * @param lineSeparator the text after each line
+     */
+    public TaskListRenderer(TaskList tasks, String linePrefix, String lineSeparator) {
+        this.tasks = tasks;
+        this.linePrefix = linePrefix;
+        this.lineSeparator = lineSeparator;
+        this.renderedVersion = tasks.getVersion();
+    }
+
+    @Override
+    public void onTasksChanged(List<TaskListEvent> events) {
+        for (TaskListEvent event : events) {
+            switch (event.getKind()) {
+            case ADDED:
+            case REMOVED:
+                renumberFrom(event.getIndex() / CHUNK_SIZE);
+                break;
+            case MARKED:
+            case UNMARKED:
+            case PRIORITY_CHANGED:
+                int chunk = event.getIndex() / CHUNK_SIZE;
+                if (chunk < chunks.size()) {
+                    chunks.set(chunk, null);
+                }
+                break;
+            case REORDERED:
+                renumberFrom(0);
+                break;
+            default:
+                break; // Dependencies are not shown in the list
+            }
+        }
+        renderedVersion = tasks.getVersion();
+    }
+
+    /**
+     * Gets the number of tasks to render
+     *
+     * @return the size of the list
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Checks whether there are no tasks to render
+     *
+     * @return true if the list is empty
+     */
+    public boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    /**
+     * Hands out the lines of the list, re-rendering only the chunks that changed since the last call
+     *
+     * @param output receives the lines, several at a time, each followed by the line separator
+     */
+    public void render(Consumer<String> output) {
+        if (renderedVersion != tasks.getVersion()) {
+            renumberFrom(0); // Changed inside a batch that has not been published yet
+            renderedVersion = tasks.getVersion();
+        }
+        int chunkCount = (tasks.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int keptChunks = Math.min(firstRenumberedChunk, chunkCount);
+        chunks.subList(Math.min(keptChunks, chunks.size()), chunks.size()).clear();
+        firstRenumberedChunk = Integer.MAX_VALUE;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (chunk == chunks.size()) {
+                chunks.add(renderChunk(chunk));
+            } else if (chunks.get(chunk) == null) {
+                chunks.set(chunk, renderChunk(chunk));
+            }
+            output.accept(chunks.get(chunk));
+        }
+    }
+
+    /**
+     * Hands out the lines of part of the list, one at a time, rendering them afresh.
+     * The time to the first line and the memory used do not depend on the size of the list.
+     *
+     * @param output receives each line, followed by the line separator
+     * @param from   the index of the first task to render
+     * @param to     the index after the last task to render, clamped to the size of the list
+     */
+    public void render(Consumer<String> output, int from, int to) {
+        int end = Math.min(to, tasks.size());
+        for (int i = from; i < end; i++) {
+            output.accept(linePrefix + (i + 1) + "." + tasks.getTask(i) + lineSeparator);
+        }
+    }
+
+    private void renumberFrom(int chunk) {
+        firstRenumberedChunk = Math.min(firstRenumberedChunk, chunk);
+    }
+
+    private String renderChunk(int chunk) {
+        int end = Math.min(tasks.size(), (chunk + 1) * CHUNK_SIZE);
+        StringBuilder lines = new StringBuilder();
+        for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+            lines.append(linePrefix).append(i + 1).append('.').append(tasks.getTask(i)).append(lineSeparator);
+        }
+        return lines.toString();
+    }
+}
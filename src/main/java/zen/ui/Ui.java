@@ -1,22 +1,52 @@
 package zen.ui;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Scanner;
 
+import zen.storage.TaskTransfer;
+import zen.task.AgendaEntry;
+import zen.task.FreeSlot;
 import zen.task.Task;
+import zen.task.TaskListEvent;
 
 /**
- * Handles all user interface operations including input and output
+ * Handles all user interface operations including input and output.
+ * Output is collected in a buffer and written to the console in one go rather than line by line:
+ * the buffer is written out before each command is read, so every command's response appears at once.
+ * A Ui created for scripted runs skips that flush and only writes its output once it grows large
+ * and when the Ui is closed, which keeps piped input from paying for a flush on every command.
+ * Reminders arrive from another thread and are only shown between commands, never inside a response.
  */
 public class Ui {
     private static final String LINE_SEPARATOR = "____________________________________________________________";
+    private static final int FLUSH_THRESHOLD = 1 << 16; // Characters buffered before they are written regardless
+
+    private final StringBuilder output = new StringBuilder();
+    private final boolean isFlushedEachCommand;
+    private final Queue<Task> pendingReminders = new ArrayDeque<>(); // Guarded by this Ui
+    private boolean isWaitingForCommand; // Guarded by this Ui; true while nothing is being shown
     private Scanner scanner;
 
     /**
      * Constructs a new Ui instance and initializes the scanner for user input.
+     * The response to each command is written out before the next command is read.
      */
     public Ui() {
+        this(true);
+    }
+
+    /**
+     * Constructs a new Ui instance and initializes the scanner for user input.
+     *
+     * @param isFlushedEachCommand whether to write out the response to each command before reading the next one;
+     *                             false only suits input that is not typed, e.g. a script piped in
+     */
+    public Ui(boolean isFlushedEachCommand) {
         this.scanner = new Scanner(System.in);
+        this.isFlushedEachCommand = isFlushedEachCommand;
     }
 
     /**
@@ -24,8 +54,8 @@ public class Ui {
      */
     public void showWelcome() {
         showLine();
-        System.out.println(" Hello! I'm Zen");
-        System.out.println(" What can I do for you?");
+        println(" Hello! I'm Zen");
+        println(" What can I do for you?");
         showLine();
     }
 
@@ -33,7 +63,7 @@ public class Ui {
      * Shows the goodbye message when the application exits
      */
     public void showGoodbye() {
-        System.out.println(" Bye. Hope to see you again soon!");
+        println(" Bye. Hope to see you again soon!");
         showLine();
     }
 
@@ -41,16 +71,33 @@ public class Ui {
      * Shows the horizontal line separator
      */
     public void showLine() {
-        System.out.println(LINE_SEPARATOR);
+        println(LINE_SEPARATOR);
     }
 
     /**
-     * Reads a command from the user
+     * Reads a command from the user. Reminders that came due during the last command are shown first,
+     * and reminders that come due while waiting for the command are shown straight away.
      *
      * @return the user input as a trimmed string
      */
     public String readCommand() {
-        return scanner.nextLine().trim();
+        synchronized (this) {
+            showPendingReminders();
+            if (isFlushedEachCommand) {
+                flush();
+            }
+            isWaitingForCommand = true;
+        }
+        try {
+            return scanner.nextLine().trim();
+        } catch (NoSuchElementException e) {
+            flush(); // The input ended without a bye; don't lose what was shown so far
+            throw e;
+        } finally {
+            synchronized (this) {
+                isWaitingForCommand = false;
+            }
+        }
     }
 
     /**
@@ -59,55 +106,256 @@ public class Ui {
      * @param message the error message to display
      */
     public void showError(String message) {
-        System.out.println(" NOOOOO!!! " + message);
+        println(" NOOOOO!!! " + message);
     }
 
     /**
      * Shows a loading error message
      */
     public void showLoadingError() {
-        System.out.println(" Warning: Could not load tasks from file. Starting with empty task list.");
+        println(" Warning: Could not load tasks from file. Starting with empty task list.");
     }
 
     /**
      * Shows the list of tasks
      *
-     * @param tasks the list of tasks to display
+     * @param tasks renders the numbered lines of the task list
      */
-    public void showTaskList(ArrayList<Task> tasks) {
+    public void showTaskList(TaskListRenderer tasks) {
         if (tasks.isEmpty()) {
-            System.out.println(" No tasks in your list yet!");
+            println(" No tasks in your list yet!");
         } else {
-            System.out.println(" Here are the tasks in your list:");
-            for (int i = 0; i < tasks.size(); i++) {
-                System.out.println(" " + (i + 1) + "." + tasks.get(i));
-            }
+            println(" Here are the tasks in your list:");
+            tasks.render(this::print);
+        }
+    }
+
+    /**
+     * Shows one page of the list of tasks, and how to see the next one
+     *
+     * @param tasks    renders the numbered lines of the task list
+     * @param page     the page to show, from 1
+     * @param pageSize the number of tasks a page
+     */
+    public void showTaskPage(TaskListRenderer tasks, int page, int pageSize) {
+        int from = (page - 1) * pageSize;
+        int to = Math.min(from + pageSize, tasks.size());
+        println(" Here are tasks " + (from + 1) + "-" + to + " of " + tasks.size() + " in your list:");
+        tasks.render(this::print, from, to);
+        if (to < tasks.size()) {
+            println(" Type 'list " + (page + 1) + " " + pageSize + "' for the next page.");
         }
     }
 
+    /**
+     * Shows the task list after a sort
+     *
+     * @param orderName the order the tasks were sorted in, e.g. "date"
+     * @param tasks     renders the numbered lines of the task list
+     */
+    public void showTasksSorted(String orderName, TaskListRenderer tasks) {
+        if (tasks.isEmpty()) {
+            println(" No tasks in your list yet!");
+            return;
+        }
+        println(" Sorted by " + orderName + ". Here are the tasks in your list:");
+        tasks.render(this::print);
+    }
+
     /**
      * Shows the matching tasks from a find operation
      * @param matchingTasks the list of tasks that match the search keyword
      */
-    public void showMatchingTasks(ArrayList<Task> matchingTasks) {
+    public void showMatchingTasks(List<Task> matchingTasks) {
         if (matchingTasks.isEmpty()) {
-            System.out.println(" No matching tasks found in your list.");
+            println(" No matching tasks found in your list.");
         } else {
-            System.out.println(" Here are the matching tasks in your list:");
+            println(" Here are the matching tasks in your list:");
             for (int i = 0; i < matchingTasks.size(); i++) {
-                System.out.println(" " + (i + 1) + "." + matchingTasks.get(i));
+                println(" " + (i + 1) + "." + matchingTasks.get(i));
+            }
+        }
+    }
+
+    /**
+     * Shows the archived tasks matching a find --archive operation
+     *
+     * @param matchingTasks the archived tasks that match the search keyword
+     */
+    public void showMatchingArchivedTasks(List<Task> matchingTasks) {
+        if (matchingTasks.isEmpty()) {
+            println(" No matching tasks found in your archive.");
+        } else {
+            println(" Here are the matching tasks in your archive:");
+            for (int i = 0; i < matchingTasks.size(); i++) {
+                println(" " + (i + 1) + "." + matchingTasks.get(i));
+            }
+        }
+    }
+
+    /**
+     * Shows the tasks that have been moved to the archive
+     *
+     * @param archivedTasks the tasks that were archived
+     * @param totalTasks    the number of active tasks left
+     */
+    public void showTasksArchived(List<Task> archivedTasks, int totalTasks) {
+        if (archivedTasks.isEmpty()) {
+            println(" There are no done tasks to archive.");
+        } else {
+            println(" Done and dusted! I've archived " + archivedTasks.size() + " completed tasks.");
+            println(" Now you have " + totalTasks + " tasks in the list.");
+        }
+    }
+
+    /**
+     * Shows the undone deadlines and events that are due soonest
+     *
+     * @param upcomingTasks the tasks to show, earliest due first
+     */
+    public void showUpcomingTasks(List<Task> upcomingTasks) {
+        if (upcomingTasks.isEmpty()) {
+            println(" Nothing with a date is coming up. Enjoy the calm!");
+        } else {
+            println(" Here is what's coming up next:");
+            for (int i = 0; i < upcomingTasks.size(); i++) {
+                println(" " + (i + 1) + "." + upcomingTasks.get(i));
+            }
+        }
+    }
+
+    /**
+     * Shows the tasks that fall within a period, one line per occurrence
+     *
+     * @param agenda the agenda entries, earliest first
+     */
+    public void showAgenda(List<AgendaEntry> agenda) {
+        if (agenda.isEmpty()) {
+            println(" Nothing is scheduled in that period.");
+        } else {
+            println(" Here is your agenda:");
+            for (int i = 0; i < agenda.size(); i++) {
+                println(" " + (i + 1) + "." + agenda.get(i));
+            }
+        }
+    }
+
+    /**
+     * Shows the free periods found between events
+     *
+     * @param freeSlots the free slots, earliest first
+     */
+    public void showFreeSlots(List<FreeSlot> freeSlots) {
+        if (freeSlots.isEmpty()) {
+            println(" No free slot is long enough in that period.");
+        } else {
+            println(" You are free:");
+            for (int i = 0; i < freeSlots.size(); i++) {
+                println(" " + (i + 1) + "." + freeSlots.get(i));
+            }
+        }
+    }
+
+    /**
+     * Shows the undone tasks with the most urgent priorities
+     *
+     * @param topTasks the tasks, most urgent first
+     */
+    public void showTopTasks(List<Task> topTasks) {
+        if (topTasks.isEmpty()) {
+            println(" No undone task has a priority. Add one with /p, e.g. todo file taxes /p 1");
+        } else {
+            println(" Here are your most urgent tasks:");
+            for (int i = 0; i < topTasks.size(); i++) {
+                println(" " + (i + 1) + "." + topTasks.get(i));
+            }
+        }
+    }
+
+    /**
+     * Shows a task whose priority has been changed
+     *
+     * @param task the task with its new priority
+     */
+    public void showPriorityChanged(Task task) {
+        println(" Got it. I've updated the priority of this task:");
+        println("   " + task);
+    }
+
+    /**
+     * Shows a task that now waits for another one
+     *
+     * @param dependent the task that waits
+     * @param blocker   the task it waits for
+     */
+    public void showDependencyAdded(Task dependent, Task blocker) {
+        println(" Got it. This task:");
+        println("   " + dependent);
+        println(" now waits until this one is done:");
+        println("   " + blocker);
+    }
+
+    /**
+     * Shows a task that no longer waits for another one
+     *
+     * @param dependent the task that waited
+     * @param blocker   the task it waited for
+     */
+    public void showDependencyRemoved(Task dependent, Task blocker) {
+        println(" OK. This task:");
+        println("   " + dependent);
+        println(" no longer waits for:");
+        println("   " + blocker);
+    }
+
+    /**
+     * Shows the undone tasks that are not waiting for anything
+     *
+     * @param readyTasks the ready tasks, in list order
+     */
+    public void showReadyTasks(List<Task> readyTasks) {
+        if (readyTasks.isEmpty()) {
+            println(" Nothing is ready to start right now.");
+        } else {
+            println(" These tasks are ready to start:");
+            for (int i = 0; i < readyTasks.size(); i++) {
+                println(" " + (i + 1) + "." + readyTasks.get(i));
             }
         }
     }
 
+    /**
+     * Shows a reminder for a task that has become due.
+     * Reminders arrive from another thread, so one that comes due while a command is running is queued
+     * and shown before the next command is read, rather than in the middle of the command's response.
+     *
+     * @param task the task that is due
+     */
+    public synchronized void showReminder(Task task) {
+        pendingReminders.add(task);
+        if (isWaitingForCommand) {
+            showPendingReminders();
+            flush();
+        }
+    }
+
+    private synchronized void showPendingReminders() {
+        for (Task task = pendingReminders.poll(); task != null; task = pendingReminders.poll()) {
+            println(LINE_SEPARATOR + System.lineSeparator()
+                    + " ⏰ Reminder! This is due now:" + System.lineSeparator()
+                    + "   " + task + System.lineSeparator()
+                    + LINE_SEPARATOR);
+        }
+    }
+
     /**
      * Shows a task that has been marked as done
      *
      * @param task the task that was marked as done
      */
     public void showTaskMarked(Task task) {
-        System.out.println(" Nice! I've marked this task as done:");
-        System.out.println("   " + task);
+        println(" Nice! I've marked this task as done:");
+        println("   " + task);
     }
 
     /**
@@ -116,8 +364,8 @@ public class Ui {
      * @param task the task that was marked as not done
      */
     public void showTaskUnmarked(Task task) {
-        System.out.println(" OK, I've marked this task as not done yet:");
-        System.out.println("   " + task);
+        println(" OK, I've marked this task as not done yet:");
+        println("   " + task);
     }
 
     /**
@@ -127,9 +375,9 @@ public class Ui {
      * @param totalTasks the total number of tasks after addition
      */
     public void showTaskAdded(Task task, int totalTasks) {
-        System.out.println(" Got it. I've added this task:");
-        System.out.println("   " + task);
-        System.out.println(" Now you have " + totalTasks + " tasks in the list.");
+        println(" Got it. I've added this task:");
+        println("   " + task);
+        println(" Now you have " + totalTasks + " tasks in the list.");
     }
 
     /**
@@ -139,44 +387,178 @@ public class Ui {
      * @param totalTasks the total number of tasks after deletion
      */
     public void showTaskDeleted(Task task, int totalTasks) {
-        System.out.println(" Noted. I've removed this task:");
-        System.out.println("   " + task);
-        System.out.println(" Now you have " + totalTasks + " tasks in the list.");
+        println(" Noted. I've removed this task:");
+        println("   " + task);
+        println(" Now you have " + totalTasks + " tasks in the list.");
+    }
+
+    /**
+     * Shows the changes reverted by an undo
+     *
+     * @param changes the changes that were undone
+     */
+    public void showChangesUndone(List<TaskListEvent> changes) {
+        println(" OK, I've undone your last change to:");
+        for (TaskListEvent change : changes) {
+            println("   " + describeChange(change));
+        }
+    }
+
+    /**
+     * Shows the changes re-applied by a redo
+     *
+     * @param changes the changes that were redone
+     */
+    public void showChangesRedone(List<TaskListEvent> changes) {
+        println(" OK, I've redone the change to:");
+        for (TaskListEvent change : changes) {
+            println("   " + describeChange(change));
+        }
+    }
+
+    /**
+     * Describes what an undone or redone change affected: its task, or the whole list for a reordering
+     */
+    private static String describeChange(TaskListEvent change) {
+        return change.getKind() == TaskListEvent.Kind.REORDERED ? "the order of the list" : change.getTask().toString();
+    }
+
+    /**
+     * Shows where and how tasks are stored
+     *
+     * @param description the storage description, possibly spanning several lines
+     */
+    public void showStorageInfo(String description) {
+        for (String line : description.split("\n")) {
+            println(" " + line);
+        }
+    }
+
+    /**
+     * Shows the outcome of running a script
+     *
+     * @param file         the script that was run
+     * @param commandCount the number of commands it ran
+     * @param taskCount    the number of tasks in the list afterwards
+     */
+    public void showScriptRun(String file, int commandCount, int taskCount) {
+        println(" Ran " + commandCount + " commands from " + file + ".");
+        println(" Now you have " + taskCount + " tasks in the list.");
+    }
+
+    /**
+     * Shows the outcome of an import
+     *
+     * @param file      the file the tasks were imported from
+     * @param report    how many tasks were imported and how fast
+     * @param taskCount the number of tasks in the list afterwards
+     */
+    public void showTasksImported(String file, TaskTransfer.Report report, int taskCount) {
+        println(" Imported tasks from " + file + ": " + report);
+        if (report.getSkippedCount() > 0) {
+            println(" Skipped " + report.getSkippedCount() + " records I couldn't read, the first on line "
+                    + report.getFirstSkippedLine() + ".");
+        }
+        println(" Now you have " + taskCount + " tasks in the list.");
+    }
+
+    /**
+     * Shows the outcome of an export
+     *
+     * @param file   the file the tasks were exported to
+     * @param report how many tasks were exported and how fast
+     */
+    public void showTasksExported(String file, TaskTransfer.Report report) {
+        println(" Exported tasks to " + file + ": " + report);
     }
 
     /**
      * Shows the help message with all available commands
      */
     public void showHelp() {
-        System.out.println(" Here are the commands you can use:");
-        System.out.println();
-        System.out.println(" bye                              - Exit the application");
-        System.out.println(" list                             - Show all tasks");
-        System.out.println(" help                             - Show this help message");
-        System.out.println();
-        System.out.println(" todo <description>               - Add a todo task");
-        System.out.println(" deadline <description> /by <date> - Add a deadline task");
-        System.out.println(" event <description> /from <start> /to <end> - Add an event task");
-        System.out.println();
-        System.out.println(" mark <number>                    - Mark a task as done");
-        System.out.println(" unmark <number>                  - Mark a task as not done");
-        System.out.println(" delete <number>                  - Delete a task");
-        System.out.println();
-        System.out.println(" find <keyword>                   - Find tasks containing keyword");
-        System.out.println();
-        System.out.println(" Examples:");
-        System.out.println("   todo Buy groceries");
-        System.out.println("   deadline Submit report /by 2024-12-25");
-        System.out.println("   event Team meeting /from 2024-12-20 2pm /to 4pm");
-        System.out.println("   mark 1");
-        System.out.println("   find meeting\n\n");
-        System.out.println(" Tips: use Ctrl+L to clear chat history");
+        println(" Here are the commands you can use:");
+        println();
+        println(" bye                              - Exit the application");
+        println(" list                             - Show all tasks");
+        println(" list <page> [size]               - Show one page of tasks, 20 to a page by default");
+        println(" help                             - Show this help message");
+        println(" storage                          - Show where tasks are stored");
+        println(" run <file>                       - Run the commands in a file, saving once at the end");
+        println(" import <file>                    - Add the tasks in a .csv or .jsonl file");
+        println(" export <file>                    - Write all tasks to a .csv or .jsonl file");
+        println(" sort <date|description|priority> - Sort the list");
+        println();
+        println(" todo <description>               - Add a todo task");
+        println(" deadline <description> /by <date> - Add a deadline task");
+        println(" event <description> /from <start> /to <end> - Add an event task");
+        println(" recur <description> /from <start> /every <unit> - Add a task that repeats");
+        println();
+        println(" mark <number>                    - Mark a task as done");
+        println(" unmark <number>                  - Mark a task as not done");
+        println(" delete <number>                  - Delete a task");
+        println(" undo                             - Undo your last change");
+        println(" redo                             - Redo the change you last undid");
+        println();
+        println(" find <keyword>                   - Find tasks containing keyword");
+        println(" find --archive <keyword>         - Find archived tasks containing keyword");
+        println(" archive [days]                   - Archive done tasks (older than days, if given)");
+        println(" next [count]                     - Show the undone deadlines and events due soonest");
+        println(" agenda [/from <date>] [/to <date>] - Show what falls in a period (default: next 7 days)");
+        println(" free <duration> [/between <start> <end>] - Find free time between events");
+        println(" depend <number> /on <number>     - Make a task wait until another is done");
+        println(" undepend <number> /on <number>   - Stop a task waiting for another");
+        println(" ready                            - Show the undone tasks not waiting on anything");
+        println(" priority <number> /p <level>     - Set a priority (1 is the most urgent, 0 clears it)");
+        println(" top [count]                      - Show the undone tasks with the most urgent priority");
+        println();
+        println(" Examples:");
+        println("   todo Buy groceries");
+        println("   todo File taxes /p 1");
+        println("   deadline Submit report /by 2024-12-25");
+        println("   event Team meeting /from 2024-12-20 2pm /to 4pm");
+        println("   recur Standup /from 2024-12-16 9am /every week");
+        println("   mark 1");
+        println("   find meeting");
+        println("   next 3");
+        println("   depend 3 /on 1");
+        println("   free 2h /between 2024-12-16 9am 2024-12-20 5pm\n\n");
+        println(" Tips: use Ctrl+L to clear chat history");
     }
 
     /**
      * Closes the scanner when the application ends
      */
     public void close() {
+        showPendingReminders();
+        flush();
         scanner.close();
     }
+
+    /**
+     * Writes out everything shown since the last flush
+     */
+    public synchronized void flush() {
+        if (output.length() == 0) {
+            return;
+        }
+        System.out.print(output);
+        System.out.flush();
+        output.setLength(0);
+    }
+
+    private void println() {
+        print(System.lineSeparator());
+    }
+
+    private synchronized void println(String line) {
+        print(line);
+        print(System.lineSeparator());
+    }
+
+    private synchronized void print(String text) {
+        output.append(text);
+        if (output.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
 }
@@ -0,0 +1,351 @@
+package zen.util;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns date/time text typed by the user into a LocalDate or LocalDateTime.
+ * Inputs are tried against a fixed cascade of grammars, cheapest first:
+ * <ul>
+ * <li>ISO dates and date-times (2024-12-25, 2024-12-25T14:00)</li>
+ * <li>ISO or day/month/year dates followed by a time (2024-12-20 2pm, 2/12/2024 1800)</li>
+ * <li>Month names, with or without a year (Dec 5, 5 Dec 2024, Dec 25 2024, 2:00 PM)</li>
+ * <li>Relative dates (today, tomorrow 9am, next monday, next week, in 3 days)</li>
+ * </ul>
+ * Bare weekday names such as "Sunday" are deliberately left as text, since they are ambiguous between
+ * this week and next. Results are memoized in a bounded cache keyed on the raw input, so values that
+ * repeat across a data file are parsed once. Results that depend on today's date are only reused on
+ * the day they were computed.
+ */
+class DateTimeParser {
+    static final DateTimeParser DEFAULT = new DateTimeParser(Clock.systemDefaultZone());
+
+    private static final int CACHE_CAPACITY = 4096;
+    private static final String TIME_SUFFIX = "(?:,?\\s+(.+))?";
+    private static final String MONTHS = "jan|january|feb|february|mar|march|apr|april|may|jun|june|jul|july"
+            + "|aug|august|sep|sept|september|oct|october|nov|november|dec|december";
+    private static final String DAYS = "monday|mon|tuesday|tue|tues|wednesday|wed|thursday|thu|thur|thurs"
+            + "|friday|fri|saturday|sat|sunday|sun";
+
+    private static final Pattern ISO_DATE_WITH_TIME = Pattern.compile(
+            "(\\d{4})-(\\d{2})-(\\d{2})" + TIME_SUFFIX);
+    private static final Pattern DAY_MONTH_YEAR = Pattern.compile(
+            "(\\d{1,2})/(\\d{1,2})/(\\d{4})" + TIME_SUFFIX);
+    private static final Pattern MONTH_DAY = Pattern.compile(
+            "(" + MONTHS + ")\\.?\\s+(\\d{1,2})(?:st|nd|rd|th)?(?:,?\\s+(\\d{4}))?" + TIME_SUFFIX);
+    private static final Pattern DAY_MONTH = Pattern.compile(
+            "(\\d{1,2})(?:st|nd|rd|th)?\\s+(" + MONTHS + ")\\.?(?:,?\\s+(\\d{4}))?" + TIME_SUFFIX);
+    private static final Pattern RELATIVE_DAY = Pattern.compile(
+            "(today|tomorrow|tmr|yesterday)" + TIME_SUFFIX);
+    private static final Pattern NEXT = Pattern.compile(
+            "next\\s+(week|month|" + DAYS + ")" + TIME_SUFFIX);
+    private static final Pattern IN_PERIOD = Pattern.compile(
+            "in\\s+(\\d{1,3})\\s+(day|days|week|weeks|month|months)");
+    private static final Pattern TWELVE_HOUR_TIME = Pattern.compile("(\\d{1,2})(?:[:.](\\d{2}))?\\s*(am|pm)");
+    private static final Pattern TWENTY_FOUR_HOUR_TIME = Pattern.compile("(\\d{1,2}):(\\d{2})|(\\d{2})(\\d{2})");
+
+    private static final Map<String, Integer> MONTH_NUMBERS = new HashMap<>();
+    private static final Map<String, DayOfWeek> DAYS_OF_WEEK = new HashMap<>();
+
+    static {
+        String[] months = MONTHS.split("\\|");
+        for (String month : months) {
+            MONTH_NUMBERS.put(month, monthNumberOf(month));
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            String name = day.name().toLowerCase(Locale.ROOT);
+            for (String alias : DAYS.split("\\|")) {
+                if (name.startsWith(alias)) {
+                    DAYS_OF_WEEK.put(alias, day);
+                }
+            }
+        }
+    }
+
+    private final Clock clock;
+    private final Map<String, CachedResult> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    private final List<Grammar> grammars = new ArrayList<>();
+
+    /**
+     * Constructs a parser that resolves relative dates against the given clock
+     *
+     * @param clock the clock that decides what "today" is
+     */
+    DateTimeParser(Clock clock) {
+        this.clock = clock;
+        grammars.add(this::parseIsoDateWithTime);
+        grammars.add(this::parseDayMonthYear);
+        grammars.add(this::parseMonthDay);
+        grammars.add(this::parseDayMonth);
+        grammars.add(this::parseRelativeDay);
+        grammars.add(this::parseNext);
+        grammars.add(this::parseInPeriod);
+    }
+
+    /**
+     * Parses date/time text
+     *
+     * @param input the trimmed input
+     * @return a LocalDateTime if the input has a time, a LocalDate if it is a date only,
+     *     or null if it is not a recognized date
+     */
+    Temporal parse(String input) {
+        Temporal iso = IsoDateTimeScanner.scan(input);
+        if (iso != null) {
+            return iso;
+        }
+
+        LocalDate today = LocalDate.now(clock);
+        synchronized (cache) {
+            CachedResult cached = cache.get(input);
+            if (cached != null && (cached.resolvedOn == null || cached.resolvedOn.equals(today))) {
+                return cached.value;
+            }
+        }
+
+        Resolution resolution = new Resolution(today);
+        String normalized = input.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        Temporal value = null;
+        for (Grammar grammar : grammars) {
+            value = grammar.parse(normalized, resolution);
+            if (value != null) {
+                break;
+            }
+        }
+
+        synchronized (cache) {
+            cache.put(input, new CachedResult(value, resolution.isRelative ? today : null));
+        }
+        return value;
+    }
+
+    private Temporal parseIsoDateWithTime(String input, Resolution resolution) {
+        Matcher matcher = ISO_DATE_WITH_TIME.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDate date = toDate(toInt(matcher.group(1)), toInt(matcher.group(2)), toInt(matcher.group(3)));
+        return withTime(date, matcher.group(4));
+    }
+
+    private Temporal parseDayMonthYear(String input, Resolution resolution) {
+        Matcher matcher = DAY_MONTH_YEAR.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDate date = toDate(toInt(matcher.group(3)), toInt(matcher.group(2)), toInt(matcher.group(1)));
+        return withTime(date, matcher.group(4));
+    }
+
+    private Temporal parseMonthDay(String input, Resolution resolution) {
+        Matcher matcher = MONTH_DAY.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDate date = toDateInYear(MONTH_NUMBERS.get(matcher.group(1)), toInt(matcher.group(2)),
+                matcher.group(3), resolution);
+        return withTime(date, matcher.group(4));
+    }
+
+    private Temporal parseDayMonth(String input, Resolution resolution) {
+        Matcher matcher = DAY_MONTH.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDate date = toDateInYear(MONTH_NUMBERS.get(matcher.group(2)), toInt(matcher.group(1)),
+                matcher.group(3), resolution);
+        return withTime(date, matcher.group(4));
+    }
+
+    private Temporal parseRelativeDay(String input, Resolution resolution) {
+        Matcher matcher = RELATIVE_DAY.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        resolution.isRelative = true;
+        LocalDate date;
+        switch (matcher.group(1)) {
+        case "yesterday":
+            date = resolution.today.minusDays(1);
+            break;
+        case "tomorrow":
+        case "tmr":
+            date = resolution.today.plusDays(1);
+            break;
+        default:
+            date = resolution.today;
+            break;
+        }
+        return withTime(date, matcher.group(2));
+    }
+
+    private Temporal parseNext(String input, Resolution resolution) {
+        Matcher matcher = NEXT.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        resolution.isRelative = true;
+        String unit = matcher.group(1);
+        LocalDate date;
+        if (unit.equals("week")) {
+            date = resolution.today.plusWeeks(1);
+        } else if (unit.equals("month")) {
+            date = resolution.today.plusMonths(1);
+        } else {
+            date = resolution.today.with(TemporalAdjusters.next(DAYS_OF_WEEK.get(unit)));
+        }
+        return withTime(date, matcher.group(2));
+    }
+
+    private Temporal parseInPeriod(String input, Resolution resolution) {
+        Matcher matcher = IN_PERIOD.matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        resolution.isRelative = true;
+        int amount = toInt(matcher.group(1));
+        String unit = matcher.group(2);
+        if (unit.startsWith("day")) {
+            return resolution.today.plusDays(amount);
+        } else if (unit.startsWith("week")) {
+            return resolution.today.plusWeeks(amount);
+        }
+        return resolution.today.plusMonths(amount);
+    }
+
+    /**
+     * Resolves a month and day to a date. Without an explicit year, the next occurrence
+     * on or after today is used, which makes the result depend on today's date.
+     */
+    private static LocalDate toDateInYear(int month, int day, String year, Resolution resolution) {
+        if (year != null) {
+            return toDate(toInt(year), month, day);
+        }
+        resolution.isRelative = true;
+        LocalDate date = toDate(resolution.today.getYear(), month, day);
+        if (date != null && date.isBefore(resolution.today)) {
+            date = toDate(resolution.today.getYear() + 1, month, day);
+        }
+        return date;
+    }
+
+    private static LocalDate toDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || !YearMonth.of(year, month).isValidDay(day)) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Combines a date with optional time text
+     *
+     * @return the date if there is no time text, the date-time if the time is valid, or null otherwise
+     */
+    private static Temporal withTime(LocalDate date, String timeText) {
+        if (date == null) {
+            return null;
+        }
+        if (timeText == null) {
+            return date;
+        }
+        LocalTime time = parseTime(timeText);
+        return time == null ? null : LocalDateTime.of(date, time);
+    }
+
+    /**
+     * Parses 2pm, 2:30 pm, 14:00 or 1400
+     *
+     * @param text the time in lower case, with single spaces
+     * @return the time, or null if the text is not a valid time
+     */
+    static LocalTime parseTime(String text) {
+        Matcher twelveHour = TWELVE_HOUR_TIME.matcher(text);
+        if (twelveHour.matches()) {
+            int hour = toInt(twelveHour.group(1));
+            int minute = twelveHour.group(2) == null ? 0 : toInt(twelveHour.group(2));
+            if (hour < 1 || hour > 12 || minute > 59) {
+                return null;
+            }
+            boolean isAfternoon = twelveHour.group(3).equals("pm");
+            return LocalTime.of(hour % 12 + (isAfternoon ? 12 : 0), minute);
+        }
+        Matcher twentyFourHour = TWENTY_FOUR_HOUR_TIME.matcher(text);
+        if (twentyFourHour.matches()) {
+            boolean hasColon = twentyFourHour.group(1) != null;
+            int hour = toInt(hasColon ? twentyFourHour.group(1) : twentyFourHour.group(3));
+            int minute = toInt(hasColon ? twentyFourHour.group(2) : twentyFourHour.group(4));
+            return hour > 23 || minute > 59 ? null : LocalTime.of(hour, minute);
+        }
+        return null;
+    }
+
+    private static int toInt(String digits) {
+        return Integer.parseInt(digits);
+    }
+
+    private static int monthNumberOf(String name) {
+        String[] shortNames = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+        for (int i = 0; i < shortNames.length; i++) {
+            if (name.startsWith(shortNames[i])) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unknown month: " + name);
+    }
+
+    /**
+     * One grammar in the cascade
+     */
+    private interface Grammar {
+        /**
+         * Parses normalized (lower-case, single-spaced) input
+         *
+         * @return the parsed value, or null if the input does not match this grammar
+         */
+        Temporal parse(String input, Resolution resolution);
+    }
+
+    /**
+     * Context for parsing one input: what today is, and whether the result ended up depending on it
+     */
+    private static class Resolution {
+        private final LocalDate today;
+        private boolean isRelative;
+
+        Resolution(LocalDate today) {
+            this.today = today;
+        }
+    }
+
+    /**
+     * A memoized parse result; null value means the input is not a date
+     */
+    private static class CachedResult {
+        private final Temporal value;
+        private final LocalDate resolvedOn; // null if the value does not depend on today's date
+
+        CachedResult(Temporal value, LocalDate resolvedOn) {
+            this.value = value;
+            this.resolvedOn = resolvedOn;
+        }
+    }
+}
@@ -4,8 +4,11 @@ import zen.exception.ZenException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.temporal.Temporal;
+import java.util.Locale;
 
 /**
  * A flexible datetime container that can store and handle different variants of date/time:
@@ -15,18 +18,26 @@ import java.time.format.DateTimeParseException;
  * <p>
  * This class automatically attempts to parse input strings into the most appropriate type
  * and provides consistent formatting and access methods.
+ * <p>
+ * Parsed values are held as a single long: the epoch second of the (local) date-time, shifted left by one bit,
+ * with the lowest bit as a precision tag (0 for a date, 1 for a date and time). Comparing two parsed values
+ * is therefore a single long comparison, and a date sorts just before a date-time at midnight on that day.
+ * Fractions of a second are dropped, since dates are only ever shown and saved to the minute.
  */
-public class FlexibleDateTime {
+public class FlexibleDateTime implements Comparable<FlexibleDateTime> {
 
     // Formatters
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("MMM d yyyy, h:mm a");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM d yyyy");
-    // Storage variants
-    private LocalDateTime dateTime;
-    private LocalDate date;
+    private static final long DATE_TIME_TAG = 1L;
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    // Epoch-encoded value with precision tag; unused for the string fallback
+    private long epochKey;
+    // String fallback, null if the input was parsed
     private String stringValue;
-    // Type tracking
-    private DateTimeType type;
+    // Formatted text of a parsed value, rendered on first use
+    private String formatted;
 
     /**
      * Constructor that attempts to parse the input string into the most appropriate type
@@ -43,44 +54,155 @@ public class FlexibleDateTime {
         parseInput(input.trim());
     }
 
+    private FlexibleDateTime(long epochKey) {
+        this.epochKey = epochKey;
+    }
+
+    /**
+     * Creates a value holding a date and time
+     *
+     * @param dateTime the date and time
+     * @return the value
+     */
+    public static FlexibleDateTime of(LocalDateTime dateTime) {
+        return new FlexibleDateTime(dateTime.toEpochSecond(ZoneOffset.UTC) << 1 | DATE_TIME_TAG);
+    }
+
+    /**
+     * Creates a value holding a date only
+     *
+     * @param date the date
+     * @return the value
+     */
+    public static FlexibleDateTime of(LocalDate date) {
+        return new FlexibleDateTime(date.toEpochDay() * SECONDS_PER_DAY << 1);
+    }
+
+    /**
+     * Parses a time of day on its own, such as the "4pm" ending an event that starts at 2pm on the same day
+     *
+     * @param text the time, e.g. "4pm", "4:30 PM" or "16:30"
+     * @return the time, or null if the text is not a time of day
+     */
+    public static LocalTime parseTimeOfDay(String text) {
+        return DateTimeParser.parseTime(text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " "));
+    }
+
     /**
-     * Attempts to parse the input string into LocalDateTime, LocalDate, or falls back to String
+     * Attempts to parse the input string into LocalDateTime, LocalDate, or falls back to String.
+     * Besides ISO input, this accepts the display format produced by toString, so saved dates
+     * are read back as dates, and the natural forms described in DateTimeParser.
      */
     private void parseInput(String input) {
-        // First try to parse as LocalDateTime (with time)
-        try {
-            this.dateTime = LocalDateTime.parse(input);
-            this.type = DateTimeType.DATE_TIME;
-            return;
-        } catch (DateTimeParseException e) {
-            // Ignore and try next format
+        Temporal parsed = DateTimeParser.DEFAULT.parse(input);
+        if (parsed instanceof LocalDateTime) {
+            this.epochKey = of((LocalDateTime) parsed).epochKey;
+        } else if (parsed instanceof LocalDate) {
+            this.epochKey = of((LocalDate) parsed).epochKey;
+        } else {
+            // Fall back to string storage
+            this.stringValue = input;
+        }
+    }
+
+    /**
+     * Gets which type of datetime is stored
+     *
+     * @return the type derived from the precision tag, or STRING for the string fallback
+     */
+    public DateTimeType getType() {
+        if (stringValue != null) {
+            return DateTimeType.STRING;
+        }
+        return (epochKey & DATE_TIME_TAG) == DATE_TIME_TAG ? DateTimeType.DATE_TIME : DateTimeType.DATE_ONLY;
+    }
+
+    /**
+     * Checks whether this value was parsed into an actual date, as opposed to a free-text fallback
+     *
+     * @return true if the value holds a date or date-time, false for the string fallback
+     */
+    public boolean hasDate() {
+        return stringValue == null;
+    }
+
+    /**
+     * Gets the encoded value used for ordering: the epoch second shifted left by one, tagged with the precision
+     *
+     * @return the epoch key; only meaningful if {@link #hasDate()} is true
+     */
+    public long getEpochKey() {
+        return epochKey;
+    }
+
+    /**
+     * Gets the epoch second this value represents, treating a date as the start of that day
+     *
+     * @return the epoch second; only meaningful if {@link #hasDate()} is true
+     */
+    public long toEpochSecond() {
+        return epochKey >> 1;
+    }
+
+    /**
+     * Converts this value to a LocalDateTime suitable for ordering.
+     * Date-only values are treated as starting at the beginning of the day.
+     *
+     * @return the date-time this value represents, or null for the string fallback
+     */
+    public LocalDateTime toLocalDateTime() {
+        if (stringValue != null) {
+            return null;
         }
+        return LocalDateTime.ofEpochSecond(toEpochSecond(), 0, ZoneOffset.UTC);
+    }
 
-        // Try to parse as LocalDate (date only)
-        try {
-            this.date = LocalDate.parse(input);
-            this.type = DateTimeType.DATE_ONLY;
-            return;
-        } catch (DateTimeParseException e) {
-            // Ignore and fall back to string
+    /**
+     * Orders parsed values chronologically, before all free-text values, which are ordered by their text
+     */
+    @Override
+    public int compareTo(FlexibleDateTime other) {
+        if (stringValue == null && other.stringValue == null) {
+            return Long.compare(epochKey, other.epochKey);
+        } else if (stringValue == null) {
+            return -1;
+        } else if (other.stringValue == null) {
+            return 1;
         }
+        return stringValue.compareTo(other.stringValue);
+    }
 
-        // Fall back to string storage
-        this.stringValue = input;
-        this.type = DateTimeType.STRING;
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof FlexibleDateTime)) {
+            return false;
+        }
+        return compareTo((FlexibleDateTime) other) == 0;
     }
 
+    @Override
+    public int hashCode() {
+        return stringValue == null ? Long.hashCode(epochKey) : stringValue.hashCode();
+    }
+
+    /**
+     * Returns the display text. Parsed values are formatted once and the text is cached,
+     * as the value never changes.
+     */
     @Override
     public String toString() {
-        switch (type) {
-        case DATE_TIME:
-            return dateTime.format(DATE_TIME_FORMATTER);
-        case DATE_ONLY:
-            return date.format(DATE_FORMATTER);
-        case STRING:
-        default:
+        if (stringValue != null) {
             return stringValue;
         }
+        if (formatted == null) {
+            formatted = getType() == DateTimeType.DATE_TIME
+                    ? toLocalDateTime().format(DATE_TIME_FORMATTER)
+                    : toLocalDateTime().toLocalDate().format(DATE_FORMATTER);
+        }
+        return formatted;
     }
 
 
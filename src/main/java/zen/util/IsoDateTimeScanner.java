@@ -0,0 +1,109 @@
+package zen.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.Temporal;
+
+/**
+ * Recognizes ISO-8601 local dates (2024-12-25) and date-times (2024-12-25T14:00, optionally with seconds
+ * and a fraction) in a single pass over the input, without throwing exceptions.
+ * Anything else, including dates that have the right shape but do not exist (2024-02-30),
+ * is rejected so the caller can fall back to storing the raw text.
+ * This accepts the same inputs as LocalDate.parse and LocalDateTime.parse with four-digit years,
+ * but free text costs a few character comparisons instead of two thrown DateTimeParseExceptions.
+ */
+final class IsoDateTimeScanner {
+    private static final int DATE_LENGTH = 10; // uuuu-MM-dd
+    private static final int MIN_DATE_TIME_LENGTH = 16; // uuuu-MM-ddTHH:mm
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private IsoDateTimeScanner() {
+    }
+
+    /**
+     * Scans the input as an ISO local date or date-time
+     *
+     * @param input the trimmed input to scan
+     * @return a LocalDateTime or LocalDate if the input is one, or null otherwise
+     */
+    static Temporal scan(CharSequence input) {
+        int length = input.length();
+        if (length != DATE_LENGTH && length < MIN_DATE_TIME_LENGTH) {
+            return null;
+        }
+        if (!isDigits(input, 0, 4) || input.charAt(4) != '-' || !isDigits(input, 5, 7)
+                || input.charAt(7) != '-' || !isDigits(input, 8, 10)) {
+            return null;
+        }
+        int year = toNumber(input, 0, 4);
+        int month = toNumber(input, 5, 7);
+        int day = toNumber(input, 8, 10);
+        if (month < 1 || month > 12 || !YearMonth.of(year, month).isValidDay(day)) {
+            return null;
+        }
+        if (length == DATE_LENGTH) {
+            return LocalDate.of(year, month, day);
+        }
+        return scanTime(input, year, month, day);
+    }
+
+    /**
+     * Scans the THH:mm[:ss[.fffffffff]] part that follows a valid date
+     */
+    private static LocalDateTime scanTime(CharSequence input, int year, int month, int day) {
+        int length = input.length();
+        char separator = input.charAt(10);
+        if ((separator != 'T' && separator != 't') || !isDigits(input, 11, 13) || input.charAt(13) != ':'
+                || !isDigits(input, 14, 16)) {
+            return null;
+        }
+        int hour = toNumber(input, 11, 13);
+        int minute = toNumber(input, 14, 16);
+        int second = 0;
+        int nano = 0;
+
+        int position = 16;
+        if (position < length) {
+            if (input.charAt(position) != ':' || position + 3 > length
+                    || !isDigits(input, position + 1, position + 3)) {
+                return null;
+            }
+            second = toNumber(input, position + 1, position + 3);
+            position += 3;
+        }
+        if (position < length) {
+            int fractionDigits = length - position - 1;
+            if (input.charAt(position) != '.' || fractionDigits > MAX_FRACTION_DIGITS
+                    || !isDigits(input, position + 1, length)) {
+                return null;
+            }
+            nano = toNumber(input, position + 1, length);
+            for (int i = fractionDigits; i < MAX_FRACTION_DIGITS; i++) {
+                nano *= 10;
+            }
+        }
+        if (hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    private static boolean isDigits(CharSequence input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toNumber(CharSequence input, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (input.charAt(i) - '0');
+        }
+        return number;
+    }
+}
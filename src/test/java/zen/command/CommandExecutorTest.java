@@ -0,0 +1,171 @@
+package zen.command;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.storage.Storage;
+import zen.task.TaskList;
+import zen.ui.Ui;
+
+/**
+ * JUnit tests for the CommandExecutor class
+ */
+public class CommandExecutorTest {
+    private final String baseName = "zen-executor-test-" + System.nanoTime();
+    private final Storage storage = new Storage(baseName + ".txt");
+    private final TaskList tasks = new TaskList();
+    private final CommandExecutor executor = new CommandExecutor(tasks, storage, null);
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get("data"), baseName + "*")) {
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void executeCommandForGui_repeatedFind_isCachedUnlessSearchingArchive() throws ZenException {
+        executor.executeCommandForGui("todo read old book");
+        executor.executeCommandForGui("mark 1");
+        executor.executeCommandForGui("archive");
+        executor.executeCommandForGui("todo read new book");
+
+        String response = executor.executeCommandForGui("find book");
+        assertEquals(response, executor.executeCommandForGui("find book"));
+        assertEquals(1, executor.getResponseCache().getHitCount());
+
+        assertTrue(executor.executeCommandForGui("find --archive book").contains("read old book"));
+        assertTrue(executor.executeCommandForGui("find --archive book").contains("read old book"));
+        assertEquals(1, executor.getResponseCache().getHitCount());
+        assertEquals(1, executor.getResponseCache().getMissCount());
+        assertTrue(executor.executeCommandForGui("storage").contains("Response cache: 1 responses, 1 hits, 1 misses"));
+    }
+
+    @Test
+    public void executeCommand_consoleAndGui_showSameResult() throws ZenException {
+        String[] commands = {"todo read book /p 2", "deadline return book /by 2024-12-25", "list", "mark 1",
+            "find book", "priority 2 /p 1", "top", "ready", "sort description", "list 1 1", "undo", "delete 2"};
+        Ui ui = new Ui();
+        CommandExecutor consoleExecutor = new CommandExecutor(new TaskList(), new Storage(baseName + "-console.txt"),
+                ui);
+        PrintStream standardOutput = System.out;
+        for (String command : commands) {
+            ByteArrayOutputStream console = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+            try {
+                consoleExecutor.executeCommand(command);
+                ui.flush();
+            } finally {
+                System.setOut(standardOutput);
+            }
+            assertEquals(toLines(executor.executeCommandForGui(command)),
+                    toLines(console.toString(StandardCharsets.UTF_8)), command);
+        }
+    }
+
+    @Test
+    public void runScript_failsHalfway_leavesListAndFileUntouched() throws ZenException, IOException {
+        executor.executeCommandForGui("todo read book");
+        Path dataFile = Paths.get("data", baseName + ".txt");
+        byte[] saved = Files.readAllBytes(dataFile);
+        Path script = Files.createTempFile("zen-script", ".txt");
+        try {
+            Files.write(script, Arrays.asList("todo write essay", "mark 1", "delete 9", "todo never added"));
+            ZenException error = assertThrows(ZenException.class, () -> executor.executeCommandForGui("run " + script));
+
+            assertTrue(error.getMessage().contains("Line 3"));
+            assertEquals(1, tasks.size());
+            assertFalse(tasks.getTask(0).isDone());
+            assertArrayEquals(saved, Files.readAllBytes(dataFile));
+        } finally {
+            Files.delete(script);
+        }
+    }
+
+    @Test
+    public void runScript_succeeds_isUndoneInOneStep() throws ZenException, IOException {
+        executor.executeCommandForGui("todo read book");
+        Path script = Files.createTempFile("zen-script", ".txt");
+        try {
+            Files.write(script, Arrays.asList("# plan the week", "todo write essay", "", "mark 1", "delete 1"));
+            executor.executeCommandForGui("run " + script);
+            assertEquals(1, tasks.size());
+            assertEquals("write essay", tasks.getTask(0).getDescription());
+
+            executor.executeCommandForGui("undo");
+            assertEquals(1, tasks.size());
+            assertEquals("read book", tasks.getTask(0).getDescription());
+            assertFalse(tasks.getTask(0).isDone());
+            assertEquals(1, new Storage(baseName + ".txt").load().size());
+
+            executor.executeCommandForGui("redo");
+            assertEquals("write essay", tasks.getTask(0).getDescription());
+        } finally {
+            Files.delete(script);
+        }
+    }
+
+    @Test
+    public void archive_archiveCannotBeWritten_putsTasksBackAndKeepsHistory() throws ZenException, IOException {
+        executor.executeCommandForGui("todo read book");
+        executor.executeCommandForGui("todo write essay");
+        executor.executeCommandForGui("mark 1");
+        Files.createDirectories(Paths.get("data", baseName + "-archive.txt"));
+
+        assertThrows(ZenException.class, () -> executor.executeCommandForGui("archive"));
+        assertEquals(2, tasks.size());
+        assertTrue(tasks.getTask(0).isDone());
+
+        executor.executeCommandForGui("undo");
+        assertFalse(tasks.getTask(0).isDone());
+        assertEquals(tasks.getTasks().toString(), new Storage(baseName + ".txt").load().toString());
+    }
+
+    @Test
+    public void sort_listLongerThanRun_sortsOnDiskAndUndoes() throws ZenException {
+        for (String description : new String[] {"c", "a", "d", "b"}) {
+            executor.executeCommandForGui("todo " + description);
+        }
+        executor.setSortRunSize(2);
+
+        executor.executeCommandForGui("sort description");
+        assertEquals("a", tasks.getTask(0).getDescription());
+        assertEquals(tasks.getTasks().toString(), new Storage(baseName + ".txt").load().toString());
+
+        executor.executeCommandForGui("undo");
+        assertEquals("c", tasks.getTask(0).getDescription());
+        assertEquals(tasks.getTasks().toString(), new Storage(baseName + ".txt").load().toString());
+    }
+
+    /**
+     * Strips the indentation and blank lines that only the console uses
+     */
+    private static String toLines(String response) {
+        StringBuilder lines = new StringBuilder();
+        for (String line : response.split("\\R")) {
+            if (!line.trim().isEmpty()) {
+                lines.append(line.trim()).append('\n');
+            }
+        }
+        return lines.toString();
+    }
+}
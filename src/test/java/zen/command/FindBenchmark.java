@@ -0,0 +1,53 @@
+package zen.command;
+
+import zen.exception.ZenException;
+import zen.storage.Storage;
+import zen.task.TaskList;
+import zen.task.Todo;
+
+/**
+ * Measures how long a find takes through the GUI path, from the typed command to the rendered response.
+ * Not a JUnit test: run it with gradlew benchmark -Pbenchmark=zen.command.FindBenchmark
+ * The list changes before every find, so the response cache never answers and each find is executed
+ * and rendered in full.
+ */
+public class FindBenchmark {
+    private static final int TASK_COUNT = 20_000;
+    private static final int WARM_UP_FINDS = 300;
+    private static final int MEASURED_FINDS = 1_000;
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark, printing microseconds per find
+     *
+     * @param args not used
+     * @throws ZenException if a command fails
+     */
+    public static void main(String[] args) throws ZenException {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.addTask(new Todo((i % 7 == 0 ? "write report " : "read book ") + i));
+        }
+        CommandExecutor executor = new CommandExecutor(tasks, new Storage("zen-find-benchmark.txt"), null);
+        for (int round = 1; round <= ROUNDS; round++) {
+            runFinds(tasks, executor, WARM_UP_FINDS);
+            long startTime = System.nanoTime();
+            runFinds(tasks, executor, MEASURED_FINDS);
+            long nanos = System.nanoTime() - startTime;
+            System.out.printf("Round %d: %.1f us/find over %d tasks%n", round,
+                    nanos / 1000.0 / MEASURED_FINDS, TASK_COUNT);
+        }
+    }
+
+    private static void runFinds(TaskList tasks, CommandExecutor executor, int count) throws ZenException {
+        for (int i = 0; i < count; i++) {
+            // Changes the list so the find is not answered from the cache
+            if (tasks.getTask(0).isDone()) {
+                tasks.unmarkTask(0);
+            } else {
+                tasks.markTask(0);
+            }
+            executor.executeCommandForGui("find report");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package zen.command;
+
+import java.lang.management.ManagementFactory;
+
+import zen.exception.ZenException;
+
+/**
+ * Measures the bytes allocated and the time taken to parse the commands that take flags.
+ * Not a JUnit test: run it with gradlew benchmark -Pbenchmark=zen.command.ParserBenchmark
+ * Each command is parsed ITERATIONS times to warm up and then ITERATIONS times measured, for ROUNDS rounds;
+ * allocation is read from the HotSpot per-thread counter, so the figures include the tasks and dates created.
+ */
+public class ParserBenchmark {
+    private static final int ITERATIONS = 200_000;
+    private static final int ROUNDS = 5;
+
+    private static Object sink;
+
+    /**
+     * Runs the benchmark, printing bytes and nanoseconds per parsed command
+     *
+     * @param args not used
+     * @throws ZenException if a benchmarked command does not parse
+     */
+    public static void main(String[] args) throws ZenException {
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("Round " + round);
+            measure("todo", "todo read book /p 2",
+                    command -> Parser.parsePriority(Parser.parseFlags(Parser.parseCommandLine(command))));
+            measure("deadline", "deadline return book /by 2024-12-25 /p 1",
+                    command -> Parser.parseDeadline(Parser.parseFlags(Parser.parseCommandLine(command))));
+            measure("event", "event project meeting /from 2024-12-20 2pm /to 2024-12-20 4pm",
+                    command -> Parser.parseEvent(Parser.parseFlags(Parser.parseCommandLine(command))));
+            measure("agenda", "agenda /from 2024-12-16 /to 2024-12-22",
+                    command -> Parser.parseAgendaPeriod(Parser.parseCommandLine(command).getArguments()));
+        }
+    }
+
+    private static void measure(String label, String command, ParseFunction parse) throws ZenException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = parse.apply(command);
+        }
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = parse.apply(command);
+        }
+        long nanos = System.nanoTime() - startTime;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+        System.out.printf("  %-8s %6.0f B/op %6.0f ns/op%n", label,
+                (double) bytes / ITERATIONS, (double) nanos / ITERATIONS);
+    }
+
+    /**
+     * Parses a command into whatever the parser under test returns
+     */
+    private interface ParseFunction {
+        Object apply(String command) throws ZenException;
+    }
+}
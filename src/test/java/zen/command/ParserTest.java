@@ -1,9 +1,18 @@
 package zen.command;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 import org.junit.jupiter.api.Test;
 
+import zen.exception.ZenException;
+
 /**
  * JUnit tests for the Parser class
  */
@@ -20,6 +29,35 @@ public class ParserTest {
         assertEquals(Parser.CommandType.EMPTY, Parser.parseCommand(null));
     }
 
+    @Test
+    public void parseCommandLine_keywordsAndArguments_matchesWholeKeywordOnly() {
+        CommandLine commandLine = Parser.parseCommandLine("  mark   2  ");
+        assertEquals(Parser.CommandType.MARK, commandLine.getType());
+        assertEquals("2", commandLine.getArguments().toString());
+        assertEquals(1, Parser.parseTaskIndex(commandLine.getArguments()));
+
+        assertEquals(Parser.CommandType.TODO_EMPTY, Parser.parseCommand("todo  "));
+        assertEquals(Parser.CommandType.UNKNOWN, Parser.parseCommand("mark"));
+        assertEquals(Parser.CommandType.UNKNOWN, Parser.parseCommand("todos read"));
+        assertEquals(Parser.CommandType.UNKNOWN, Parser.parseCommand("to"));
+        assertEquals(Parser.CommandType.UNKNOWN, Parser.parseCommand("help me"));
+        assertEquals(Parser.CommandType.EMPTY, Parser.parseCommand("   "));
+        assertEquals(3, Parser.parseCount(Parser.parseCommandLine("top 3").getArguments(), 5));
+        assertEquals(5, Parser.parseCount(Parser.parseCommandLine("top").getArguments(), 5));
+    }
+
+    @Test
+    public void parseListPage_pageAndOptionalSize_returnsPage() {
+        assertArrayEquals(new int[] {3, Parser.DEFAULT_PAGE_SIZE},
+                Parser.parseListPage(Parser.parseCommandLine("list 3").getArguments()));
+        assertArrayEquals(new int[] {2, 50},
+                Parser.parseListPage(Parser.parseCommandLine("list  2   50 ").getArguments()));
+        assertNull(Parser.parseListPage(Parser.parseCommandLine("list all").getArguments()));
+        assertNull(Parser.parseListPage(Parser.parseCommandLine("list 0").getArguments()));
+        assertNull(Parser.parseListPage(Parser.parseCommandLine("list 2 0").getArguments()));
+        assertNull(Parser.parseListPage(Parser.parseCommandLine("list 2 50 7").getArguments()));
+    }
+
     @Test
     public void parseTaskIndex_validAndInvalidInputs_returnsCorrectResult() {
         // Test valid indices (converts from 1-based to 0-based)
@@ -31,4 +69,107 @@ public class ParserTest {
         assertEquals(-1, Parser.parseTaskIndex("mark 0", "mark "));
         assertEquals(-1, Parser.parseTaskIndex("mark ", "mark "));
     }
+
+    @Test
+    public void parseCount_validAndInvalidInputs_returnsCorrectResult() {
+        assertEquals(Parser.CommandType.NEXT, Parser.parseCommand("next"));
+        assertEquals(Parser.CommandType.NEXT, Parser.parseCommand("next 3"));
+
+        assertEquals(5, Parser.parseCount(Parser.parseCommandLine("next").getArguments(), 5));
+        assertEquals(3, Parser.parseCount(Parser.parseCommandLine("next 3").getArguments(), 5));
+        assertEquals(-1, Parser.parseCount(Parser.parseCommandLine("next 0").getArguments(), 5));
+        assertEquals(-1, Parser.parseCount(Parser.parseCommandLine("top none").getArguments(), 5));
+    }
+
+    @Test
+    public void parseAgendaPeriod_validAndInvalidInputs_returnsCorrectResult() throws ZenException {
+        LocalDateTime[] period = Parser.parseAgendaPeriod(argumentsOf("agenda /from 2024-12-16 /to 2024-12-22"));
+        assertEquals(LocalDateTime.of(2024, 12, 16, 0, 0), period[0]);
+        assertEquals(LocalDateTime.of(2024, 12, 23, 0, 0), period[1]);
+
+        period = Parser.parseAgendaPeriod(argumentsOf("agenda /from 2024-12-16 9am"));
+        assertEquals(LocalDateTime.of(2024, 12, 23, 9, 0), period[1]);
+
+        assertNull(Parser.parseAgendaPeriod(argumentsOf("agenda /from 2024-12-22 /to 2024-12-16")));
+        assertNull(Parser.parseAgendaPeriod(argumentsOf("agenda /from someday")));
+        assertNull(Parser.parseAgendaPeriod(argumentsOf("agenda soon")));
+    }
+
+    @Test
+    public void parseFreeQuery_validAndInvalidInputs_returnsCorrectResult() throws ZenException {
+        assertEquals(Duration.ofMinutes(90),
+                Parser.parseFreeDuration(argumentsOf("free 1h 30m /between 2024-12-16 2024-12-17")));
+        assertEquals(Duration.ofHours(2), Parser.parseFreeDuration(argumentsOf("free 2 hours")));
+        assertNull(Parser.parseFreeDuration(argumentsOf("free 2x")));
+        assertNull(Parser.parseFreeDuration(argumentsOf("free 0h")));
+        assertEquals(Duration.ofMinutes(90), Parser.parseFreeDuration(argumentsOf("free 1H 30Mins")));
+
+        LocalDateTime[] period = Parser.parseFreePeriod(argumentsOf("free 2h /between 2024-12-16 9am 2024-12-20"));
+        assertEquals(LocalDateTime.of(2024, 12, 16, 9, 0), period[0]);
+        assertEquals(LocalDateTime.of(2024, 12, 21, 0, 0), period[1]);
+        period = Parser.parseFreePeriod(argumentsOf("free 2h /between 2024-12-16 and 2024-12-20 5pm"));
+        assertEquals(LocalDateTime.of(2024, 12, 16, 0, 0), period[0]);
+        assertEquals(LocalDateTime.of(2024, 12, 20, 17, 0), period[1]);
+        assertNull(Parser.parseFreePeriod(argumentsOf("free 2h /between 2024-12-20 2024-12-16")));
+        assertNull(Parser.parseFreePeriod(argumentsOf("free 2h /between 2024-12-16 /between 2024-12-20")));
+        assertNull(Parser.parseFreePeriod(argumentsOf("free 2h /between next week")));
+    }
+
+    @Test
+    public void parseEvent_flagsInAnyOrder_returnsSameEvent() throws ZenException {
+        String expected = "[E][ ] meeting (from: Dec 20 2024, 2:00 PM to: Dec 20 2024, 4:00 PM)";
+        assertEquals(expected,
+                Parser.parseEvent(flagsOf("event meeting /from 2024-12-20 2pm /to 2024-12-20 4pm")).toString());
+        assertEquals(expected,
+                Parser.parseEvent(flagsOf("event meeting /to 2024-12-20 4pm /from 2024-12-20 2pm")).toString());
+        assertNull(Parser.parseEvent(flagsOf("event meeting /from 2024-12-20 2pm")));
+        assertNull(Parser.parseEvent(flagsOf("event meeting /from Mon /to Tue /to Wed")));
+        assertEquals("[D][ ] read a/b (by: Sunday)",
+                Parser.parseDeadline(flagsOf("deadline read a/b /by Sunday /p 2")).toString());
+
+        FlagScanner.Fields fields = new FlagScanner("p", "tag").scan("read /pages 2 /tag home /p 1");
+        assertEquals("read /pages 2", fields.getLeadingText());
+        assertEquals("home", fields.get("tag"));
+        assertEquals("1", fields.getSpan("p").toString());
+    }
+
+    @Test
+    public void parseFindKeyword_archiveFlag_searchesArchive() {
+        CharSequence arguments = Parser.parseCommandLine("find --archive old book").getArguments();
+        assertTrue(Parser.isArchiveSearch(arguments));
+        assertEquals("old book", Parser.parseFindKeyword(arguments));
+        arguments = Parser.parseCommandLine("find --archived").getArguments();
+        assertFalse(Parser.isArchiveSearch(arguments));
+        assertEquals("--archived", Parser.parseFindKeyword(arguments));
+    }
+
+    @Test
+    public void parseDependency_validAndInvalidInputs_returnsCorrectResult() {
+        int[] indexes = Parser.parseDependency(Parser.parseCommandLine("depend 3 /on 1"));
+        assertEquals(2, indexes[0]);
+        assertEquals(0, indexes[1]);
+        assertEquals(Parser.CommandType.UNDEPEND, Parser.parseCommand("undepend 3 /on 1"));
+        assertEquals(Parser.CommandType.READY, Parser.parseCommand("ready"));
+        assertNull(Parser.parseDependency(Parser.parseCommandLine("depend /on 1")));
+        assertNull(Parser.parseDependency(Parser.parseCommandLine("depend 3 on 1")));
+        assertNull(Parser.parseDependency(Parser.parseCommandLine("depend 3 /on first")));
+    }
+
+    @Test
+    public void parsePriority_validAndInvalidInputs_returnsCorrectResult() {
+        assertEquals(2, Parser.parsePriority(flagsOf("deadline report /p 2 /by Sunday")));
+        assertEquals(0, Parser.parsePriority(flagsOf("todo read /pages 2")));
+        assertEquals("read /pages 2", flagsOf("todo read /pages 2").getLeadingText());
+        assertEquals(-1, Parser.parsePriority(flagsOf("todo read /p high")));
+        assertEquals(-1, Parser.parsePriority(flagsOf("priority 2 /p -1")));
+        assertEquals("2", flagsOf("priority 2 /p 1").getLeadingText());
+    }
+
+    private static CharSequence argumentsOf(String command) {
+        return Parser.parseCommandLine(command).getArguments();
+    }
+
+    private static FlagScanner.Fields flagsOf(String command) {
+        return Parser.parseFlags(Parser.parseCommandLine(command));
+    }
 }
@@ -0,0 +1,37 @@
+package zen.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests for the ResponseCache class
+ */
+public class ResponseCacheTest {
+    private final ResponseCache cache = new ResponseCache(2);
+
+    @Test
+    public void get_afterListChanged_missesUntilRenderedAgain() {
+        cache.put("list", 1, "1.[T][ ] read book");
+        assertEquals("1.[T][ ] read book", cache.get("list", 1));
+        assertNull(cache.get("list", 2));
+
+        cache.put("list", 2, "1.[T][X] read book");
+        assertEquals("1.[T][X] read book", cache.get("list", 2));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void put_beyondCapacity_evictsLeastRecentlyUsed() {
+        cache.put("list", 1, "all");
+        cache.put("find book", 1, "some");
+        cache.get("list", 1);
+        cache.put("top 3", 1, "top");
+
+        assertEquals(2, cache.size());
+        assertEquals("all", cache.get("list", 1));
+        assertNull(cache.get("find book", 1));
+    }
+}
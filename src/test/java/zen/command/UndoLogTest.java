@@ -0,0 +1,126 @@
+package zen.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
+import zen.task.TaskOrder;
+import zen.task.Todo;
+
+/**
+ * JUnit tests for the UndoLog class
+ */
+public class UndoLogTest {
+    private TaskList taskList;
+    private UndoLog undoLog;
+
+    @BeforeEach
+    public void setUp() throws ZenException {
+        taskList = new TaskList();
+        undoLog = new UndoLog(taskList, 2);
+        taskList.addListener(undoLog);
+        taskList.addTask(new Todo("Read book"));
+        taskList.addTask(new Todo("Write report"));
+    }
+
+    @Test
+    public void undo_deleteAndMark_restoresPreviousState() {
+        taskList.deleteTask(0);
+        taskList.markTask(0);
+
+        undoLog.undo();
+        assertFalse(taskList.getTask(0).isDone());
+        undoLog.undo();
+        assertEquals(2, taskList.size());
+        assertEquals("Read book", taskList.getTask(0).getDescription());
+    }
+
+    @Test
+    public void redo_afterUndo_reappliesChange() {
+        taskList.markTask(1);
+        undoLog.undo();
+        assertTrue(undoLog.canRedo());
+
+        undoLog.redo();
+        assertTrue(taskList.getTask(1).isDone());
+        assertFalse(undoLog.canRedo());
+    }
+
+    @Test
+    public void undo_sort_restoresOriginalOrder() throws ZenException {
+        taskList.addTask(new Todo("answer email"));
+        assertTrue(taskList.sortTasks(TaskOrder.DESCRIPTION.getComparator()));
+        assertEquals("answer email", taskList.getTask(0).getDescription());
+        assertEquals("Write report", taskList.getTask(2).getDescription());
+
+        undoLog.undo();
+        assertEquals("Read book", taskList.getTask(0).getDescription());
+        assertEquals("answer email", taskList.getTask(2).getDescription());
+        undoLog.redo();
+        assertEquals("answer email", taskList.getTask(0).getDescription());
+        assertFalse(taskList.sortTasks(TaskOrder.DESCRIPTION.getComparator()));
+    }
+
+    @Test
+    public void onTasksChanged_beyondCapacity_forgetsOldestStep() {
+        taskList.markTask(0);
+        undoLog.undo();
+        undoLog.undo();
+        assertFalse(undoLog.canUndo());
+        assertEquals(1, taskList.size());
+    }
+
+    @Test
+    public void undo_deleteOfBlocker_restoresDependency() {
+        assertTrue(taskList.addDependency(1, taskList.getTask(0)));
+        taskList.deleteTask(0);
+        assertTrue(taskList.getTask(0).getBlockers().isEmpty());
+
+        undoLog.undo();
+        assertEquals(2, taskList.size());
+        assertEquals(taskList.getTask(0), taskList.getTask(1).getBlockers().get(0));
+        undoLog.redo();
+        assertTrue(taskList.getTask(0).getBlockers().isEmpty());
+    }
+
+    @Test
+    public void record_changesMadeWhilePaused_undoneAsOneStep() throws ZenException {
+        List<TaskListEvent> changes = new ArrayList<>();
+        taskList.addListener(changes::addAll);
+        undoLog.pause();
+        taskList.addTask(new Todo("Call mum"));
+        taskList.markTask(0);
+        undoLog.resume();
+
+        undoLog.record(changes);
+        undoLog.undo();
+        assertEquals(2, taskList.size());
+        assertFalse(taskList.getTask(0).isDone());
+        assertTrue(undoLog.canUndo());
+    }
+
+    @Test
+    public void revert_changesMadeWhilePaused_restoresStateWithoutStep() {
+        List<TaskListEvent> changes = new ArrayList<>();
+        taskList.addListener(changes::addAll);
+        undoLog.pause();
+        taskList.deleteTask(1);
+        taskList.markTask(0);
+        undoLog.resume();
+
+        undoLog.revert(new ArrayList<>(changes));
+        assertEquals(2, taskList.size());
+        assertEquals("Write report", taskList.getTask(1).getDescription());
+        assertFalse(taskList.getTask(0).isDone());
+        assertFalse(undoLog.canRedo());
+    }
+}
@@ -0,0 +1,83 @@
+package zen.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.Deadline;
+import zen.task.Event;
+import zen.task.RecurringTask;
+import zen.task.Task;
+import zen.task.TaskList;
+
+/**
+ * JUnit tests for the ReminderScheduler and TimingWheel classes
+ */
+public class ReminderSchedulerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 12, 16, 8, 0);
+
+    @Test
+    public void advanceTo_randomTimeouts_expireInOrderAtTheirTick() {
+        Random random = new Random(42);
+        TimingWheel<Long> wheel = new TimingWheel<>(1_000);
+        List<TimingWheel.Timeout<Long>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long expiry = 1_000 + (long) Math.pow(10, random.nextDouble() * 7);
+            timeouts.add(wheel.schedule(expiry, expiry));
+        }
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            wheel.cancel(timeouts.get(i));
+        }
+        assertEquals(1_000, wheel.size());
+
+        long previousTick = 1_000;
+        long previousExpiry = 0;
+        int fired = 0;
+        for (long tick = 1_000; tick <= 1_000 + 10_000_000; tick += 1 + random.nextInt(5_000)) {
+            for (long expiry : wheel.advanceTo(tick)) {
+                assertTrue(expiry >= previousTick && expiry < tick, "fired at the wrong time: " + expiry);
+                assertTrue(expiry >= previousExpiry, "fired out of order: " + expiry);
+                previousExpiry = expiry;
+                fired++;
+            }
+            previousTick = tick;
+        }
+        assertEquals(1_000, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void onTasksChanged_addMarkAndDelete_schedulesAndCancelsReminders() throws ZenException {
+        List<Task> reminded = new ArrayList<>();
+        ReminderScheduler scheduler = new ReminderScheduler(reminded::add, NOW);
+        TaskList tasks = new TaskList();
+        tasks.addListener(scheduler);
+
+        Task report = new Deadline("Submit report", "2024-12-16 5pm");
+        Task meeting = new Event("Team meeting", "2024-12-16 10am", "2024-12-16 11am");
+        Task overdue = new Deadline("Pay bills", "2024-12-01");
+        Task standup = new RecurringTask("Standup", "2024-12-02 9am", "day");
+        tasks.addTask(report);
+        tasks.addTask(meeting);
+        tasks.addTask(overdue);
+        tasks.addTask(standup);
+        tasks.addTask(new Deadline("Someday", "Sunday"));
+        assertEquals(3, scheduler.size());
+
+        tasks.markTask(1);
+        scheduler.advanceTo(NOW.plusHours(12));
+        assertEquals(List.of(standup, report), reminded);
+
+        tasks.deleteTask(3);
+        scheduler.advanceTo(NOW.plusDays(2));
+        assertEquals(2, reminded.size());
+        assertEquals(0, scheduler.size());
+    }
+}
@@ -0,0 +1,35 @@
+package zen.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.Deadline;
+import zen.task.Event;
+import zen.task.Task;
+
+/**
+ * JUnit tests for the LoadInterner class
+ */
+public class LoadInternerTest {
+
+    @Test
+    public void parseTaskFromLine_repeatedValues_sharesInstances() throws ZenException {
+        Storage storage = new Storage();
+        LoadInterner interner = new LoadInterner();
+        Task first = storage.parseTaskFromLine("E | 0 | standup | Dec 20 2024, 9:00 AM | Dec 20 2024, 9:15 AM",
+                interner);
+        Task second = storage.parseTaskFromLine("E | 1 | standup | Dec 20 2024, 9:00 AM | Dec 20 2024, 9:15 AM",
+                interner);
+        Task deadline = storage.parseTaskFromLine("D | 0 | pay rent | Dec 20 2024, 9:15 AM", interner);
+
+        assertSame(first.getDescription(), second.getDescription());
+        assertSame(((Event) first).getFlexibleFrom(), ((Event) second).getFlexibleFrom());
+        assertSame(((Event) first).getFlexibleTo(), ((Deadline) deadline).getFlexibleBy());
+        assertEquals("[E][X] standup (from: Dec 20 2024, 9:00 AM to: Dec 20 2024, 9:15 AM)", second.toString());
+        assertTrue(interner.getBytesSaved() > 0);
+    }
+}
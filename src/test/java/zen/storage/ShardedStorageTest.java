@@ -0,0 +1,113 @@
+package zen.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.Task;
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
+import zen.task.Todo;
+
+/**
+ * JUnit tests for the ShardedStorage class
+ */
+public class ShardedStorageTest {
+    private final String baseName = "zen-sharded-test-" + System.nanoTime();
+    private final String dataFile = baseName + ".txt";
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get("data"), baseName + "*")) {
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void load_unshardedFile_migratesAndFoldsBack() throws ZenException {
+        new Storage(dataFile).save(createTasks(10));
+
+        assertEquals(describe(createTasks(10)), describe(new ShardedStorage(dataFile, 3).load()));
+        assertFalse(Files.exists(Paths.get("data", dataFile)));
+        assertTrue(Files.exists(Paths.get("data", baseName + ".shard-2.txt")));
+
+        assertEquals(describe(createTasks(10)), describe(new Storage(dataFile).load()));
+        assertTrue(Files.exists(Paths.get("data", dataFile)));
+        assertFalse(Files.exists(Paths.get("data", baseName + ".shard-0.txt")));
+    }
+
+    @Test
+    public void load_fewerShards_foldsExtraShardsIn() throws ZenException {
+        new ShardedStorage(dataFile, 4).save(createTasks(20));
+
+        assertEquals(describe(createTasks(20)), describe(new ShardedStorage(dataFile, 2).load()));
+        assertTrue(Files.exists(Paths.get("data", baseName + ".shard-1.txt")));
+        assertFalse(Files.exists(Paths.get("data", baseName + ".shard-2.txt")));
+        assertFalse(Files.exists(Paths.get("data", baseName + ".shard-3.txt")));
+    }
+
+    @Test
+    public void saveChanges_markOneTask_rewritesOnlyItsShard() throws ZenException {
+        new ShardedStorage(dataFile, 4).save(createTasks(20));
+        ShardedStorage storage = new ShardedStorage(dataFile, 4);
+        TaskList tasks = new TaskList(storage.load());
+        List<TaskListEvent> changes = new ArrayList<>();
+        tasks.addListener(changes::addAll);
+
+        tasks.markTask(7);
+        storage.saveChanges(tasks, changes);
+
+        String description = storage.describe();
+        assertEquals(3, description.split("last save: -", -1).length - 1);
+        assertEquals(describe(tasks.getTasks()), describe(new ShardedStorage(dataFile, 4).load()));
+    }
+
+    @Test
+    public void saveChanges_deleteBeforeDependency_keepsBlockerByKey() throws ZenException {
+        new ShardedStorage(dataFile, 3).save(createTasks(6));
+        ShardedStorage storage = new ShardedStorage(dataFile, 3);
+        TaskList tasks = new TaskList(storage.load());
+        List<TaskListEvent> changes = new ArrayList<>();
+        tasks.addListener(changes::addAll);
+
+        tasks.addDependency(4, tasks.getTask(2));
+        tasks.deleteTask(0);
+        storage.saveChanges(tasks, changes);
+
+        ArrayList<Task> loaded = new ShardedStorage(dataFile, 3).load();
+        assertEquals(5, loaded.size());
+        assertEquals(Collections.singletonList(loaded.get(1)), loaded.get(3).getBlockers());
+        assertEquals("task 2", loaded.get(1).getDescription());
+    }
+
+    private static ArrayList<Task> createTasks(int count) throws ZenException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    private static String describe(List<Task> tasks) {
+        StringBuilder description = new StringBuilder();
+        for (Task task : tasks) {
+            description.append(task).append('\n');
+        }
+        return description.toString();
+    }
+}
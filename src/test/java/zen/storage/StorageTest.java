@@ -0,0 +1,154 @@
+package zen.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.Task;
+import zen.task.TaskList;
+import zen.task.TaskListEvent;
+import zen.task.TaskOrder;
+import zen.task.Todo;
+
+/**
+ * JUnit tests for the incremental saves of the Storage class
+ */
+public class StorageTest {
+    private final String baseName = "zen-storage-test-" + System.nanoTime();
+    private final Path dataPath = Paths.get("data", baseName + ".txt");
+    private final Storage storage = new Storage(baseName + ".txt");
+    private final List<TaskListEvent> changes = new ArrayList<>();
+    private TaskList tasks;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get("data"), baseName + "*")) {
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void saveChanges_tasksAddedAtEnd_appendsThem() throws ZenException, IOException {
+        loadTasks(3);
+        String before = read();
+
+        tasks.addTask(new Todo("task 3"));
+        tasks.addTask(new Todo("task 4"));
+        storage.saveChanges(tasks, changes);
+
+        assertTrue(read().startsWith(before));
+        assertEquals(describe(tasks.getTasks()), describe(storage.load()));
+    }
+
+    @Test
+    public void saveChanges_fileWithoutFinalLineBreak_rewritesInsteadOfJoiningLines()
+            throws ZenException, IOException {
+        loadTasks(2);
+        Files.write(dataPath, read().trim().getBytes(StandardCharsets.UTF_8));
+
+        tasks.addTask(new Todo("task 2"));
+        storage.saveChanges(tasks, changes);
+
+        assertEquals(describe(tasks.getTasks()), describe(storage.load()));
+    }
+
+    @Test
+    public void saveChanges_tasksRemovedFromEnd_truncatesFile() throws ZenException, IOException {
+        loadTasks(4);
+
+        tasks.deleteTask(3);
+        tasks.deleteTask(2);
+        storage.saveChanges(tasks, changes);
+
+        assertEquals(describe(tasks.getTasks()), describe(storage.load()));
+        assertEquals(2, Files.readAllLines(dataPath).size());
+    }
+
+    @Test
+    public void saveChanges_tailEditedByHand_rewritesWholeFile() throws ZenException, IOException {
+        loadTasks(3);
+        Files.write(dataPath, read().replace("task 2", "task 2 edited").getBytes(StandardCharsets.UTF_8));
+
+        tasks.deleteTask(2);
+        storage.saveChanges(tasks, changes);
+
+        assertEquals(describe(tasks.getTasks()), describe(storage.load()));
+    }
+
+    @Test
+    public void saveChanges_taskMarkedInMiddle_rewritesWholeFile() throws ZenException, IOException {
+        loadTasks(3);
+
+        tasks.markTask(1);
+        tasks.addTask(new Todo("task 3"));
+        storage.saveChanges(tasks, changes);
+
+        assertEquals(describe(tasks.getTasks()), describe(storage.load()));
+    }
+
+    @Test
+    public void sort_moreTasksThanOneRun_mergesRunsAndRenumbersBlockers() throws ZenException, IOException {
+        ArrayList<Task> saved = new ArrayList<>();
+        for (String description : new String[] {"e", "b", "d", "a", "c", "b"}) {
+            saved.add(new Todo(description));
+        }
+        saved.get(0).addBlocker(saved.get(3));
+        storage.save(saved);
+
+        int[] permutation = storage.sort(TaskOrder.DESCRIPTION.getComparator(), 2);
+
+        assertArrayEquals(new int[] {3, 1, 5, 4, 2, 0}, permutation);
+        List<Task> sorted = storage.load();
+        StringBuilder descriptions = new StringBuilder();
+        for (Task task : sorted) {
+            descriptions.append(task.getDescription());
+        }
+        assertEquals("abbcde", descriptions.toString());
+        assertEquals(List.of(sorted.get(0)), sorted.get(5).getBlockers());
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get("data"), baseName + "*")) {
+            for (Path path : paths) {
+                assertEquals(dataPath, path);
+            }
+        }
+    }
+
+    /**
+     * Saves a number of tasks, then loads them back into a task list whose changes are collected
+     */
+    private void loadTasks(int count) throws ZenException {
+        ArrayList<Task> saved = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            saved.add(new Todo("task " + i));
+        }
+        storage.save(saved);
+        tasks = new TaskList(storage.load());
+        tasks.addListener(changes::addAll);
+    }
+
+    private String read() throws IOException {
+        return new String(Files.readAllBytes(dataPath), StandardCharsets.UTF_8);
+    }
+
+    private static String describe(List<Task> tasks) {
+        StringBuilder description = new StringBuilder();
+        for (Task task : tasks) {
+            description.append(task).append('\n');
+        }
+        return description.toString();
+    }
+}
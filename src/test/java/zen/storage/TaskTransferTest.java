@@ -0,0 +1,98 @@
+package zen.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.Deadline;
+import zen.task.Event;
+import zen.task.Recurrence;
+import zen.task.RecurringTask;
+import zen.task.Task;
+import zen.task.Todo;
+import zen.util.FlexibleDateTime;
+
+/**
+ * JUnit tests for the TaskTransfer class
+ */
+public class TaskTransferTest {
+    private final TaskTransfer transfer = new TaskTransfer(new Storage());
+
+    @Test
+    public void exportTasks_thenImportTasks_keepsEveryTaskType() throws ZenException, IOException {
+        Todo todo = new Todo("read \"War, and Peace\"");
+        todo.markAsDone();
+        todo.setPriority(2);
+        List<Task> tasks = Arrays.asList(todo, new Deadline("report", "2024-12-20"),
+                new Event("standup", "2024-12-20 9am", "2024-12-20 9:15am"),
+                new RecurringTask("gym", new FlexibleDateTime("2024-12-16 7am"), Recurrence.WEEK));
+
+        for (String extension : new String[] {".csv", ".jsonl"}) {
+            Path file = Files.createTempFile("zen-transfer", extension);
+            try {
+                assertEquals(4, transfer.exportTasks(tasks, file.toString()).getTaskCount());
+                List<Task> imported = new ArrayList<>();
+                TaskTransfer.Report report = transfer.importTasks(file.toString(), imported::addAll);
+
+                assertEquals(4, report.getTaskCount());
+                assertEquals(0, report.getSkippedCount());
+                for (int i = 0; i < tasks.size(); i++) {
+                    assertEquals(tasks.get(i).toString(), imported.get(i).toString());
+                }
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void importTasks_malformedRecords_skipsAndCountsThem() throws ZenException, IOException {
+        Path file = Files.createTempFile("zen-transfer", ".csv");
+        try {
+            Files.write(file, Arrays.asList("description,type,by", "pay rent,deadline,Sunday", "no date,deadline,",
+                    "split | T | 1 | x,todo", "groceries,todo", "\"unclosed,todo"));
+            List<Task> imported = new ArrayList<>();
+            TaskTransfer.Report report = transfer.importTasks(file.toString(), imported::addAll);
+
+            assertEquals(2, report.getTaskCount());
+            assertEquals(3, report.getSkippedCount());
+            assertEquals(3, report.getFirstSkippedLine());
+            assertEquals("[D][ ] pay rent (by: Sunday)", imported.get(0).toString());
+            assertEquals("[T][ ] groceries", imported.get(1).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void importTasks_overlongQuotedRecord_skipsItAsOneRecord() throws ZenException, IOException {
+        Path file = Files.createTempFile("zen-transfer", ".csv");
+        try {
+            List<String> lines = new ArrayList<>(Arrays.asList("description,type,notes",
+                    "pay rent,todo,\"two\nlines\"", "\"long"));
+            for (int i = 0; i < 10_000; i++) {
+                lines.add("line " + i + " of a value that never seems to end");
+            }
+            lines.add("end\",todo,");
+            lines.add("groceries,todo");
+            Files.write(file, lines);
+            List<Task> imported = new ArrayList<>();
+            TaskTransfer.Report report = transfer.importTasks(file.toString(), imported::addAll);
+
+            assertEquals(2, report.getTaskCount());
+            assertEquals(1, report.getSkippedCount());
+            assertEquals("[T][ ] pay rent", imported.get(0).toString());
+            assertEquals("[T][ ] groceries", imported.get(1).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
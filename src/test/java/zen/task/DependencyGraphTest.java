@@ -0,0 +1,36 @@
+package zen.task;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+
+/**
+ * JUnit tests for the DependencyGraph class
+ */
+public class DependencyGraphTest {
+
+    @Test
+    public void link_againstCurrentOrder_reordersOnlyAffectedTasks() throws ZenException {
+        DependencyGraph graph = new DependencyGraph();
+        Task[] chain = new Task[5];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = new Todo("Step " + i);
+        }
+        // Link the chain back to front, so every new link contradicts the order so far
+        for (int i = chain.length - 1; i > 0; i--) {
+            assertTrue(graph.link(chain[i - 1], chain[i]));
+        }
+        for (int i = 1; i < chain.length; i++) {
+            assertTrue(graph.getPosition(chain[i - 1]) < graph.getPosition(chain[i]));
+        }
+        assertFalse(graph.link(chain[4], chain[0]));
+
+        assertTrue(graph.unlink(chain[1], chain[2]));
+        assertTrue(graph.link(chain[4], chain[0]));
+        assertTrue(graph.getPosition(chain[4]) < graph.getPosition(chain[0]));
+        assertTrue(graph.getPosition(chain[0]) < graph.getPosition(chain[1]));
+    }
+}
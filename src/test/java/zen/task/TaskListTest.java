@@ -5,6 +5,12 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -72,4 +78,202 @@ public class TaskListTest {
             taskList.markTask(0);
         });
     }
+
+    @Test
+    public void getUpcomingTasks_mixedTasks_returnsUndoneDatedTasksInDueOrder() throws ZenException {
+        Task late = new Deadline("Submit report", "2024-12-25");
+        Task early = new Event("Team meeting", "2024-12-20T14:00", "2024-12-20T16:00");
+        Task undated = new Deadline("Return book", "Sunday");
+        taskList.addTask(task1);
+        taskList.addTask(late);
+        taskList.addTask(undated);
+        taskList.addTask(early);
+
+        ArrayList<Task> upcoming = taskList.getUpcomingTasks(5);
+        assertEquals(2, upcoming.size());
+        assertEquals(early, upcoming.get(0));
+        assertEquals(late, upcoming.get(1));
+        assertEquals(1, taskList.getUpcomingTasks(1).size());
+    }
+
+    @Test
+    public void getUpcomingTasks_afterMarkAndDelete_updatesIncrementally() throws ZenException {
+        taskList.addTask(new Deadline("First", "2024-01-01"));
+        taskList.addTask(new Deadline("Second", "2024-02-01"));
+        taskList.addTask(new Deadline("Third", "2024-03-01"));
+
+        taskList.markTask(0);
+        assertEquals("Second", taskList.getUpcomingTasks(1).get(0).getDescription());
+
+        taskList.deleteTask(1);
+        assertEquals("Third", taskList.getUpcomingTasks(1).get(0).getDescription());
+
+        taskList.unmarkTask(0);
+        assertEquals("First", taskList.getUpcomingTasks(1).get(0).getDescription());
+    }
+
+    @Test
+    public void listeners_singleAndBatchedChanges_receiveEventsInOrder() throws ZenException {
+        List<List<TaskListEvent>> notifications = new ArrayList<>();
+        taskList.addListener(notifications::add);
+
+        taskList.addTask(task1);
+        taskList.markTask(0);
+        assertEquals(2, notifications.size());
+        assertEquals(TaskListEvent.Kind.MARKED, notifications.get(1).get(0).getKind());
+
+        taskList.beginBatch();
+        taskList.addTask(task2);
+        taskList.deleteTask(0);
+        assertEquals(2, notifications.size());
+        taskList.endBatch();
+
+        assertEquals(3, notifications.size());
+        List<TaskListEvent> batch = notifications.get(2);
+        assertEquals(2, batch.size());
+        assertEquals(TaskListEvent.Kind.ADDED, batch.get(0).getKind());
+        assertEquals(1, batch.get(0).getIndex());
+        assertEquals(TaskListEvent.Kind.REMOVED, batch.get(1).getKind());
+        assertEquals(task1, batch.get(1).getTask());
+    }
+
+    @Test
+    public void removeDoneTasks_withCutoff_removesOnlyOldDoneDatedTasks() throws ZenException {
+        taskList.addTask(task1);
+        taskList.addTask(new Deadline("Old report", "2020-01-01"));
+        taskList.addTask(new Deadline("Future report", "2099-01-01"));
+        taskList.addTask(task2);
+        for (int i = 0; i < 3; i++) {
+            taskList.markTask(i);
+        }
+
+        ArrayList<Task> removed = taskList.removeDoneTasks(LocalDate.of(2024, 1, 1));
+        assertEquals(1, removed.size());
+        assertEquals("Old report", removed.get(0).getDescription());
+
+        removed = taskList.removeDoneTasks(null);
+        assertEquals(2, removed.size());
+        assertEquals(1, taskList.size());
+        assertEquals(task2, taskList.getTask(0));
+    }
+
+    @Test
+    public void toString_afterMarkAndUnmark_patchesCachedDoneMarker() throws ZenException {
+        Task event = new Event("Team meeting", "2024-12-20T14:00", "2024-12-20T16:00");
+        taskList.addTask(event);
+        String undone = "[E][ ] Team meeting (from: Dec 20 2024, 2:00 PM to: Dec 20 2024, 4:00 PM)";
+        assertEquals(undone, event.toString());
+
+        taskList.markTask(0);
+        assertEquals("[E][X] Team meeting (from: Dec 20 2024, 2:00 PM to: Dec 20 2024, 4:00 PM)", event.toString());
+        taskList.unmarkTask(0);
+        assertEquals(undone, event.toString());
+        assertEquals("[D][ ] Submit report (by: Sunday)", new Deadline("Submit report", "Sunday").toString());
+    }
+
+    @Test
+    public void getAgenda_recurringAndConcreteTasks_mergesOccurrencesInPeriod() throws ZenException {
+        Task standup = new RecurringTask("Standup", "2024-12-02T09:00", "week");
+        Task report = new Deadline("Submit report", "2024-12-18");
+        Task rent = new RecurringTask("Pay rent", "2024-01-31", "month");
+        taskList.addTask(standup);
+        taskList.addTask(report);
+        taskList.addTask(rent);
+        taskList.addTask(new Deadline("Too late", "2025-01-01"));
+
+        List<AgendaEntry> agenda = taskList.getAgenda(LocalDateTime.of(2024, 12, 16, 0, 0),
+                LocalDateTime.of(2025, 1, 1, 0, 0));
+        assertEquals(5, agenda.size());
+        assertEquals("Dec 16 2024, 9:00 AM", agenda.get(0).getTime().toString());
+        assertEquals(report, agenda.get(1).getTask());
+        assertEquals("Dec 23 2024, 9:00 AM", agenda.get(2).getTime().toString());
+        assertEquals(standup, agenda.get(3).getTask());
+        assertEquals("Dec 31 2024", agenda.get(4).getTime().toString());
+        assertEquals(rent, agenda.get(4).getTask());
+    }
+
+    @Test
+    public void findFreeSlots_overlappingEvents_returnsLongEnoughGaps() throws ZenException {
+        taskList.addTask(new Event("Long workshop", "2024-12-15 8pm", "2024-12-16 10am"));
+        taskList.addTask(new Event("Sync", "2024-12-16 11am", "12pm"));
+        taskList.addTask(new Event("Review", "2024-12-16 11:30am", "2024-12-16 1pm"));
+        taskList.addTask(new Event("Call", "2024-12-16 2pm", "2024-12-16 2:30pm"));
+        taskList.addTask(new Event("Offsite", "Sunday", "Monday"));
+
+        List<FreeSlot> slots = taskList.findFreeSlots(Duration.ofHours(1), LocalDateTime.of(2024, 12, 16, 9, 0),
+                LocalDateTime.of(2024, 12, 16, 18, 0));
+        assertEquals(3, slots.size());
+        assertEquals("Dec 16 2024, 10:00 AM to Dec 16 2024, 11:00 AM", slots.get(0).toString());
+        assertEquals("Dec 16 2024, 1:00 PM to Dec 16 2024, 2:00 PM", slots.get(1).toString());
+        assertEquals("Dec 16 2024, 2:30 PM to Dec 16 2024, 6:00 PM", slots.get(2).toString());
+
+        taskList.deleteTask(3);
+        assertEquals("Dec 16 2024, 1:00 PM to Dec 16 2024, 6:00 PM", taskList.findFreeSlots(Duration.ofHours(2),
+                LocalDateTime.of(2024, 12, 16, 9, 0), LocalDateTime.of(2024, 12, 16, 18, 0)).get(0).toString());
+    }
+
+    @Test
+    public void addDependency_cycleAndDone_rejectsCycleAndUpdatesReadyTasks() throws ZenException {
+        Task task3 = new Todo("Send report");
+        taskList.addTasks(List.of(task1, task2, task3));
+        assertTrue(taskList.addDependency(1, task1));
+        assertTrue(taskList.addDependency(2, task2));
+
+        assertFalse(taskList.addDependency(0, task3));
+        assertFalse(taskList.addDependency(0, task1));
+        assertTrue(task1.getBlockers().isEmpty());
+        assertEquals(List.of(task1), taskList.getReadyTasks());
+
+        taskList.markTask(0);
+        assertEquals(List.of(task2), taskList.getReadyTasks());
+
+        taskList.deleteTask(1);
+        assertTrue(task3.getBlockers().isEmpty());
+        assertEquals(List.of(task3), taskList.getReadyTasks());
+
+        taskList.unmarkTask(0);
+        assertEquals(List.of(task1, task3), taskList.getReadyTasks());
+    }
+
+    @Test
+    public void getTopTasks_priorityChanges_keepsMostUrgentFirst() throws ZenException {
+        Task task3 = new Todo("Pay rent");
+        Task task4 = new Todo("Water plants");
+        task1.setPriority(2);
+        task2.setPriority(3);
+        task3.setPriority(1);
+        taskList.addTasks(List.of(task1, task2, task3, task4));
+        assertEquals(List.of(task3, task1, task2), taskList.getTopTasks(5));
+        assertEquals("[T][ ] Pay rent (p1)", task3.toString());
+
+        taskList.setPriority(1, 1);
+        taskList.setPriority(3, 2);
+        assertEquals(List.of(task2, task3), taskList.getTopTasks(2));
+
+        taskList.markTask(2);
+        taskList.setPriority(1, 0);
+        assertEquals(List.of(task1, task4), taskList.getTopTasks(5));
+        assertEquals("[T][ ] Write report", task2.toString());
+
+        taskList.unmarkTask(2);
+        taskList.deleteTask(0);
+        assertEquals(List.of(task3, task4), taskList.getTopTasks(5));
+    }
+
+    @Test
+    public void getVersion_changesOnlyWhenListChanges() throws ZenException {
+        long initial = taskList.getVersion();
+        taskList.addTask(task1);
+        taskList.markTask(0);
+        long afterMark = taskList.getVersion();
+        assertTrue(afterMark > initial);
+
+        taskList.markTask(0);
+        taskList.getTasks();
+        assertEquals(afterMark, taskList.getVersion());
+        taskList.beginBatch();
+        taskList.addTask(task2);
+        assertTrue(taskList.getVersion() > afterMark);
+        taskList.endBatch();
+    }
 }
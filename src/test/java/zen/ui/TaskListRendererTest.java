@@ -0,0 +1,57 @@
+package zen.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.TaskList;
+import zen.task.TaskOrder;
+import zen.task.Todo;
+
+/**
+ * JUnit tests for the TaskListRenderer class
+ */
+public class TaskListRendererTest {
+    private TaskList taskList;
+    private TaskListRenderer renderer;
+
+    @BeforeEach
+    public void setUp() throws ZenException {
+        taskList = new TaskList();
+        renderer = new TaskListRenderer(taskList, " ", "\n");
+        taskList.addListener(renderer);
+        for (int i = 0; i < 2 * TaskListRenderer.CHUNK_SIZE + 10; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+    }
+
+    @Test
+    public void render_afterChanges_matchesFreshRendering() throws ZenException {
+        assertEquals(renderFresh(), render(renderer));
+
+        taskList.markTask(3);
+        taskList.deleteTask(TaskListRenderer.CHUNK_SIZE + 1);
+        taskList.addTask(new Todo("last"));
+        taskList.setPriority(0, 2);
+        assertEquals(renderFresh(), render(renderer));
+
+        taskList.sortTasks(TaskOrder.PRIORITY.getComparator());
+        taskList.beginBatch();
+        taskList.insertTask(0, new Todo("first"));
+        assertEquals(renderFresh(), render(renderer));
+        taskList.endBatch();
+        assertEquals(renderFresh(), render(renderer));
+    }
+
+    private String renderFresh() {
+        return render(new TaskListRenderer(taskList, " ", "\n"));
+    }
+
+    private static String render(TaskListRenderer renderer) {
+        StringBuilder output = new StringBuilder();
+        renderer.render(output::append);
+        return output.toString();
+    }
+}
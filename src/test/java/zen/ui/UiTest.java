@@ -0,0 +1,44 @@
+package zen.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+import zen.task.Todo;
+
+/**
+ * JUnit tests for the Ui class
+ */
+public class UiTest {
+    @Test
+    public void showReminder_duringCommand_isShownAfterTheResponse() throws ZenException {
+        InputStream standardInput = System.in;
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        System.setIn(new ByteArrayInputStream("list\n".getBytes(StandardCharsets.UTF_8)));
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+        try {
+            Ui ui = new Ui();
+            ui.showLine();
+            ui.showReminder(new Todo("water plants"));
+            ui.showError("busy");
+            ui.showLine();
+            assertEquals("", console.toString(StandardCharsets.UTF_8));
+
+            assertEquals("list", ui.readCommand());
+            String[] lines = console.toString(StandardCharsets.UTF_8).split("\\R");
+            assertEquals(" NOOOOO!!! busy", lines[1]);
+            assertEquals(" ⏰ Reminder! This is due now:", lines[4]);
+        } finally {
+            System.setIn(standardInput);
+            System.setOut(standardOutput);
+        }
+    }
+}
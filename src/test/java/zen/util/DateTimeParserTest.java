@@ -0,0 +1,62 @@
+package zen.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests for the DateTimeParser class
+ */
+public class DateTimeParserTest {
+    // A Wednesday
+    private static final LocalDate TODAY = LocalDate.of(2024, 12, 18);
+
+    private static DateTimeParser parserOn(LocalDate today) {
+        return new DateTimeParser(Clock.fixed(today.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void parse_absoluteFormats_parsesDateAndTime() {
+        DateTimeParser parser = parserOn(TODAY);
+        assertEquals(LocalDateTime.of(2024, 12, 20, 14, 0), parser.parse("2024-12-20 2pm"));
+        assertEquals(LocalDateTime.of(2024, 12, 20, 14, 30), parser.parse("2024-12-20 14:30"));
+        assertEquals(LocalDateTime.of(2019, 12, 2, 18, 0), parser.parse("2/12/2019 1800"));
+        assertEquals(LocalDateTime.of(2024, 12, 20, 0, 15), parser.parse("Dec 20 2024, 12:15 AM"));
+        assertEquals(LocalDate.of(2024, 12, 25), parser.parse("Dec 25 2024"));
+        assertEquals(LocalDate.of(2025, 3, 5), parser.parse("5th March 2025"));
+    }
+
+    @Test
+    public void parse_relativeFormats_resolvesAgainstToday() {
+        DateTimeParser parser = parserOn(TODAY);
+        assertEquals(LocalDateTime.of(2024, 12, 19, 9, 0), parser.parse("tomorrow 9am"));
+        assertEquals(LocalDate.of(2024, 12, 23), parser.parse("next monday"));
+        assertEquals(LocalDate.of(2024, 12, 21), parser.parse("in 3 days"));
+        assertEquals(LocalDate.of(2024, 12, 20), parser.parse("Dec 20"));
+        assertEquals(LocalDate.of(2025, 12, 5), parser.parse("Dec 5"));
+    }
+
+    @Test
+    public void parse_relativeFormatOnLaterDay_doesNotReuseCachedResult() {
+        DateTimeParser parser = parserOn(TODAY);
+        assertEquals(LocalDate.of(2024, 12, 18), parser.parse("today"));
+        assertEquals(LocalDate.of(2024, 12, 18), parser.parse("today"));
+        assertEquals(LocalDate.of(2024, 12, 20), parserOn(TODAY.plusDays(2)).parse("today"));
+    }
+
+    @Test
+    public void parse_freeTextOrInvalidValues_returnsNull() {
+        DateTimeParser parser = parserOn(TODAY);
+        String[] inputs = {"Sunday", "Mon 2pm", "4pm", "after lunch", "Feb 30 2024", "2024-12-20 25:00",
+            "2024-12-20 13pm", "31/4/2024", "next year", "tomorrow at some point"};
+        for (String input : inputs) {
+            assertNull(parser.parse(input), input);
+        }
+    }
+}
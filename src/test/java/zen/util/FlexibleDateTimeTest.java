@@ -0,0 +1,72 @@
+package zen.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import zen.exception.ZenException;
+
+/**
+ * JUnit tests for the FlexibleDateTime class
+ */
+public class FlexibleDateTimeTest {
+
+    @Test
+    public void constructor_isoInputs_parsesDateAndDateTime() throws ZenException {
+        FlexibleDateTime date = new FlexibleDateTime("2024-12-25");
+        assertEquals(FlexibleDateTime.DateTimeType.DATE_ONLY, date.getType());
+        assertEquals(LocalDate.of(2024, 12, 25).atStartOfDay(), date.toLocalDateTime());
+
+        FlexibleDateTime dateTime = new FlexibleDateTime("2024-12-20T14:00");
+        assertEquals(FlexibleDateTime.DateTimeType.DATE_TIME, dateTime.getType());
+        assertEquals("Dec 20 2024, 2:00 PM", dateTime.toString());
+
+        FlexibleDateTime precise = new FlexibleDateTime("2024-12-20T14:00:30.5");
+        assertEquals(LocalDateTime.of(2024, 12, 20, 14, 0, 30), precise.toLocalDateTime());
+    }
+
+    @Test
+    public void constructor_freeTextOrImpossibleDates_fallsBackToString() throws ZenException {
+        String[] inputs = {"Sunday", "Mon 2pm", "2024-02-30", "2023-02-29", "2024-13-01",
+            "2024-12-20T24:00", "2024-12-20T14:00:", "+2024-12-20"};
+        for (String input : inputs) {
+            FlexibleDateTime value = new FlexibleDateTime(input);
+            assertEquals(FlexibleDateTime.DateTimeType.STRING, value.getType(), input);
+            assertEquals(input, value.toString());
+        }
+        assertEquals(FlexibleDateTime.DateTimeType.DATE_ONLY, new FlexibleDateTime("2024-02-29").getType());
+    }
+
+    @Test
+    public void constructor_displayFormat_roundTrips() throws ZenException {
+        FlexibleDateTime dateTime = new FlexibleDateTime("2024-12-20 2pm");
+        FlexibleDateTime reloaded = new FlexibleDateTime(dateTime.toString());
+        assertEquals(FlexibleDateTime.DateTimeType.DATE_TIME, reloaded.getType());
+        assertEquals(dateTime.toLocalDateTime(), reloaded.toLocalDateTime());
+
+        FlexibleDateTime date = new FlexibleDateTime(new FlexibleDateTime("2024-12-25").toString());
+        assertEquals(FlexibleDateTime.DateTimeType.DATE_ONLY, date.getType());
+        assertEquals(LocalDate.of(2024, 12, 25).atStartOfDay(), date.toLocalDateTime());
+    }
+
+    @Test
+    public void compareTo_mixedValues_ordersChronologicallyThenText() throws ZenException {
+        FlexibleDateTime date = new FlexibleDateTime("2024-12-20");
+        FlexibleDateTime midnight = new FlexibleDateTime("2024-12-20T00:00");
+        FlexibleDateTime afternoon = new FlexibleDateTime("2024-12-20 2pm");
+        FlexibleDateTime earlier = new FlexibleDateTime("1969-07-20T20:17");
+        FlexibleDateTime text = new FlexibleDateTime("Sunday");
+
+        assertTrue(earlier.compareTo(date) < 0);
+        assertTrue(date.compareTo(midnight) < 0);
+        assertTrue(midnight.compareTo(afternoon) < 0);
+        assertTrue(afternoon.compareTo(text) < 0);
+        assertEquals(0, afternoon.compareTo(new FlexibleDateTime("Dec 20 2024, 2:00 PM")));
+        assertEquals(afternoon, new FlexibleDateTime("2024-12-20T14:00"));
+        assertEquals(LocalDateTime.of(1969, 7, 20, 20, 17), earlier.toLocalDateTime());
+    }
+}